@@ -14,6 +14,8 @@ import net.kyori.adventure.util.Services;
 import net.kyori.option.OptionSchema;
 import net.kyori.option.OptionState;
 import net.momirealms.sparrow.nbt.*;
+import net.momirealms.sparrow.nbt.jfr.ComponentSerializeEvent;
+import net.momirealms.sparrow.nbt.metrics.NBTMetrics;
 import net.momirealms.sparrow.nbt.util.UUIDUtil;
 import org.jetbrains.annotations.NotNull;
 
@@ -207,6 +209,54 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
 
     @Override
     public @NotNull Component deserialize(@NotNull Tag inputTag) {
+        NBTMetrics metrics = NBT.metrics();
+        ComponentSerializeEvent event = new ComponentSerializeEvent();
+        if (metrics == null && !event.isEnabled()) {
+            return this.deserializeComponent(inputTag);
+        }
+        event.begin();
+        long startTime = System.nanoTime();
+        Component component = this.deserializeComponent(inputTag);
+        long nanos = System.nanoTime() - startTime;
+        event.end();
+        if (metrics != null) {
+            metrics.record(NBTMetrics.Operation.COMPONENT_DESERIALIZE, -1, nanos);
+        }
+        if (event.shouldCommit()) {
+            event.deserialize = true;
+            event.setRoot(inputTag);
+            event.commit();
+        }
+        return component;
+    }
+
+    @NotNull
+    @Override
+    public Tag serialize(@NotNull Component component) {
+        NBTMetrics metrics = NBT.metrics();
+        ComponentSerializeEvent event = new ComponentSerializeEvent();
+        if (metrics == null && !event.isEnabled()) {
+            return this.serializeComponent(component);
+        }
+        event.begin();
+        long startTime = System.nanoTime();
+        Tag tag = this.serializeComponent(component);
+        long nanos = System.nanoTime() - startTime;
+        event.end();
+        if (metrics != null) {
+            NBTMetrics.record(metrics, NBTMetrics.Operation.COMPONENT_SERIALIZE, -1, nanos, tag);
+        }
+        if (event.shouldCommit()) {
+            event.setRoot(tag);
+            event.commit();
+        }
+        return tag;
+    }
+
+    /**
+     * Deserializes without reporting to metrics, for nested components.
+     */
+    @NotNull Component deserializeComponent(@NotNull Tag inputTag) {
         if (!(inputTag instanceof CompoundTag input)) {
             return Component.text(inputTag.getAsString());
         }
@@ -255,7 +305,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
         if (binaryChildren != null) {
             List<Component> children = new ArrayList<>(binaryChildren.size());
             for (int i = 0; i < binaryChildren.size(); i++) {
-                children.add(deserialize(binaryChildren.get(i)));
+                children.add(deserializeComponent(binaryChildren.get(i)));
             }
             builder.append(children);
         }
@@ -263,9 +313,10 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
         return builder.build();
     }
 
-    @NotNull
-    @Override
-    public Tag serialize(@NotNull Component component) {
+    /**
+     * Serializes without reporting to metrics, for nested components.
+     */
+    @NotNull Tag serializeComponent(@NotNull Component component) {
         if (this.compactTextComponent && component instanceof TextComponent textComponent && !component.hasStyling() && component.children().isEmpty()) {
             return new StringTag(textComponent.content());
         }
@@ -279,7 +330,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
         if (!children.isEmpty()) {
             List<Tag> serializedChildren = new ArrayList<>(children.size());
             for (int i = 0, size = children.size(); i < size; i++) {
-                serializedChildren.add(serialize(children.get(i)));
+                serializedChildren.add(serializeComponent(children.get(i)));
             }
             tag.put(EXTRA, new ListTag(serializedChildren));
         }
@@ -323,7 +374,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
                 tag.putString(SELECTOR, selectorComponent.pattern());
                 Component separator = selectorComponent.separator();
                 if (separator != null) {
-                    tag.put(SELECTOR_SEPARATOR, this.serialize(separator));
+                    tag.put(SELECTOR_SEPARATOR, this.serializeComponent(separator));
                 }
             }
             case NBTComponent<?> nbtComponent -> {
@@ -337,7 +388,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
                 }
                 Component separator = nbtComponent.separator();
                 if (separator != null) {
-                    tag.put(NBT_SEPARATOR, this.serialize(separator));
+                    tag.put(NBT_SEPARATOR, this.serializeComponent(separator));
                 }
                 switch (nbtComponent) {
                     case BlockNBTComponent blockNBTComponent ->
@@ -354,7 +405,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
                 ObjectContents contents = objectComponent.contents();
                 Component fallback = objectComponent.fallback();
                 if (fallback != null) {
-                    tag.put(OBJECT_FALLBACK, this.serialize(fallback));
+                    tag.put(OBJECT_FALLBACK, this.serializeComponent(fallback));
                 }
                 if (contents instanceof SpriteObjectContents spriteObjectContents) {
                     tag.putString(OBJECT, OBJECT_ATLAS);
@@ -415,14 +466,14 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
     private Tag serializeTranslationArgument(TranslationArgument argument) {
         Object value = argument.value();
         return switch (value) {
-            case Boolean bool -> new ByteTag(bool);
-            case Byte b -> new ByteTag(b);
-            case Short s -> new ShortTag(s);
-            case Integer i -> new IntTag(i);
-            case Long l -> new LongTag(l);
+            case Boolean bool -> ByteTag.valueOf(bool);
+            case Byte b -> ByteTag.valueOf(b);
+            case Short s -> ShortTag.valueOf(s);
+            case Integer i -> IntTag.valueOf(i);
+            case Long l -> LongTag.valueOf(l);
             case Float f -> new FloatTag(f);
             case Number d -> new DoubleTag(d.doubleValue());
-            case Component c -> serialize(c);
+            case Component c -> serializeComponent(c);
             default -> throw new IllegalStateException("Unexpected translation argument: " + argument);
         };
     }
@@ -546,7 +597,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
         if (this.modernEvent) {
             if (action == HoverEvent.Action.SHOW_TEXT) {
                 hoverTag.putString(HOVER_EVENT_ACTION, HOVER_EVENT_SHOW_TEXT);
-                hoverTag.put(HOVER_EVENT_VALUE, serialize((Component) event.value()));
+                hoverTag.put(HOVER_EVENT_VALUE, serializeComponent((Component) event.value()));
             } else if (action == HoverEvent.Action.SHOW_ITEM) {
                 HoverEvent.ShowItem item = (HoverEvent.ShowItem) event.value();
                 hoverTag.putString(HOVER_EVENT_ACTION, HOVER_EVENT_SHOW_ITEM);
@@ -575,7 +626,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
                 hoverTag.put(HOVER_EVENT_UUID, serializeUUID(entity.id()));
                 Component customName = entity.name();
                 if (customName != null) {
-                    hoverTag.put(HOVER_EVENT_NAME, serialize(customName));
+                    hoverTag.put(HOVER_EVENT_NAME, serializeComponent(customName));
                 }
             } else {
                 return;
@@ -584,7 +635,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
         } else {
             Tag contents;
             if (action == HoverEvent.Action.SHOW_TEXT) {
-                contents = serialize((Component) event.value());
+                contents = serializeComponent((Component) event.value());
                 hoverTag.putString(HOVER_EVENT_ACTION, HOVER_EVENT_SHOW_TEXT);
             } else if (action == HoverEvent.Action.SHOW_ITEM) {
                 HoverEvent.ShowItem item = (HoverEvent.ShowItem) event.value();
@@ -622,7 +673,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
                 showEntityTag.put(HOVER_EVENT_ID, serializeUUID(entity.id()));
                 Component customName = entity.name();
                 if (customName != null) {
-                    showEntityTag.put(HOVER_EVENT_NAME, serialize(customName));
+                    showEntityTag.put(HOVER_EVENT_NAME, serializeComponent(customName));
                 }
                 contents = showEntityTag;
             } else {
@@ -654,11 +705,11 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
         StyleApplier CLICK_EVENT = new ClickEvent0();
         StyleApplier HOVER_EVENT = new HoverEvent0();
 
-        void apply(@NotNull final NBTComponentSerializer serializer, @NotNull final Style.Builder builder, @NotNull final Tag tag);
+        void apply(@NotNull final NBTComponentSerializerImpl serializer, @NotNull final Style.Builder builder, @NotNull final Tag tag);
 
         class Color0 implements StyleApplier {
             @Override
-            public void apply(@NotNull NBTComponentSerializer serializer, Style.@NotNull Builder builder, @NotNull Tag tag) {
+            public void apply(@NotNull NBTComponentSerializerImpl serializer, Style.@NotNull Builder builder, @NotNull Tag tag) {
                 String color = tag.getAsString();
                 if (color.startsWith(TextColor.HEX_PREFIX)) {
                     builder.color(TextColor.fromHexString(color));
@@ -676,7 +727,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
             }
 
             @Override
-            public void apply(@NotNull NBTComponentSerializer serializer, Style.@NotNull Builder builder, @NotNull Tag tag) {
+            public void apply(@NotNull NBTComponentSerializerImpl serializer, Style.@NotNull Builder builder, @NotNull Tag tag) {
                 if (tag instanceof ByteTag byteTag) {
                     builder.decoration(this.decoration, byteTag.booleanValue());
                 }
@@ -686,21 +737,21 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
         class Font0 implements StyleApplier {
             @SuppressWarnings("all")
             @Override
-            public void apply(@NotNull NBTComponentSerializer serializer, Style.@NotNull Builder builder, @NotNull Tag tag) {
+            public void apply(@NotNull NBTComponentSerializerImpl serializer, Style.@NotNull Builder builder, @NotNull Tag tag) {
                 builder.font(Key.key(tag.getAsString()));
             }
         }
 
         class Insertion0 implements StyleApplier {
             @Override
-            public void apply(@NotNull NBTComponentSerializer serializer, Style.@NotNull Builder builder, @NotNull Tag tag) {
+            public void apply(@NotNull NBTComponentSerializerImpl serializer, Style.@NotNull Builder builder, @NotNull Tag tag) {
                 builder.insertion(tag.getAsString());
             }
         }
 
         class ShadowColor0 implements StyleApplier {
             @Override
-            public void apply(@NotNull NBTComponentSerializer serializer, Style.@NotNull Builder builder, @NotNull Tag tag) {
+            public void apply(@NotNull NBTComponentSerializerImpl serializer, Style.@NotNull Builder builder, @NotNull Tag tag) {
                 if (tag instanceof IntTag intTag) {
                     builder.shadowColor(ShadowColor.shadowColor(intTag.getAsInt()));
                 } else if (tag instanceof ListTag listTag && listTag.size() == 4) {
@@ -727,7 +778,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
             }
 
             @Override
-            public void apply(@NotNull NBTComponentSerializer serializer, Style.@NotNull Builder builder, @NotNull Tag tag) {
+            public void apply(@NotNull NBTComponentSerializerImpl serializer, Style.@NotNull Builder builder, @NotNull Tag tag) {
                 if (!(tag instanceof CompoundTag input)) {
                     return;
                 }
@@ -749,7 +800,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
             ClickEventApplier SHOW_DIALOG = new ShowDialog();
             ClickEventApplier CUSTOM = new Custom();
 
-            void apply(@NotNull NBTComponentSerializer serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input);
+            void apply(@NotNull NBTComponentSerializerImpl serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input);
 
             class StringClickEvent implements ClickEventApplier {
                 private final String field;
@@ -761,7 +812,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
                 }
 
                 @Override
-                public void apply(@NotNull NBTComponentSerializer serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input) {
+                public void apply(@NotNull NBTComponentSerializerImpl serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input) {
                     String value;
                     if (serializer.modernEvent()) {
                         value = input.getString(this.field);
@@ -782,7 +833,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
                 }
 
                 @Override
-                public void apply(@NotNull NBTComponentSerializer serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input) {
+                public void apply(@NotNull NBTComponentSerializerImpl serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input) {
                     int value;
                     if (serializer.modernEvent()) {
                         value = input.getInt(this.field);
@@ -795,7 +846,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
 
             class ShowDialog implements ClickEventApplier {
                 @Override
-                public void apply(@NotNull NBTComponentSerializer serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input) {
+                public void apply(@NotNull NBTComponentSerializerImpl serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input) {
                     builder.clickEvent(ClickEvent.showDialog(NBTDialog.of(input.getCompound(CLICK_EVENT_DIALOG))));
                 }
             }
@@ -803,7 +854,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
             class Custom implements ClickEventApplier {
                 @SuppressWarnings("all")
                 @Override
-                public void apply(@NotNull NBTComponentSerializer serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input) {
+                public void apply(@NotNull NBTComponentSerializerImpl serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input) {
                     String payload = input.getString(CLICK_EVENT_CUSTOM_PAYLOAD);
                     Key id = Key.key(input.getString(CLICK_EVENT_CUSTOM_ID));
                     if (payload != null) {
@@ -824,7 +875,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
             }
 
             @Override
-            public void apply(@NotNull NBTComponentSerializer serializer, Style.@NotNull Builder builder, @NotNull Tag tag) {
+            public void apply(@NotNull NBTComponentSerializerImpl serializer, Style.@NotNull Builder builder, @NotNull Tag tag) {
                 if (!(tag instanceof CompoundTag input)) {
                     return;
                 }
@@ -841,12 +892,12 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
             HoverEventApplier SHOW_TEXT = new ShowText();
             HoverEventApplier SHOW_ENTITY = new ShowEntity();
 
-            void apply(@NotNull NBTComponentSerializer serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input);
+            void apply(@NotNull NBTComponentSerializerImpl serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input);
 
             class ShowItem implements HoverEventApplier {
                 @SuppressWarnings("all")
                 @Override
-                public void apply(@NotNull NBTComponentSerializer serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input) {
+                public void apply(@NotNull NBTComponentSerializerImpl serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input) {
                     if (serializer.modernEvent()) {
                         Key item = Key.key(input.getString(HOVER_EVENT_ID));
                         int count = input.getInt(HOVER_EVENT_COUNT, 1);
@@ -905,16 +956,16 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
 
             class ShowText implements HoverEventApplier {
                 @Override
-                public void apply(@NotNull NBTComponentSerializer serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input) {
+                public void apply(@NotNull NBTComponentSerializerImpl serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input) {
                     if (serializer.modernEvent()) {
                         Tag tag = input.get(HOVER_EVENT_VALUE);
                         if (tag != null) {
-                            builder.hoverEvent(HoverEvent.showText(serializer.deserialize(tag)));
+                            builder.hoverEvent(HoverEvent.showText(serializer.deserializeComponent(tag)));
                         }
                     } else {
                         Tag contents = input.get(HOVER_EVENT_CONTENTS);
                         if (contents != null) {
-                            builder.hoverEvent(HoverEvent.showText(serializer.deserialize(contents)));
+                            builder.hoverEvent(HoverEvent.showText(serializer.deserializeComponent(contents)));
                         }
                     }
                 }
@@ -923,12 +974,12 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
             class ShowEntity implements HoverEventApplier {
                 @SuppressWarnings("all")
                 @Override
-                public void apply(@NotNull NBTComponentSerializer serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input) {
+                public void apply(@NotNull NBTComponentSerializerImpl serializer, Style.@NotNull Builder builder, @NotNull CompoundTag input) {
                     if (serializer.modernEvent()) {
                         Key entityType = Key.key(input.getString(HOVER_EVENT_ID));
                         Tag entityName = input.get(HOVER_EVENT_NAME);
                         if (entityName != null) {
-                            builder.hoverEvent(HoverEvent.showEntity(entityType, deserializeUUID(input.get(HOVER_EVENT_UUID)), serializer.deserialize(entityName)));
+                            builder.hoverEvent(HoverEvent.showEntity(entityType, deserializeUUID(input.get(HOVER_EVENT_UUID)), serializer.deserializeComponent(entityName)));
                         } else {
                             builder.hoverEvent(HoverEvent.showEntity(entityType, deserializeUUID(input.get(HOVER_EVENT_UUID))));
                         }
@@ -938,7 +989,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
                             Key entityType = Key.key(contents.getString(HOVER_EVENT_TYPE));
                             Tag entityName = contents.get(HOVER_EVENT_NAME);
                             if (entityName != null) {
-                                builder.hoverEvent(HoverEvent.showEntity(entityType, deserializeUUID(contents.get(HOVER_EVENT_ID)), serializer.deserialize(entityName)));
+                                builder.hoverEvent(HoverEvent.showEntity(entityType, deserializeUUID(contents.get(HOVER_EVENT_ID)), serializer.deserializeComponent(entityName)));
                             } else {
                                 builder.hoverEvent(HoverEvent.showEntity(entityType, deserializeUUID(contents.get(HOVER_EVENT_ID))));
                             }
@@ -972,11 +1023,11 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
         ComponentReader NBT_COMPONENT = new NBT();
         ComponentReader OBJECT_COMPONENT = new Object();
 
-        ComponentBuilder<?, ?> deserialize(@NotNull NBTComponentSerializer serializer, @NotNull CompoundTag input);
+        ComponentBuilder<?, ?> deserialize(@NotNull NBTComponentSerializerImpl serializer, @NotNull CompoundTag input);
 
         class Text implements ComponentReader {
             @Override
-            public ComponentBuilder<?, ?> deserialize(@NotNull NBTComponentSerializer serializer, @NotNull CompoundTag input) {
+            public ComponentBuilder<?, ?> deserialize(@NotNull NBTComponentSerializerImpl serializer, @NotNull CompoundTag input) {
                 return Component.text()
                         .content(input.getString(TEXT));
             }
@@ -984,7 +1035,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
 
         class Translatable implements ComponentReader {
             @Override
-            public ComponentBuilder<?, ?> deserialize(@NotNull NBTComponentSerializer serializer, @NotNull CompoundTag input) {
+            public ComponentBuilder<?, ?> deserialize(@NotNull NBTComponentSerializerImpl serializer, @NotNull CompoundTag input) {
                 TranslatableComponent.Builder builder = Component.translatable()
                         .key(input.getString(TRANSLATE));
                 String fallback = input.getString(TRANSLATE_FALLBACK);
@@ -1001,18 +1052,18 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
                 return builder;
             }
 
-            private ComponentLike deserializeTranslationArgument(NBTComponentSerializer serializer, Tag tag) {
+            private ComponentLike deserializeTranslationArgument(NBTComponentSerializerImpl serializer, Tag tag) {
                 if (tag instanceof NumericTag numericTag) {
                     return TranslationArgument.numeric(numericTag.getAsNumber());
                 } else {
-                    return serializer.deserialize(tag);
+                    return serializer.deserializeComponent(tag);
                 }
             }
         }
 
         class Score implements ComponentReader {
             @Override
-            public ComponentBuilder<?, ?> deserialize(@NotNull NBTComponentSerializer serializer, @NotNull CompoundTag input) {
+            public ComponentBuilder<?, ?> deserialize(@NotNull NBTComponentSerializerImpl serializer, @NotNull CompoundTag input) {
                 CompoundTag scoreTag = input.getCompound(SCORE);
                 String scoreName = scoreTag.getString(SCORE_NAME);
                 String scoreObjective = scoreTag.getString(SCORE_OBJECTIVE);
@@ -1024,7 +1075,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
 
         class Keybind implements ComponentReader {
             @Override
-            public ComponentBuilder<?, ?> deserialize(@NotNull NBTComponentSerializer serializer, @NotNull CompoundTag input) {
+            public ComponentBuilder<?, ?> deserialize(@NotNull NBTComponentSerializerImpl serializer, @NotNull CompoundTag input) {
                 return Component.keybind()
                         .keybind(input.getString(KEYBIND));
             }
@@ -1032,12 +1083,12 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
 
         class Selector implements ComponentReader {
             @Override
-            public ComponentBuilder<?, ?> deserialize(@NotNull NBTComponentSerializer serializer, @NotNull CompoundTag input) {
+            public ComponentBuilder<?, ?> deserialize(@NotNull NBTComponentSerializerImpl serializer, @NotNull CompoundTag input) {
                 String selector = input.getString(SELECTOR);
                 SelectorComponent.Builder builder = Component.selector().pattern(selector);
                 Tag binarySelectorSeparator = input.get(SELECTOR_SEPARATOR);
                 if (binarySelectorSeparator != null) {
-                    builder.separator(serializer.deserialize(binarySelectorSeparator));
+                    builder.separator(serializer.deserializeComponent(binarySelectorSeparator));
                 }
                 return builder;
             }
@@ -1046,7 +1097,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
         class NBT implements ComponentReader {
             @SuppressWarnings("all")
             @Override
-            public ComponentBuilder<?, ?> deserialize(@NotNull NBTComponentSerializer serializer, @NotNull CompoundTag input) {
+            public ComponentBuilder<?, ?> deserialize(@NotNull NBTComponentSerializerImpl serializer, @NotNull CompoundTag input) {
                 String nbtPath = input.getString(NBT);
 
                 NBTComponentBuilder<?, ?> builder = null;
@@ -1074,7 +1125,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
                 builder.nbtPath(nbtPath);
                 Tag binaryNbtSeparator = input.get(NBT_SEPARATOR);
                 if (binaryNbtSeparator != null) {
-                    builder.separator(serializer.deserialize(binaryNbtSeparator));
+                    builder.separator(serializer.deserializeComponent(binaryNbtSeparator));
                 }
                 if (input.getBoolean(NBT_INTERPRET)) {
                     builder.interpret(true);
@@ -1089,7 +1140,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
         class Object implements ComponentReader {
             @SuppressWarnings("all")
             @Override
-            public ComponentBuilder<?, ?> deserialize(@NotNull NBTComponentSerializer serializer, @NotNull CompoundTag input) {
+            public ComponentBuilder<?, ?> deserialize(@NotNull NBTComponentSerializerImpl serializer, @NotNull CompoundTag input) {
                 CompoundTag playerTag = input.getCompound(OBJECT_PLAYER);
                 if (playerTag != null) {
                     PlayerHeadObjectContents.Builder builder = ObjectContents.playerHead();
@@ -1129,7 +1180,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
                             .contents(builder.build());
                     Tag fallback = input.getCompound(OBJECT_FALLBACK);
                     if (fallback != null) {
-                        componentBuilder.fallback(serializer.deserialize(fallback));
+                        componentBuilder.fallback(serializer.deserializeComponent(fallback));
                     }
                     return componentBuilder;
                 }
@@ -1142,7 +1193,7 @@ final class NBTComponentSerializerImpl implements NBTComponentSerializer {
                             .contents(ObjectContents.sprite(atlasKey, Key.key(sprite)));
                     Tag fallback = input.getCompound(OBJECT_FALLBACK);
                     if (fallback != null) {
-                        componentBuilder.fallback(serializer.deserialize(fallback));
+                        componentBuilder.fallback(serializer.deserializeComponent(fallback));
                     }
                     return componentBuilder;
                 }
@@ -0,0 +1,45 @@
+plugins {
+    id("java")
+    id("me.champeau.jmh") version "0.7.2"
+}
+
+repositories {
+    mavenCentral()
+    maven("https://libraries.minecraft.net/")
+}
+
+dependencies {
+    implementation(project(":core"))
+    jmhImplementation(project(":core"))
+    jmhImplementation(project(":codec"))
+    jmhImplementation(project(":adventure"))
+    jmhImplementation("com.mojang:datafixerupper:8.0.16")
+    jmhImplementation("net.kyori:adventure-api:5.0.1")
+    jmhImplementation("net.kyori:option:1.1.0")
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_21
+    targetCompatibility = JavaVersion.VERSION_21
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
+tasks.withType<JavaCompile> {
+    options.encoding = "UTF-8"
+    options.release.set(21)
+}
+
+// ./gradlew :benchmarks:jmh -Pjmh.includes=BinaryBenchmark -Pjmh.results=results/baseline.json
+// the gc profiler is on unless -Pjmh.profilers= names others, or none when left empty
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+    (findProperty("jmh.includes") as String?)?.let { includes.set(it.split(',')) }
+    profilers.set(((findProperty("jmh.profilers") as String?) ?: "gc").split(',').filter { it.isNotBlank() })
+    resultsFile.set(layout.projectDirectory.file((findProperty("jmh.results") as String?) ?: "results/latest.json"))
+}
@@ -0,0 +1,19 @@
+#!/bin/sh
+# Compares two JMH JSON result files benchmark by benchmark.
+# usage: benchmarks/compare.sh results/baseline.json results/candidate.json
+set -e
+if [ $# -ne 2 ]; then
+    echo "usage: $0 <baseline.json> <candidate.json>" >&2
+    exit 1
+fi
+jq -r -s '
+  def key: .benchmark + (.params // {} | to_entries | map(":" + .value) | join(""));
+  def round3: . * 1000 | round / 1000;
+  def alloc: .secondaryMetrics["gc.alloc.rate.norm"].score // null | if . == null then "-" else round end;
+  (.[0] | map({key: key, value: .}) | from_entries) as $base
+  | ["benchmark", "baseline", "candidate", "unit", "change", "B/op before", "B/op after"],
+    (.[1][] | key as $k | select($base[$k])
+     | [$k, ($base[$k].primaryMetric.score | round3), (.primaryMetric.score | round3), .primaryMetric.scoreUnit,
+        ((.primaryMetric.score / $base[$k].primaryMetric.score * 100 | round) - 100 | tostring) + "%",
+        ($base[$k] | alloc), alloc])
+  | @tsv' "$1" "$2"
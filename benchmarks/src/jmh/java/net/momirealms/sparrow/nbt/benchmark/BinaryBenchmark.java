@@ -0,0 +1,49 @@
+package net.momirealms.sparrow.nbt.benchmark;
+
+import net.momirealms.sparrow.nbt.CompoundTag;
+import net.momirealms.sparrow.nbt.NBT;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding and encoding of whole compounds in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BinaryBenchmark {
+
+    @Param({"PLAYER", "CHUNK", "BLOCK_ENTITY"})
+    public CorpusGenerator.Shape shape;
+
+    private CompoundTag tag;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() throws IOException {
+        this.tag = new CorpusGenerator(42).generate(this.shape);
+        this.bytes = NBT.toBytes(this.tag);
+    }
+
+    @Benchmark
+    public CompoundTag fromBytes() throws IOException {
+        return NBT.fromBytes(this.bytes);
+    }
+
+    @Benchmark
+    public CompoundTag fromBytesLazily() throws IOException {
+        return NBT.fromBytesLazily(this.bytes);
+    }
+
+    @Benchmark
+    public byte[] toBytes() throws IOException {
+        return NBT.toBytes(this.tag);
+    }
+
+    @Benchmark
+    public int sizeInBytes() {
+        return NBT.sizeInBytes(this.tag, false);
+    }
+}
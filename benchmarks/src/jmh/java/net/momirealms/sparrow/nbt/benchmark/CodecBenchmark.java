@@ -0,0 +1,64 @@
+package net.momirealms.sparrow.nbt.benchmark;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.momirealms.sparrow.nbt.Tag;
+import net.momirealms.sparrow.nbt.codec.NBTOps;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding a 36-slot inventory through {@link NBTOps} with a record codec shaped like an item stack.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CodecBenchmark {
+
+    public record Item(String id, int count, Optional<String> name, List<String> lore, Map<String, Integer> enchantments) {
+        static final Codec<Item> CODEC = RecordCodecBuilder.create(instance -> instance.group(
+                Codec.STRING.fieldOf("id").forGetter(Item::id),
+                Codec.INT.fieldOf("count").forGetter(Item::count),
+                Codec.STRING.optionalFieldOf("name").forGetter(Item::name),
+                Codec.STRING.listOf().fieldOf("lore").forGetter(Item::lore),
+                Codec.unboundedMap(Codec.STRING, Codec.INT).fieldOf("enchantments").forGetter(Item::enchantments)
+        ).apply(instance, Item::new));
+    }
+
+    private static final Codec<List<Item>> INVENTORY_CODEC = Item.CODEC.listOf();
+
+    private List<Item> inventory;
+    private Tag encoded;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        this.inventory = new ArrayList<>();
+        for (int slot = 0; slot < 36; slot++) {
+            this.inventory.add(new Item(
+                    "minecraft:item_" + random.nextInt(400),
+                    1 + random.nextInt(64),
+                    random.nextBoolean() ? Optional.of("Item " + slot) : Optional.empty(),
+                    List.of("Lore line 0", "Lore line 1", "Lore line 2"),
+                    Map.of("minecraft:sharpness", 1 + random.nextInt(5), "minecraft:unbreaking", 1 + random.nextInt(3))
+            ));
+        }
+        this.encoded = this.encode();
+    }
+
+    @Benchmark
+    public Tag encode() {
+        return INVENTORY_CODEC.encodeStart(NBTOps.INSTANCE, this.inventory).result().orElseThrow();
+    }
+
+    @Benchmark
+    public List<Item> decode() {
+        return INVENTORY_CODEC.parse(NBTOps.INSTANCE, this.encoded).result().orElseThrow();
+    }
+}
@@ -0,0 +1,52 @@
+package net.momirealms.sparrow.nbt.benchmark;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.momirealms.sparrow.nbt.Tag;
+import net.momirealms.sparrow.nbt.adventure.NBTComponentSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing a styled chat component with children and events to NBT and back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ComponentBenchmark {
+
+    private final NBTComponentSerializer serializer = NBTComponentSerializer.nbt();
+    private Component component;
+    private Tag serialized;
+
+    @Setup
+    public void setup() {
+        TextComponent.Builder builder = Component.text()
+                .content("Legendary Sword")
+                .color(NamedTextColor.GOLD)
+                .decorate(TextDecoration.BOLD)
+                .hoverEvent(HoverEvent.showText(Component.text("Forged in the nether", NamedTextColor.GRAY)))
+                .clickEvent(ClickEvent.runCommand("/item info sword"));
+        for (int i = 0; i < 5; i++) {
+            builder.append(Component.text(" line " + i, NamedTextColor.DARK_PURPLE).decoration(TextDecoration.ITALIC, false));
+            builder.append(Component.translatable("enchantment.minecraft.sharpness").arguments(Component.text(i + 1)));
+        }
+        this.component = builder.build();
+        this.serialized = this.serializer.serialize(this.component);
+    }
+
+    @Benchmark
+    public Tag serialize() {
+        return this.serializer.serialize(this.component);
+    }
+
+    @Benchmark
+    public Component deserialize() {
+        return this.serializer.deserialize(this.serialized);
+    }
+}
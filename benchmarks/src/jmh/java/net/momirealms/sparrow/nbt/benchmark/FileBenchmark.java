@@ -0,0 +1,54 @@
+package net.momirealms.sparrow.nbt.benchmark;
+
+import net.momirealms.sparrow.nbt.CompoundTag;
+import net.momirealms.sparrow.nbt.NBT;
+import net.momirealms.sparrow.nbt.io.Compression;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing compounds as files, uncompressed and with GZIP as used by player data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FileBenchmark {
+
+    @Param({"PLAYER", "CHUNK", "BLOCK_ENTITY"})
+    public CorpusGenerator.Shape shape;
+
+    @Param({"NONE", "GZIP"})
+    public Compression compression;
+
+    private CompoundTag tag;
+    private File readFile;
+    private File writeFile;
+
+    @Setup
+    public void setup() throws IOException {
+        this.tag = new CorpusGenerator(42).generate(this.shape);
+        this.readFile = Files.createTempFile("sparrow-nbt-read", ".dat").toFile();
+        this.writeFile = Files.createTempFile("sparrow-nbt-write", ".dat").toFile();
+        NBT.writeFile(this.readFile, this.tag, this.compression, false);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.readFile.delete();
+        this.writeFile.delete();
+    }
+
+    @Benchmark
+    public CompoundTag readFile() throws IOException {
+        return NBT.readFile(this.readFile, this.compression, false);
+    }
+
+    @Benchmark
+    public void writeFile() throws IOException {
+        NBT.writeFile(this.writeFile, this.tag, this.compression, false);
+    }
+}
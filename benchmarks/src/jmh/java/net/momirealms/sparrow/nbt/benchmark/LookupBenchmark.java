@@ -0,0 +1,52 @@
+package net.momirealms.sparrow.nbt.benchmark;
+
+import net.momirealms.sparrow.nbt.CompoundTag;
+import net.momirealms.sparrow.nbt.NBT;
+import net.momirealms.sparrow.nbt.NBTCursor;
+import net.momirealms.sparrow.nbt.NBTProjection;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a few values out of serialized player data: full decode against the projection, lazy tag and cursor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LookupBenchmark {
+
+    private static final NBTProjection PROJECTION = NBTProjection.of("XpLevel", "abilities.walkSpeed");
+
+    private byte[] bytes;
+
+    @Setup
+    public void setup() throws IOException {
+        this.bytes = NBT.toBytes(new CorpusGenerator(42).player());
+    }
+
+    @Benchmark
+    public float fromBytes() throws IOException {
+        CompoundTag tag = NBT.fromBytes(this.bytes);
+        return tag.getInt("XpLevel") + tag.getCompound("abilities").getFloat("walkSpeed");
+    }
+
+    @Benchmark
+    public float projection() throws IOException {
+        CompoundTag tag = PROJECTION.read(this.bytes);
+        return tag.getInt("XpLevel") + tag.getCompound("abilities").getFloat("walkSpeed");
+    }
+
+    @Benchmark
+    public float fromBytesLazily() throws IOException {
+        CompoundTag tag = NBT.fromBytesLazily(this.bytes);
+        return tag.getInt("XpLevel") + tag.getCompound("abilities").getFloat("walkSpeed");
+    }
+
+    @Benchmark
+    public float cursor() throws IOException {
+        NBTCursor cursor = NBTCursor.of(this.bytes);
+        return cursor.getInt("XpLevel") + cursor.enter("abilities").getFloat("walkSpeed");
+    }
+}
@@ -0,0 +1,68 @@
+package net.momirealms.sparrow.nbt.benchmark;
+
+import net.momirealms.sparrow.nbt.CompoundTag;
+import net.momirealms.sparrow.nbt.TagParser;
+import net.momirealms.sparrow.nbt.visitor.CompactStringTagVisitor;
+import net.momirealms.sparrow.nbt.visitor.PrettySNBTWriter;
+import net.momirealms.sparrow.nbt.visitor.PrettyStringTagVisitor;
+import net.momirealms.sparrow.nbt.visitor.SNBTWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting tags as SNBT and parsing them back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SNBTBenchmark {
+
+    @Param({"PLAYER", "CHUNK", "BLOCK_ENTITY"})
+    public CorpusGenerator.Shape shape;
+
+    private CompoundTag tag;
+    private String snbt;
+
+    @Setup
+    public void setup() {
+        this.tag = new CorpusGenerator(42).generate(this.shape);
+        this.snbt = this.tag.getAsString();
+    }
+
+    @Benchmark
+    public String compactVisitor() {
+        return new CompactStringTagVisitor().visit(this.tag);
+    }
+
+    @Benchmark
+    public String writer() {
+        StringBuilder builder = new StringBuilder();
+        new SNBTWriter(builder).write(this.tag);
+        return builder.toString();
+    }
+
+    @Benchmark
+    public String writerUnsorted() {
+        StringBuilder builder = new StringBuilder();
+        new SNBTWriter(builder, false).write(this.tag);
+        return builder.toString();
+    }
+
+    @Benchmark
+    public String prettyVisitor() {
+        return new PrettyStringTagVisitor().visit(this.tag);
+    }
+
+    @Benchmark
+    public String prettyWriter() {
+        StringBuilder builder = new StringBuilder();
+        new PrettySNBTWriter(builder).write(this.tag);
+        return builder.toString();
+    }
+
+    @Benchmark
+    public CompoundTag parse() {
+        return TagParser.parseCompound(this.snbt);
+    }
+}
@@ -0,0 +1,47 @@
+package net.momirealms.sparrow.nbt.benchmark;
+
+import net.momirealms.sparrow.nbt.CompoundTag;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copying and comparing tag trees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TagBenchmark {
+
+    @Param({"PLAYER", "CHUNK", "BLOCK_ENTITY"})
+    public CorpusGenerator.Shape shape;
+
+    private CompoundTag tag;
+    private CompoundTag other;
+
+    @Setup
+    public void setup() {
+        this.tag = new CorpusGenerator(42).generate(this.shape);
+        this.other = new CorpusGenerator(42).generate(this.shape);
+    }
+
+    @Benchmark
+    public CompoundTag copy() {
+        return this.tag.copy();
+    }
+
+    @Benchmark
+    public CompoundTag deepClone() {
+        return this.tag.deepClone();
+    }
+
+    @Benchmark
+    public boolean equals() {
+        return this.tag.equals(this.other);
+    }
+
+    @Benchmark
+    public int hashCode() {
+        return this.tag.hashCode();
+    }
+}
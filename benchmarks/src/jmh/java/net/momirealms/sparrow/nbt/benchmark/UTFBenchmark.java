@@ -0,0 +1,116 @@
+package net.momirealms.sparrow.nbt.benchmark;
+
+import net.momirealms.sparrow.nbt.io.ByteArrayDataInput;
+import net.momirealms.sparrow.nbt.io.ByteArrayDataOutput;
+import net.momirealms.sparrow.nbt.util.UTFUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modified UTF-8 coding of compound keys and string values: {@link UTFUtil} against {@link DataInputStream#readUTF}
+ * and {@link DataOutputStream#writeUTF}. The {@code stream} benchmarks run both on the same JDK streams, the
+ * {@code array} ones use the in-place path of the byte array reader and writer that {@code NBT.fromBytes} and
+ * {@code toBytes} go through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UTFBenchmark {
+
+    public enum Keys {
+        ASCII("id", "Count", "Slot", "components", "minecraft:custom_name", "minecraft:diamond_sword",
+                "Inventory", "XpLevel", "abilities", "walkSpeed", "block_states", "palette", "Name", "Properties"),
+        NON_ASCII("名前", "Größe", "§6Légendaire", "説明文", "Ωmega", "Привет", "clé", "日本語の名前",
+                "§aÉpée de feu", "数量", "Überschrift", "ñandú", "€uro", "🗡blade");
+
+        private final String[] values;
+
+        Keys(String... values) {
+            this.values = values;
+        }
+    }
+
+    @Param({"ASCII", "NON_ASCII"})
+    public Keys keys;
+
+    private String[] values;
+    private byte[] encoded;
+    private byte[] target;
+    private ByteArrayInputStream byteInput;
+    private DataInputStream dataInput;
+    private ByteArrayOutputStream byteOutput;
+    private DataOutputStream dataOutput;
+
+    @Setup
+    public void setup() throws IOException {
+        this.values = this.keys.values;
+        this.byteOutput = new ByteArrayOutputStream();
+        this.dataOutput = new DataOutputStream(this.byteOutput);
+        for (String value : this.values) {
+            this.dataOutput.writeUTF(value);
+        }
+        this.encoded = this.byteOutput.toByteArray();
+        this.target = new byte[this.encoded.length];
+        this.byteInput = new ByteArrayInputStream(this.encoded);
+        this.dataInput = new DataInputStream(this.byteInput);
+    }
+
+    @Benchmark
+    public int readDataInputStream() throws IOException {
+        this.byteInput.reset();
+        int length = 0;
+        for (int i = 0; i < this.values.length; i++) {
+            length += this.dataInput.readUTF().length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int readStream() throws IOException {
+        this.byteInput.reset();
+        int length = 0;
+        for (int i = 0; i < this.values.length; i++) {
+            length += UTFUtil.readUTF(this.dataInput).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int readArray() throws IOException {
+        ByteArrayDataInput input = new ByteArrayDataInput(this.encoded);
+        int length = 0;
+        for (int i = 0; i < this.values.length; i++) {
+            length += UTFUtil.readUTF(input).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int writeDataOutputStream() throws IOException {
+        this.byteOutput.reset();
+        for (String value : this.values) {
+            this.dataOutput.writeUTF(value);
+        }
+        return this.byteOutput.size();
+    }
+
+    @Benchmark
+    public int writeStream() throws IOException {
+        this.byteOutput.reset();
+        for (String value : this.values) {
+            UTFUtil.writeUTF(this.dataOutput, value);
+        }
+        return this.byteOutput.size();
+    }
+
+    @Benchmark
+    public int writeArray() throws IOException {
+        ByteArrayDataOutput output = new ByteArrayDataOutput(this.target);
+        for (String value : this.values) {
+            UTFUtil.writeUTF(output, value);
+        }
+        return output.position();
+    }
+}
@@ -0,0 +1,410 @@
+package net.momirealms.sparrow.nbt.benchmark;
+
+import net.momirealms.sparrow.nbt.CompoundTag;
+import net.momirealms.sparrow.nbt.ListTag;
+import net.momirealms.sparrow.nbt.NBT;
+import net.momirealms.sparrow.nbt.Tag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Generates synthetic NBT shaped like the data a server stores, for benchmarks and stress tests.
+ * <p>
+ * The same seed always produces the same tags, on any JVM. Three shapes are available:
+ * <ul>
+ *     <li>{@link Shape#PLAYER}: player data with a 41-slot inventory, armor and off hand included, and an ender
+ *     chest, holding items with data components such as names, lore, enchantments and attribute modifiers</li>
+ *     <li>{@link Shape#CHUNK}: a chunk of 24 sections whose block states and biomes are bit-packed into
+ *     {@code LongArrayTag}s sized for their palette, plus heightmaps and block entities</li>
+ *     <li>{@link Shape#BLOCK_ENTITY}: containers holding items and signs with text components</li>
+ * </ul>
+ * The {@code scale} argument of {@link #generate(Shape, int)} is the number of tags produced.
+ * Text components are stored as compounds, as in recent game versions.
+ */
+public final class CorpusGenerator {
+    private static final String[] ITEMS = {
+            "minecraft:diamond_sword", "minecraft:netherite_pickaxe", "minecraft:bow", "minecraft:elytra",
+            "minecraft:golden_apple", "minecraft:oak_log", "minecraft:cobblestone", "minecraft:torch",
+            "minecraft:iron_chestplate", "minecraft:shield", "minecraft:potion", "minecraft:written_book",
+            "minecraft:ender_pearl", "minecraft:cooked_beef", "minecraft:redstone", "minecraft:shulker_box"
+    };
+    private static final String[] ENCHANTMENTS = {
+            "minecraft:sharpness", "minecraft:unbreaking", "minecraft:mending", "minecraft:efficiency",
+            "minecraft:fortune", "minecraft:protection", "minecraft:looting", "minecraft:power"
+    };
+    private static final String[] BLOCKS = {
+            "minecraft:stone", "minecraft:deepslate", "minecraft:dirt", "minecraft:grass_block", "minecraft:water",
+            "minecraft:oak_stairs", "minecraft:iron_ore", "minecraft:coal_ore", "minecraft:andesite",
+            "minecraft:gravel", "minecraft:tuff", "minecraft:copper_ore", "minecraft:oak_leaves", "minecraft:lava"
+    };
+    private static final String[] BIOMES = {
+            "minecraft:plains", "minecraft:forest", "minecraft:river", "minecraft:dripstone_caves",
+            "minecraft:lush_caves", "minecraft:deep_dark"
+    };
+    private static final String[] COLORS = {"gray", "dark_purple", "gold", "aqua", "red", "green"};
+    private static final String[] WORDS = {
+            "ancient", "blade", "of", "the", "forgotten", "king", "forged", "in", "fire", "sharp", "cursed",
+            "relic", "found", "deep", "below", "shining", "stone", "whispers", "legendary", "eternal"
+    };
+    private static final String[] FACINGS = {"north", "south", "east", "west"};
+
+    private final Random random;
+
+    public enum Shape {
+        PLAYER,
+        CHUNK,
+        BLOCK_ENTITY
+    }
+
+    /**
+     * Creates a generator.
+     *
+     * @param seed the seed, the same seed producing the same tags
+     */
+    public CorpusGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Generates one tag of a shape.
+     *
+     * @param shape the shape
+     * @return the generated tag
+     */
+    public CompoundTag generate(Shape shape) {
+        return switch (shape) {
+            case PLAYER -> this.player();
+            case CHUNK -> this.chunk();
+            case BLOCK_ENTITY -> this.blockEntity();
+        };
+    }
+
+    /**
+     * Generates a corpus of tags of a shape.
+     *
+     * @param shape the shape
+     * @param scale the number of tags
+     * @return the generated tags
+     */
+    public List<CompoundTag> generate(Shape shape, int scale) {
+        if (scale < 0) {
+            throw new IllegalArgumentException("scale must not be negative: " + scale);
+        }
+        List<CompoundTag> corpus = new ArrayList<>(scale);
+        for (int i = 0; i < scale; i++) {
+            corpus.add(this.generate(shape));
+        }
+        return corpus;
+    }
+
+    /**
+     * Generates player data. Inventory slots 0-35 are the main inventory, 100-103 the armor and -106 the
+     * off hand; about four in five of the 41 slots hold an item.
+     *
+     * @return the player compound
+     */
+    public CompoundTag player() {
+        CompoundTag player = NBT.createCompound();
+        player.putInt("DataVersion", 4189);
+        player.putUUID("UUID", new UUID(this.random.nextLong(), this.random.nextLong()));
+        player.put("Pos", this.doubles(3, 3000));
+        player.put("Motion", this.doubles(3, 1));
+        ListTag rotation = NBT.createList();
+        rotation.add(NBT.createFloat(this.random.nextFloat() * 360 - 180));
+        rotation.add(NBT.createFloat(this.random.nextFloat() * 180 - 90));
+        player.put("Rotation", rotation);
+        player.putFloat("Health", 1 + this.random.nextInt(20));
+        player.putInt("foodLevel", this.random.nextInt(21));
+        player.putFloat("foodSaturationLevel", this.random.nextFloat() * 5);
+        player.putInt("XpLevel", this.random.nextInt(60));
+        player.putFloat("XpP", this.random.nextFloat());
+        player.putInt("XpTotal", this.random.nextInt(10000));
+        player.putInt("playerGameType", this.random.nextInt(4));
+        player.putBoolean("OnGround", this.random.nextBoolean());
+        player.putString("Dimension", "minecraft:overworld");
+        CompoundTag abilities = NBT.createCompound();
+        abilities.putBoolean("flying", false);
+        abilities.putBoolean("mayfly", false);
+        abilities.putBoolean("instabuild", false);
+        abilities.putBoolean("invulnerable", false);
+        abilities.putBoolean("mayBuild", true);
+        abilities.putFloat("flySpeed", 0.05f);
+        abilities.putFloat("walkSpeed", 0.1f);
+        player.put("abilities", abilities);
+        ListTag inventory = NBT.createList();
+        for (int slot = 0; slot < 41; slot++) {
+            int slotId = slot < 36 ? slot : slot < 40 ? 100 + slot - 36 : -106;
+            if (this.random.nextInt(5) != 0) {
+                CompoundTag item = this.item();
+                item.putByte("Slot", (byte) slotId);
+                inventory.add(item);
+            }
+        }
+        player.put("Inventory", inventory);
+        ListTag enderItems = NBT.createList();
+        for (int slot = 0; slot < 27; slot++) {
+            if (this.random.nextInt(3) == 0) {
+                CompoundTag item = this.item();
+                item.putByte("Slot", (byte) slot);
+                enderItems.add(item);
+            }
+        }
+        player.put("EnderItems", enderItems);
+        ListTag attributes = NBT.createList();
+        for (String id : new String[]{"minecraft:max_health", "minecraft:movement_speed", "minecraft:attack_damage"}) {
+            CompoundTag attribute = NBT.createCompound();
+            attribute.putString("id", id);
+            attribute.putDouble("base", this.random.nextDouble() * 20);
+            attributes.add(attribute);
+        }
+        player.put("attributes", attributes);
+        return player;
+    }
+
+    /**
+     * Generates an item stack in the data component format. Every item has a count and most have damage; names,
+     * lore, enchantments, attribute modifiers and custom data appear on a share of them.
+     *
+     * @return the item compound, without a slot
+     */
+    public CompoundTag item() {
+        CompoundTag item = NBT.createCompound();
+        item.putString("id", this.pick(ITEMS));
+        item.putInt("count", 1 + this.random.nextInt(64));
+        CompoundTag components = NBT.createCompound();
+        if (this.random.nextInt(4) != 0) {
+            components.putInt("minecraft:damage", this.random.nextInt(2000));
+        }
+        if (this.random.nextBoolean()) {
+            components.put("minecraft:custom_name", this.text(2 + this.random.nextInt(3)));
+        }
+        if (this.random.nextBoolean()) {
+            ListTag lore = NBT.createList();
+            for (int i = 1 + this.random.nextInt(5); i > 0; i--) {
+                lore.add(this.text(3 + this.random.nextInt(6)));
+            }
+            components.put("minecraft:lore", lore);
+        }
+        if (this.random.nextInt(3) == 0) {
+            CompoundTag levels = NBT.createCompound();
+            for (int i = 1 + this.random.nextInt(4); i > 0; i--) {
+                levels.putInt(this.pick(ENCHANTMENTS), 1 + this.random.nextInt(5));
+            }
+            components.put("minecraft:enchantments", levels);
+        }
+        if (this.random.nextInt(4) == 0) {
+            ListTag modifiers = NBT.createList();
+            for (int i = 1 + this.random.nextInt(3); i > 0; i--) {
+                CompoundTag modifier = NBT.createCompound();
+                modifier.putString("type", "minecraft:attack_damage");
+                modifier.putString("id", "minecraft:modifier_" + this.random.nextInt(1000));
+                modifier.putDouble("amount", this.random.nextDouble() * 10);
+                modifier.putString("operation", "add_value");
+                modifier.putString("slot", "mainhand");
+                modifiers.add(modifier);
+            }
+            components.put("minecraft:attribute_modifiers", modifiers);
+        }
+        if (this.random.nextInt(5) == 0) {
+            CompoundTag customData = NBT.createCompound();
+            customData.putString("plugin_id", "item_" + this.random.nextInt(100000));
+            customData.putInt("level", this.random.nextInt(100));
+            customData.putUUID("owner", new UUID(this.random.nextLong(), this.random.nextLong()));
+            components.put("minecraft:custom_data", customData);
+        }
+        if (!components.isEmpty()) {
+            item.put("components", components);
+        }
+        return item;
+    }
+
+    /**
+     * Generates a chunk with 24 sections. Each section has a block palette of 1 to 48 states; sections with
+     * more than one state store their 4096 indices packed into longs at 4 or more bits per entry, as the
+     * game does. Biomes are packed the same way over 64 entries.
+     *
+     * @return the chunk compound
+     */
+    public CompoundTag chunk() {
+        CompoundTag chunk = NBT.createCompound();
+        chunk.putInt("DataVersion", 4189);
+        int x = this.random.nextInt(2000) - 1000;
+        int z = this.random.nextInt(2000) - 1000;
+        chunk.putInt("xPos", x);
+        chunk.putInt("yPos", -4);
+        chunk.putInt("zPos", z);
+        chunk.putString("Status", "minecraft:full");
+        chunk.putLong("LastUpdate", this.random.nextInt(1_000_000));
+        chunk.putLong("InhabitedTime", this.random.nextInt(100_000));
+        ListTag sections = NBT.createList();
+        for (int y = -4; y < 20; y++) {
+            CompoundTag section = NBT.createCompound();
+            section.putByte("Y", (byte) y);
+            // sections high up are mostly air
+            int states = y > 8 ? 1 : 1 + this.random.nextInt(48);
+            section.put("block_states", this.palettedContainer(states, 4096, 4, this::blockState));
+            section.put("biomes", this.palettedContainer(1 + this.random.nextInt(3), 64, 1,
+                    () -> NBT.createString(this.pick(BIOMES))));
+            if (this.random.nextBoolean()) {
+                byte[] light = new byte[2048];
+                this.random.nextBytes(light);
+                section.putByteArray("SkyLight", light);
+            }
+            sections.add(section);
+        }
+        chunk.put("sections", sections);
+        CompoundTag heightmaps = NBT.createCompound();
+        for (String type : new String[]{"MOTION_BLOCKING", "MOTION_BLOCKING_NO_LEAVES", "OCEAN_FLOOR", "WORLD_SURFACE"}) {
+            // 256 columns of 9 bits, 7 per long
+            heightmaps.putLongArray(type, this.longs(37));
+        }
+        chunk.put("Heightmaps", heightmaps);
+        ListTag blockEntities = NBT.createList();
+        for (int i = this.random.nextInt(6); i > 0; i--) {
+            CompoundTag blockEntity = this.blockEntity();
+            blockEntity.putInt("x", x * 16 + this.random.nextInt(16));
+            blockEntity.putInt("z", z * 16 + this.random.nextInt(16));
+            blockEntities.add(blockEntity);
+        }
+        chunk.put("block_entities", blockEntities);
+        return chunk;
+    }
+
+    /**
+     * Generates a chest, barrel or sign block entity.
+     *
+     * @return the block entity compound
+     */
+    public CompoundTag blockEntity() {
+        CompoundTag blockEntity = NBT.createCompound();
+        blockEntity.putInt("x", this.random.nextInt(20000) - 10000);
+        blockEntity.putInt("y", this.random.nextInt(384) - 64);
+        blockEntity.putInt("z", this.random.nextInt(20000) - 10000);
+        blockEntity.putBoolean("keepPacked", false);
+        if (this.random.nextInt(3) == 0) {
+            blockEntity.putString("id", "minecraft:sign");
+            blockEntity.putBoolean("is_waxed", this.random.nextBoolean());
+            blockEntity.put("front_text", this.signText());
+            blockEntity.put("back_text", this.signText());
+            return blockEntity;
+        }
+        blockEntity.putString("id", this.random.nextBoolean() ? "minecraft:chest" : "minecraft:barrel");
+        if (this.random.nextBoolean()) {
+            blockEntity.put("CustomName", this.text(2));
+        }
+        ListTag items = NBT.createList();
+        for (int slot = 0; slot < 27; slot++) {
+            if (this.random.nextBoolean()) {
+                CompoundTag item = this.item();
+                item.putByte("Slot", (byte) slot);
+                items.add(item);
+            }
+        }
+        blockEntity.put("Items", items);
+        return blockEntity;
+    }
+
+    private CompoundTag signText() {
+        CompoundTag text = NBT.createCompound();
+        ListTag messages = NBT.createList();
+        for (int i = 0; i < 4; i++) {
+            messages.add(this.text(1 + this.random.nextInt(3)));
+        }
+        text.put("messages", messages);
+        text.putString("color", this.pick(COLORS));
+        text.putBoolean("has_glowing_text", this.random.nextInt(4) == 0);
+        return text;
+    }
+
+    /**
+     * A text component of the given number of words, sometimes split into styled children.
+     */
+    private CompoundTag text(int words) {
+        CompoundTag text = NBT.createCompound();
+        text.putString("text", this.words(words));
+        text.putString("color", this.pick(COLORS));
+        text.putBoolean("italic", false);
+        if (this.random.nextInt(3) == 0) {
+            ListTag extra = NBT.createList();
+            for (int i = 1 + this.random.nextInt(2); i > 0; i--) {
+                CompoundTag child = NBT.createCompound();
+                child.putString("text", " " + this.words(1 + this.random.nextInt(2)));
+                child.putString("color", this.pick(COLORS));
+                child.putBoolean("bold", this.random.nextBoolean());
+                extra.add(child);
+            }
+            text.put("extra", extra);
+        }
+        return text;
+    }
+
+    private CompoundTag blockState() {
+        CompoundTag state = NBT.createCompound();
+        state.putString("Name", this.pick(BLOCKS));
+        if (this.random.nextInt(3) == 0) {
+            CompoundTag properties = NBT.createCompound();
+            properties.putString("facing", this.pick(FACINGS));
+            properties.putString("waterlogged", String.valueOf(this.random.nextBoolean()));
+            state.put("Properties", properties);
+        }
+        return state;
+    }
+
+    /**
+     * A palette of {@code states} entries with, when there is more than one, {@code entries} indices packed
+     * without spanning longs at {@code max(minBits, ceil(log2(states)))} bits each.
+     */
+    private CompoundTag palettedContainer(int states, int entries, int minBits, Supplier<Tag> entry) {
+        CompoundTag container = NBT.createCompound();
+        ListTag palette = NBT.createList();
+        for (int i = 0; i < states; i++) {
+            palette.add(entry.get());
+        }
+        container.put("palette", palette);
+        if (states > 1) {
+            int bits = Math.max(minBits, 32 - Integer.numberOfLeadingZeros(states - 1));
+            int perLong = 64 / bits;
+            long[] data = new long[(entries + perLong - 1) / perLong];
+            for (int i = 0; i < entries; i++) {
+                data[i / perLong] |= (long) this.random.nextInt(states) << (i % perLong * bits);
+            }
+            container.putLongArray("data", data);
+        }
+        return container;
+    }
+
+    private ListTag doubles(int count, double range) {
+        ListTag list = NBT.createList();
+        for (int i = 0; i < count; i++) {
+            list.add(NBT.createDouble((this.random.nextDouble() * 2 - 1) * range));
+        }
+        return list;
+    }
+
+    private long[] longs(int count) {
+        long[] array = new long[count];
+        for (int i = 0; i < count; i++) {
+            array[i] = this.random.nextLong();
+        }
+        return array;
+    }
+
+    private String words(int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i != 0) {
+                builder.append(' ');
+            }
+            builder.append(this.pick(WORDS));
+        }
+        return builder.toString();
+    }
+
+    private String pick(String[] values) {
+        return values[this.random.nextInt(values.length)];
+    }
+}
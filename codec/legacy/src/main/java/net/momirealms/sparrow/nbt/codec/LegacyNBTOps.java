@@ -3,13 +3,16 @@ package net.momirealms.sparrow.nbt.codec;
 import com.google.common.collect.Lists;
 import com.mojang.datafixers.util.Pair;
 import com.mojang.serialization.DataResult;
+import com.mojang.serialization.Decoder;
 import com.mojang.serialization.DynamicOps;
+import com.mojang.serialization.Encoder;
 import com.mojang.serialization.MapLike;
 import com.mojang.serialization.RecordBuilder;
 import it.unimi.dsi.fastutil.bytes.ByteArrayList;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
 import net.momirealms.sparrow.nbt.*;
+import net.momirealms.sparrow.nbt.metrics.NBTMetrics;
 
 import javax.annotation.Nullable;
 import java.nio.ByteBuffer;
@@ -24,6 +27,43 @@ public class LegacyNBTOps implements DynamicOps<Tag> {
     private LegacyNBTOps() {
     }
 
+    /**
+     * Encodes a value with these ops, reporting the time and produced tags to {@link NBT#metrics()} if set.
+     *
+     * @param encoder the encoder or codec to use
+     * @param value   the value to encode
+     * @return the encoded tag, or the encoding error
+     */
+    public <A> DataResult<Tag> encode(Encoder<A> encoder, A value) {
+        NBTMetrics metrics = NBT.metrics();
+        if (metrics == null) {
+            return encoder.encodeStart(this, value);
+        }
+        long startTime = System.nanoTime();
+        DataResult<Tag> result = encoder.encodeStart(this, value);
+        long nanos = System.nanoTime() - startTime;
+        NBTMetrics.record(metrics, NBTMetrics.Operation.CODEC_ENCODE, -1, nanos, result.result().orElse(null));
+        return result;
+    }
+
+    /**
+     * Decodes a value with these ops, reporting the time to {@link NBT#metrics()} if set.
+     *
+     * @param decoder the decoder or codec to use
+     * @param tag     the tag to decode
+     * @return the decoded value, or the decoding error
+     */
+    public <A> DataResult<A> decode(Decoder<A> decoder, Tag tag) {
+        NBTMetrics metrics = NBT.metrics();
+        if (metrics == null) {
+            return decoder.parse(this, tag);
+        }
+        long startTime = System.nanoTime();
+        DataResult<A> result = decoder.parse(this, tag);
+        metrics.record(NBTMetrics.Operation.CODEC_DECODE, -1, System.nanoTime() - startTime);
+        return result;
+    }
+
     public Tag empty() {
         return EndTag.INSTANCE;
     }
@@ -66,22 +106,22 @@ public class LegacyNBTOps implements DynamicOps<Tag> {
 
     @Override
     public Tag createByte(byte b) {
-        return new ByteTag(b);
+        return ByteTag.valueOf(b);
     }
 
     @Override
     public Tag createShort(short s) {
-        return new ShortTag(s);
+        return ShortTag.valueOf(s);
     }
 
     @Override
     public Tag createInt(int i) {
-        return new IntTag(i);
+        return IntTag.valueOf(i);
     }
 
     @Override
     public Tag createLong(long l) {
-        return new LongTag(l);
+        return LongTag.valueOf(l);
     }
 
     @Override
@@ -96,7 +136,7 @@ public class LegacyNBTOps implements DynamicOps<Tag> {
 
     @Override
     public Tag createBoolean(boolean b) {
-        return new ByteTag(b);
+        return ByteTag.valueOf(b);
     }
 
     @Override
@@ -408,15 +448,15 @@ public class LegacyNBTOps implements DynamicOps<Tag> {
         }
 
         GenericListCollector(IntArrayList list) {
-            list.forEach(i -> this.result.add(new IntTag(i)));
+            list.forEach(i -> this.result.add(IntTag.valueOf(i)));
         }
 
         GenericListCollector(ByteArrayList list) {
-            list.forEach(b -> this.result.add(new ByteTag(b)));
+            list.forEach(b -> this.result.add(ByteTag.valueOf(b)));
         }
 
         GenericListCollector(LongArrayList list) {
-            list.forEach(l -> this.result.add(new LongTag(l)));
+            list.forEach(l -> this.result.add(LongTag.valueOf(l)));
         }
 
         public ListCollector accept(Tag tag) {
@@ -15,14 +15,14 @@ public class ByteArrayTag extends CollectionTag<ByteTag> {
 
     @Override
     public ByteTag get(int index) {
-        return new ByteTag(this.value[index]);
+        return ByteTag.valueOf(this.value[index]);
     }
 
     @Override
     public ByteTag set(int index, ByteTag tag) {
         byte b0 = this.value[index];
         this.value[index] = tag.getAsByte();
-        return new ByteTag(b0);
+        return ByteTag.valueOf(b0);
     }
 
     @Override
@@ -34,7 +34,7 @@ public class ByteArrayTag extends CollectionTag<ByteTag> {
     public ByteTag remove(int index) {
         byte b0 = this.value[index];
         this.value = ArrayUtil.remove(this.value, index);
-        return new ByteTag(b0);
+        return ByteTag.valueOf(b0);
     }
 
     @Override
@@ -68,6 +68,11 @@ public class ByteArrayTag extends CollectionTag<ByteTag> {
         output.write(this.value);
     }
 
+    @Override
+    public int sizeInBytes() {
+        return 4 + this.value.length;
+    }
+
     @Override
     public byte getId() {
         return TAG_BYTE_ARRAY_ID;
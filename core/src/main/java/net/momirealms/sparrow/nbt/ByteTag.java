@@ -4,6 +4,15 @@ import java.io.DataOutput;
 import java.io.IOException;
 
 public final class ByteTag extends NumericTag {
+    private static final ByteTag[] CACHE = new ByteTag[256];
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new ByteTag((byte) (i - 128));
+        }
+    }
+    public static final ByteTag ZERO = valueOf((byte) 0);
+    public static final ByteTag ONE = valueOf((byte) 1);
+
     private final byte value;
 
     public ByteTag(byte value) {
@@ -14,6 +23,26 @@ public final class ByteTag extends NumericTag {
         this.value = (byte) (b ? 1 : 0);
     }
 
+    /**
+     * Returns the shared instance holding the given value. All 256 byte values are cached.
+     *
+     * @param value the byte value
+     * @return the cached tag
+     */
+    public static ByteTag valueOf(byte value) {
+        return CACHE[value + 128];
+    }
+
+    /**
+     * Returns the shared instance representing the given boolean.
+     *
+     * @param value the boolean value
+     * @return {@link #ONE} for true, {@link #ZERO} for false
+     */
+    public static ByteTag valueOf(boolean value) {
+        return value ? ONE : ZERO;
+    }
+
     public byte value() {
         return value;
     }
@@ -27,6 +56,11 @@ public final class ByteTag extends NumericTag {
         output.writeByte(this.value);
     }
 
+    @Override
+    public int sizeInBytes() {
+        return 1;
+    }
+
     @Override
     public byte getId() {
         return TAG_BYTE_ID;
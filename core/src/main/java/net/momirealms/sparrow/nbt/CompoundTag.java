@@ -1,5 +1,7 @@
 package net.momirealms.sparrow.nbt;
 
+import net.momirealms.sparrow.nbt.util.StringPool;
+import net.momirealms.sparrow.nbt.util.UTFUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -66,7 +68,7 @@ public class CompoundTag implements Tag {
      * @param value the byte value to store
      */
     public void putByte(@NotNull String key, byte value) {
-        this.tags.put(key, new ByteTag(value));
+        this.tags.put(key, ByteTag.valueOf(value));
     }
 
     /**
@@ -77,7 +79,7 @@ public class CompoundTag implements Tag {
      * @param value the boolean value to store
      */
     public void putBoolean(@NotNull String key, boolean value) {
-        this.tags.put(key, new ByteTag(value));
+        this.tags.put(key, ByteTag.valueOf(value));
     }
 
     /**
@@ -87,7 +89,7 @@ public class CompoundTag implements Tag {
      * @param value the short value to store
      */
     public void putShort(@NotNull String key, short value) {
-        this.tags.put(key, new ShortTag(value));
+        this.tags.put(key, ShortTag.valueOf(value));
     }
 
     /**
@@ -97,7 +99,7 @@ public class CompoundTag implements Tag {
      * @param value the integer value to store
      */
     public void putInt(@NotNull String key, int value) {
-        this.tags.put(key, new IntTag(value));
+        this.tags.put(key, IntTag.valueOf(value));
     }
 
     /**
@@ -107,7 +109,7 @@ public class CompoundTag implements Tag {
      * @param value the long value to store
      */
     public void putLong(@NotNull String key, long value) {
-        this.tags.put(key, new LongTag(value));
+        this.tags.put(key, LongTag.valueOf(value));
     }
 
     /**
@@ -481,23 +483,59 @@ public class CompoundTag implements Tag {
         return this.tags.containsKey(key);
     }
 
+    /**
+     * Checks if the compound tag is backed by serialized bytes, as returned by {@link NBT#fromBytesLazily(byte[])},
+     * and decodes its entries on first access. Walking the values of such a compound decodes all of them.
+     *
+     * @return true if the compound tag is decoded lazily, otherwise false
+     */
+    public boolean isLazy() {
+        return this.tags instanceof LazyTagMap;
+    }
+
     public byte getTagType(String key) {
+        if (this.tags instanceof LazyTagMap lazy) {
+            return lazy.typeOf(key);
+        }
         Tag tag = this.tags.get(key);
         return tag == null ? 0 : tag.getId();
     }
 
     @Override
     public void write(DataOutput output) throws IOException {
+        if (this.tags instanceof LazyTagMap lazy) {
+            lazy.write(output);
+            return;
+        }
         for (Map.Entry<String, Tag> entry : tags.entrySet()) {
             writeNamedTag(entry.getKey(), entry.getValue(), output);
         }
         output.writeByte(TAG_END_ID);
     }
 
-    private static void writeNamedTag(String key, Tag element, DataOutput output) throws IOException {
+    @Override
+    public int sizeInBytes() {
+        if (this.tags instanceof LazyTagMap lazy) {
+            return lazy.sizeInBytes();
+        }
+        int size = 1;
+        for (Map.Entry<String, Tag> entry : tags.entrySet()) {
+            size += sizeOfNamedTag(entry.getKey(), entry.getValue());
+        }
+        return size;
+    }
+
+    static int sizeOfNamedTag(String key, Tag element) {
+        if (element.getId() == Tag.TAG_END_ID) {
+            return 1;
+        }
+        return 3 + UTFUtil.utfLength(key) + element.sizeInBytes();
+    }
+
+    static void writeNamedTag(String key, Tag element, DataOutput output) throws IOException {
         output.writeByte(element.getId());
         if (element.getId() != Tag.TAG_END_ID) {
-            output.writeUTF(key);
+            UTFUtil.writeUTF(output, key);
             element.write(output);
         }
     }
@@ -514,6 +552,9 @@ public class CompoundTag implements Tag {
 
     @Override
     public CompoundTag copy() {
+        if (this.tags instanceof LazyTagMap lazy) {
+            return new CompoundTag(lazy.copy(false));
+        }
         Map<String, Tag> newTags = new HashMap<>(tags.size(), 0.8f);
         for (Map.Entry<String, Tag> entry : tags.entrySet()) {
             newTags.put(entry.getKey(), entry.getValue().copy());
@@ -523,6 +564,9 @@ public class CompoundTag implements Tag {
 
     @Override
     public CompoundTag deepClone() {
+        if (this.tags instanceof LazyTagMap lazy) {
+            return new CompoundTag(lazy.copy(true));
+        }
         Map<String, Tag> newTags = new HashMap<>(tags.size(), 0.8f);
         for (Map.Entry<String, Tag> entry : tags.entrySet()) {
             newTags.put(entry.getKey(), entry.getValue().deepClone());
@@ -554,7 +598,8 @@ public class CompoundTag implements Tag {
      * @throws IOException if an I/O error occurs while reading
      */
     static String readNamedTagName(DataInput input) throws IOException {
-        return input.readUTF();
+        StringPool pool = NBT.keyPool();
+        return pool == null ? UTFUtil.readUTF(input) : UTFUtil.readUTF(input, pool);
     }
 
     /**
@@ -57,6 +57,11 @@ public class DoubleTag extends NumericTag {
         output.writeDouble(this.value);
     }
 
+    @Override
+    public int sizeInBytes() {
+        return 8;
+    }
+
     @Override
     public byte getId() {
         return TAG_DOUBLE_ID;
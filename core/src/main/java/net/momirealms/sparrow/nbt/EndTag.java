@@ -28,6 +28,11 @@ public final class EndTag implements Tag {
     public void write(DataOutput output) {
     }
 
+    @Override
+    public int sizeInBytes() {
+        return 0;
+    }
+
     @Override
     public byte getId() {
         return TAG_END_ID;
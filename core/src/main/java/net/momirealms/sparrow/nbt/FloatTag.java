@@ -21,6 +21,11 @@ public class FloatTag extends NumericTag {
         output.writeFloat(this.value);
     }
 
+    @Override
+    public int sizeInBytes() {
+        return 4;
+    }
+
     @Override
     public byte getId() {
         return TAG_FLOAT_ID;
@@ -1,5 +1,6 @@
 package net.momirealms.sparrow.nbt;
 
+import net.momirealms.sparrow.nbt.util.ArrayIOUtil;
 import net.momirealms.sparrow.nbt.util.ArrayUtil;
 import net.momirealms.sparrow.nbt.util.UUIDUtil;
 
@@ -18,14 +19,14 @@ public class IntArrayTag extends CollectionTag<IntTag> {
 
     @Override
     public IntTag get(int index) {
-        return new IntTag(this.value[index]);
+        return IntTag.valueOf(this.value[index]);
     }
 
     @Override
     public IntTag set(int index, IntTag tag) {
         int j = this.value[index];
         this.value[index] = tag.getAsInt();
-        return new IntTag(j);
+        return IntTag.valueOf(j);
     }
 
     @Override
@@ -37,7 +38,7 @@ public class IntArrayTag extends CollectionTag<IntTag> {
     public IntTag remove(int index) {
         int j = this.value[index];
         this.value = ArrayUtil.remove(this.value, index);
-        return new IntTag(j);
+        return IntTag.valueOf(j);
     }
 
     @Override
@@ -68,9 +69,12 @@ public class IntArrayTag extends CollectionTag<IntTag> {
     @Override
     public void write(DataOutput output) throws IOException {
         output.writeInt(this.value.length);
-        for (int k : this.value) {
-            output.writeInt(k);
-        }
+        ArrayIOUtil.writeInts(output, this.value, 0, this.value.length);
+    }
+
+    @Override
+    public int sizeInBytes() {
+        return 4 + this.value.length * 4;
     }
 
     @Override
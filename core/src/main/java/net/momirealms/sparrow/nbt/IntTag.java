@@ -10,6 +10,21 @@ public class IntTag extends NumericTag {
         this.value = value;
     }
 
+    /**
+     * Returns a tag holding the given value, reusing a shared instance if the value is within the cached range.
+     * The range defaults to [-128, 1024] and can be changed with the {@code sparrow.nbt.cache.int.low}
+     * and {@code sparrow.nbt.cache.int.high} system properties.
+     *
+     * @param value the int value
+     * @return a cached or new tag
+     */
+    public static IntTag valueOf(int value) {
+        if (value >= Cache.LOW && value <= Cache.HIGH) {
+            return Cache.VALUES[value - Cache.LOW];
+        }
+        return new IntTag(value);
+    }
+
     public int value() {
         return value;
     }
@@ -54,6 +69,11 @@ public class IntTag extends NumericTag {
         output.writeInt(this.value);
     }
 
+    @Override
+    public int sizeInBytes() {
+        return 4;
+    }
+
     @Override
     public byte getId() {
         return TAG_INT_ID;
@@ -90,4 +110,22 @@ public class IntTag extends NumericTag {
     public int hashCode() {
         return value;
     }
+
+    private static final class Cache {
+        static final int LOW;
+        static final int HIGH;
+        static final IntTag[] VALUES;
+        static {
+            int low = Integer.getInteger("sparrow.nbt.cache.int.low", -128);
+            int high = Integer.getInteger("sparrow.nbt.cache.int.high", 1024);
+            // keep the table within 2^20 entries
+            high = (int) Math.min(high, low + (1L << 20) - 1);
+            LOW = low;
+            HIGH = high;
+            VALUES = new IntTag[(int) Math.max(0L, (long) high - low + 1)];
+            for (int i = 0; i < VALUES.length; i++) {
+                VALUES[i] = new IntTag(low + i);
+            }
+        }
+    }
 }
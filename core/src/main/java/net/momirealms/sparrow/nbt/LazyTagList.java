@@ -0,0 +1,137 @@
+package net.momirealms.sparrow.nbt;
+
+import net.momirealms.sparrow.nbt.io.ByteArrayDataInput;
+import net.momirealms.sparrow.nbt.io.ByteBufferDataInput;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Read-only backing storage of a {@link ListTag} of a fixed-size numeric type, viewing the serialized elements
+ * in place. Element {@code i} sits at {@code i * elementSize()}, so lookups decode just that value and writing
+ * copies the bytes unchanged. {@link ListTag} replaces the view with a {@link PrimitiveTagList} before any change.
+ */
+final class LazyTagList extends AbstractList<Tag> implements RandomAccess {
+    private final ByteBuffer data;
+    private final byte elementType;
+    private final int elementSize;
+    private final int size;
+
+    private LazyTagList(ByteBuffer data, byte elementType, int elementSize, int size) {
+        this.data = data;
+        this.elementType = elementType;
+        this.elementSize = elementSize;
+        this.size = size;
+    }
+
+    /**
+     * Views the next {@code length} elements of a numeric type in the input and skips past them.
+     * Only array and buffer readers can be viewed in place.
+     *
+     * @param input  the input to read from
+     * @param typeId the numeric element type
+     * @param length the number of elements
+     * @return the view, or null if the input has no backing memory to view
+     * @throws IOException if the input ends early
+     */
+    static LazyTagList view(DataInput input, byte typeId, int length) throws IOException {
+        int elementSize = ((TagType.FixedSize<?>) TagTypes.typeById(typeId)).size();
+        if (input instanceof ByteArrayDataInput arrayInput) {
+            return new LazyTagList(arrayInput.readSlice(length, elementSize), typeId, elementSize, length);
+        }
+        if (input instanceof ByteBufferDataInput bufferInput) {
+            return new LazyTagList(bufferInput.readSlice(length, elementSize), typeId, elementSize, length);
+        }
+        return null;
+    }
+
+    byte elementType() {
+        return this.elementType;
+    }
+
+    int elementSize() {
+        return this.elementSize;
+    }
+
+    byte getByte(int index) {
+        Objects.checkIndex(index, this.size);
+        return this.data.get(index);
+    }
+
+    short getShort(int index) {
+        Objects.checkIndex(index, this.size);
+        return this.data.getShort(index << 1);
+    }
+
+    int getInt(int index) {
+        Objects.checkIndex(index, this.size);
+        return this.data.getInt(index << 2);
+    }
+
+    long getLong(int index) {
+        Objects.checkIndex(index, this.size);
+        return this.data.getLong(index << 3);
+    }
+
+    float getFloat(int index) {
+        Objects.checkIndex(index, this.size);
+        return this.data.getFloat(index << 2);
+    }
+
+    double getDouble(int index) {
+        Objects.checkIndex(index, this.size);
+        return this.data.getDouble(index << 3);
+    }
+
+    @Override
+    public Tag get(int index) {
+        return switch (this.elementType) {
+            case Tag.TAG_BYTE_ID -> ByteTag.valueOf(getByte(index));
+            case Tag.TAG_SHORT_ID -> ShortTag.valueOf(getShort(index));
+            case Tag.TAG_INT_ID -> IntTag.valueOf(getInt(index));
+            case Tag.TAG_LONG_ID -> LongTag.valueOf(getLong(index));
+            case Tag.TAG_FLOAT_ID -> new FloatTag(getFloat(index));
+            default -> new DoubleTag(getDouble(index));
+        };
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Writes the viewed bytes, without the list header.
+     *
+     * @param output the output to write to
+     * @throws IOException if an I/O error occurs
+     */
+    void writeElements(DataOutput output) throws IOException {
+        int length = this.size * this.elementSize;
+        if (this.data.hasArray()) {
+            output.write(this.data.array(), this.data.arrayOffset(), length);
+        } else {
+            byte[] bytes = new byte[length];
+            this.data.get(0, bytes);
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Decodes the elements into mutable primitive storage.
+     *
+     * @return the decoded list
+     */
+    PrimitiveTagList decode() {
+        try {
+            return PrimitiveTagList.read(this.elementType, new ByteBufferDataInput(this.data.duplicate()), this.size);
+        } catch (IOException ioException) {
+            throw new RuntimeException(ioException);
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package net.momirealms.sparrow.nbt;
+
+import net.momirealms.sparrow.nbt.io.ByteArrayDataInput;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+
+/**
+ * Backing storage of a {@link CompoundTag} read lazily from serialized bytes.
+ * <p>
+ * Building the map takes one skip pass over the compound that records where each entry starts; values are only
+ * decoded when first looked up, nested compounds again lazily and numeric lists as views of their elements.
+ * Entries that were never decoded or replaced are written back as the original bytes, with neighbouring untouched
+ * entries copied in one go, so writing an unmodified compound is a single array copy. Entries that were decoded
+ * are written from their tags, since the returned tags may have been modified.
+ * <p>
+ * The map keeps a reference to the source array, which must not be modified while the compound is in use.
+ * <p>
+ * Like a {@link HashMap}, the map may be read from several threads at once but needs external locking as soon as
+ * one of them modifies it. A value decoded on first lookup is published with a compare-and-set, so threads racing
+ * on the same key all get the same tag.
+ */
+final class LazyTagMap extends AbstractMap<String, Tag> {
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Tag[].class);
+    private final byte[] bytes;
+    private final int depth;
+    private final String[] keys;
+    // offset of each entry's type id, followed by the offset of the compound's end tag
+    private final int[] starts;
+    // open addressing table of key index + 1, 0 marking an empty slot
+    private final int[] slots;
+    private final Tag[] values;
+    private final boolean[] removed;
+    private int removedCount;
+    private Map<String, Tag> added;
+    private EntrySet entrySet;
+
+    private LazyTagMap(byte[] bytes, int depth, String[] keys, int[] starts, int[] slots, Tag[] values, boolean[] removed, int removedCount) {
+        this.bytes = bytes;
+        this.depth = depth;
+        this.keys = keys;
+        this.starts = starts;
+        this.slots = slots;
+        this.values = values;
+        this.removed = removed;
+        this.removedCount = removedCount;
+    }
+
+    /**
+     * Indexes the compound payload starting at {@code offset}, up to and including its end tag.
+     *
+     * @param bytes  the serialized data
+     * @param offset the offset of the first entry
+     * @param length the number of bytes the payload may span
+     * @param depth  the depth of the compound
+     * @return the map over the compound's entries
+     * @throws IOException if the payload is malformed or truncated
+     */
+    static LazyTagMap index(byte[] bytes, int offset, int length, int depth) throws IOException {
+        if (depth > 512) {
+            throw new RuntimeException("Tried to read NBT tag with too high complexity, depth > 512");
+        }
+        ByteArrayDataInput input = new ByteArrayDataInput(bytes, offset, length);
+        List<String> keys = new ArrayList<>();
+        int[] starts = new int[8];
+        int count = 0;
+        byte typeId;
+        while (true) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+            }
+            starts[count] = offset + input.position();
+            if ((typeId = CompoundTag.readNamedTagType(input)) == Tag.TAG_END_ID) {
+                break;
+            }
+            keys.add(CompoundTag.readNamedTagName(input));
+            TagTypes.typeById(typeId).skip(input);
+            count++;
+        }
+        int[] slots = new int[Math.max(4, Integer.highestOneBit(count) << 2)];
+        boolean[] removed = new boolean[count];
+        int removedCount = 0;
+        String[] keyArray = keys.toArray(new String[0]);
+        for (int i = 0; i < count; i++) {
+            int slot = findSlot(keyArray, slots, keyArray[i]);
+            if (slots[slot] != 0) {
+                // a repeated key replaces the earlier entry, as it would in a decoded compound
+                removed[slots[slot] - 1] = true;
+                removedCount++;
+            }
+            slots[slot] = i + 1;
+        }
+        return new LazyTagMap(bytes, depth, keyArray, Arrays.copyOf(starts, count + 1), slots, new Tag[count], removed, removedCount);
+    }
+
+    /**
+     * Returns the offset just past the compound's end tag.
+     */
+    int end() {
+        return this.starts[this.keys.length] + 1;
+    }
+
+    private static int findSlot(String[] keys, int[] slots, Object key) {
+        int mask = slots.length - 1;
+        int hash = key.hashCode();
+        for (int slot = (hash ^ hash >>> 16) & mask; ; slot = (slot + 1) & mask) {
+            int index = slots[slot];
+            if (index == 0 || keys[index - 1].equals(key)) {
+                return slot;
+            }
+        }
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        int index = this.slots[findSlot(this.keys, this.slots, key)] - 1;
+        return index >= 0 && !this.removed[index] ? index : -1;
+    }
+
+    private Tag valueAt(int index) {
+        Tag value = (Tag) VALUES.getAcquire(this.values, index);
+        if (value == null) {
+            Tag decoded = this.decode(index);
+            value = (Tag) VALUES.compareAndExchangeRelease(this.values, index, null, decoded);
+            if (value == null) {
+                value = decoded;
+            }
+        }
+        return value;
+    }
+
+    private Tag decode(int index) {
+        int start = this.starts[index];
+        byte typeId = this.bytes[start];
+        int valueStart = start + 3 + (((this.bytes[start + 1] & 0xFF) << 8) | (this.bytes[start + 2] & 0xFF));
+        int length = this.starts[index + 1] - valueStart;
+        try {
+            if (typeId == Tag.TAG_COMPOUND_ID) {
+                return new CompoundTag(index(this.bytes, valueStart, length, this.depth + 1));
+            }
+            if (typeId == Tag.TAG_LIST_ID) {
+                return ListTag.readLazily(new ByteArrayDataInput(this.bytes, valueStart, length), this.depth + 1);
+            }
+            return TagTypes.typeById(typeId).read(new ByteArrayDataInput(this.bytes, valueStart, length), this.depth + 1);
+        } catch (IOException ioException) {
+            throw new RuntimeException(ioException);
+        }
+    }
+
+    private void markRemoved(int index) {
+        this.removed[index] = true;
+        this.values[index] = null;
+        this.removedCount++;
+    }
+
+    /**
+     * Returns the type id of the value under a key without decoding it.
+     *
+     * @param key the key to look up
+     * @return the type id, or 0 if the key is absent
+     */
+    byte typeOf(String key) {
+        int index = this.indexOf(key);
+        if (index >= 0) {
+            Tag value = this.values[index];
+            return value != null ? value.getId() : this.bytes[this.starts[index]];
+        }
+        Tag value = this.added == null ? null : this.added.get(key);
+        return value == null ? 0 : value.getId();
+    }
+
+    @Override
+    public int size() {
+        return this.keys.length - this.removedCount + (this.added == null ? 0 : this.added.size());
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.indexOf(key) >= 0 || this.added != null && this.added.containsKey(key);
+    }
+
+    @Override
+    public Tag get(Object key) {
+        int index = this.indexOf(key);
+        if (index >= 0) {
+            return this.valueAt(index);
+        }
+        return this.added == null ? null : this.added.get(key);
+    }
+
+    @Override
+    public Tag put(String key, Tag value) {
+        Objects.requireNonNull(value, "value");
+        int index = this.slots[findSlot(this.keys, this.slots, key)] - 1;
+        if (index >= 0) {
+            Tag previous = null;
+            if (this.removed[index]) {
+                this.removed[index] = false;
+                this.removedCount--;
+            } else {
+                previous = this.valueAt(index);
+            }
+            this.values[index] = value;
+            return previous;
+        }
+        if (this.added == null) {
+            this.added = new HashMap<>(4);
+        }
+        return this.added.put(key, value);
+    }
+
+    @Override
+    public Tag remove(Object key) {
+        int index = this.indexOf(key);
+        if (index >= 0) {
+            Tag previous = this.valueAt(index);
+            this.markRemoved(index);
+            return previous;
+        }
+        return this.added == null ? null : this.added.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(this.removed, true);
+        Arrays.fill(this.values, null);
+        this.removedCount = this.keys.length;
+        this.added = null;
+    }
+
+    @Override
+    public Set<Entry<String, Tag>> entrySet() {
+        EntrySet entrySet = this.entrySet;
+        return entrySet != null ? entrySet : (this.entrySet = new EntrySet());
+    }
+
+    /**
+     * Writes the entries and the end tag, copying runs of untouched entries straight from the source bytes.
+     *
+     * @param output the output to write to
+     * @throws IOException if an I/O error occurs
+     */
+    void write(DataOutput output) throws IOException {
+        int run = -1;
+        for (int i = 0; i < this.keys.length; i++) {
+            if (!this.removed[i] && this.values[i] == null) {
+                if (run < 0) {
+                    run = this.starts[i];
+                }
+                continue;
+            }
+            if (run >= 0) {
+                output.write(this.bytes, run, this.starts[i] - run);
+                run = -1;
+            }
+            if (!this.removed[i]) {
+                CompoundTag.writeNamedTag(this.keys[i], this.values[i], output);
+            }
+        }
+        int end = this.starts[this.keys.length];
+        if (this.added == null || this.added.isEmpty()) {
+            // the end tag goes out with the last run
+            if (run < 0) {
+                run = end;
+            }
+            output.write(this.bytes, run, end + 1 - run);
+            return;
+        }
+        if (run >= 0) {
+            output.write(this.bytes, run, end - run);
+        }
+        for (Map.Entry<String, Tag> entry : this.added.entrySet()) {
+            CompoundTag.writeNamedTag(entry.getKey(), entry.getValue(), output);
+        }
+        output.writeByte(Tag.TAG_END_ID);
+    }
+
+    /**
+     * Returns the serialized size of the entries and the end tag.
+     *
+     * @return the size in bytes
+     */
+    int sizeInBytes() {
+        int size = 1;
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.removed[i]) {
+                continue;
+            }
+            Tag value = this.values[i];
+            size += value == null ? this.starts[i + 1] - this.starts[i] : CompoundTag.sizeOfNamedTag(this.keys[i], value);
+        }
+        if (this.added != null) {
+            for (Map.Entry<String, Tag> entry : this.added.entrySet()) {
+                size += CompoundTag.sizeOfNamedTag(entry.getKey(), entry.getValue());
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Copies this map over the same source bytes. Untouched entries stay undecoded in the copy.
+     *
+     * @param deep whether to deep clone decoded values instead of copying them
+     * @return the copy
+     */
+    LazyTagMap copy(boolean deep) {
+        Tag[] values = new Tag[this.values.length];
+        for (int i = 0; i < values.length; i++) {
+            Tag value = this.values[i];
+            if (value != null) {
+                values[i] = deep ? value.deepClone() : value.copy();
+            }
+        }
+        LazyTagMap copy = new LazyTagMap(this.bytes, this.depth, this.keys, this.starts, this.slots, values, this.removed.clone(), this.removedCount);
+        if (this.added != null) {
+            copy.added = new HashMap<>(this.added.size());
+            for (Map.Entry<String, Tag> entry : this.added.entrySet()) {
+                copy.added.put(entry.getKey(), deep ? entry.getValue().deepClone() : entry.getValue().copy());
+            }
+        }
+        return copy;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, Tag>> {
+
+        @Override
+        public int size() {
+            return LazyTagMap.this.size();
+        }
+
+        @Override
+        public Iterator<Entry<String, Tag>> iterator() {
+            return new EntryIterator();
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, Tag>> {
+        private int next = -1;
+        private int last = -1;
+        private Iterator<Entry<String, Tag>> addedIterator;
+
+        private EntryIterator() {
+            this.advance();
+        }
+
+        private void advance() {
+            do {
+                this.next++;
+            } while (this.next < LazyTagMap.this.keys.length && LazyTagMap.this.removed[this.next]);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.next < LazyTagMap.this.keys.length) {
+                return true;
+            }
+            if (this.addedIterator == null) {
+                if (LazyTagMap.this.added == null) {
+                    return false;
+                }
+                this.addedIterator = LazyTagMap.this.added.entrySet().iterator();
+            }
+            return this.addedIterator.hasNext();
+        }
+
+        @Override
+        public Entry<String, Tag> next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (this.addedIterator != null) {
+                this.last = -1;
+                return this.addedIterator.next();
+            }
+            this.last = this.next;
+            this.advance();
+            return new IndexedEntry(this.last);
+        }
+
+        @Override
+        public void remove() {
+            if (this.last >= 0) {
+                if (LazyTagMap.this.removed[this.last]) {
+                    throw new IllegalStateException();
+                }
+                LazyTagMap.this.markRemoved(this.last);
+            } else if (this.addedIterator != null) {
+                this.addedIterator.remove();
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    private final class IndexedEntry implements Entry<String, Tag> {
+        private final int index;
+
+        private IndexedEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return LazyTagMap.this.keys[this.index];
+        }
+
+        @Override
+        public Tag getValue() {
+            return LazyTagMap.this.valueAt(this.index);
+        }
+
+        @Override
+        public Tag setValue(Tag value) {
+            Objects.requireNonNull(value, "value");
+            Tag previous = LazyTagMap.this.valueAt(this.index);
+            LazyTagMap.this.values[this.index] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Map.Entry<?, ?> entry && this.getKey().equals(entry.getKey()) && this.getValue().equals(entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return this.getKey().hashCode() ^ this.getValue().hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return this.getKey() + "=" + this.getValue();
+        }
+    }
+}
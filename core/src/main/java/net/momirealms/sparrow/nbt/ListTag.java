@@ -1,5 +1,6 @@
 package net.momirealms.sparrow.nbt;
 
+import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -9,10 +10,30 @@ import java.util.Objects;
 import java.util.function.Function;
 
 public class ListTag extends CollectionTag<Tag> {
-    private final List<Tag> list;
+    private List<Tag> list;
+    // the shared element id while the list is homogeneous, 0 while it is empty
+    private byte elementType;
+    // per-id element counts, only allocated while the list holds more than one tag type
+    private int[] typeCounts;
 
+    /**
+     * Creates a list tag backed by the given list.
+     * The list is adopted rather than copied and must not be modified afterwards except through this tag.
+     *
+     * @param list the backing list
+     */
     public ListTag(List<Tag> list) {
         this.list = list;
+        if (list instanceof PrimitiveTagList primitive) {
+            this.elementType = primitive.isEmpty() ? 0 : primitive.elementType();
+        } else if (list instanceof LazyTagList lazy) {
+            this.elementType = lazy.isEmpty() ? 0 : lazy.elementType();
+        } else {
+            int size = 0;
+            for (Tag tag : list) {
+                added(tag.getId(), ++size);
+            }
+        }
     }
 
     public ListTag() {
@@ -57,44 +78,247 @@ public class ListTag extends CollectionTag<Tag> {
 
     @Override
     public Tag set(int index, Tag tag) {
-        return this.list.set(index, tag);
+        Tag previous = storageFor(tag).set(index, tag);
+        replaced(previous.getId(), tag.getId());
+        return previous;
     }
 
     @Override
     public void add(int index, Tag tag) {
-        this.list.add(index, tag);
+        List<Tag> storage = storageFor(tag);
+        storage.add(index, tag);
+        added(tag.getId(), storage.size());
     }
 
     @Override
     public Tag remove(int index) {
-        return this.list.remove(index);
+        Tag removed = mutableList().remove(index);
+        removed(removed.getId());
+        return removed;
     }
 
     @Override
     public boolean setTag(int index, Tag tag) {
-        this.list.set(index, tag);
+        this.set(index, tag);
         return true;
     }
 
     @Override
     public boolean addTag(int index, Tag tag) {
-        this.list.add(index, tag);
+        this.add(index, tag);
         return true;
     }
 
+    @Override
+    public void clear() {
+        if (this.list instanceof LazyTagList) {
+            this.list = new ArrayList<>();
+        } else {
+            this.list.clear();
+        }
+        this.elementType = 0;
+        this.typeCounts = null;
+    }
+
     @Override
     public int size() {
         return this.list.size();
     }
 
+    /**
+     * Returns the backing list able to hold the given tag, moving primitive storage
+     * into a regular list first if the tag does not match its element type.
+     */
+    private List<Tag> storageFor(Tag tag) {
+        List<Tag> list = mutableList();
+        if (list instanceof PrimitiveTagList primitive && !primitive.accepts(tag)) {
+            this.list = new ArrayList<>(primitive);
+        }
+        return this.list;
+    }
+
+    /**
+     * Returns the backing list, decoding a lazy view of serialized elements first.
+     */
+    private List<Tag> mutableList() {
+        if (this.list instanceof LazyTagList lazy) {
+            this.list = lazy.decode();
+        }
+        return this.list;
+    }
+
+    private void added(byte id, int size) {
+        if (this.typeCounts != null) {
+            this.typeCounts[id]++;
+        } else if (size == 1) {
+            this.elementType = id;
+        } else if (id != this.elementType) {
+            this.typeCounts = new int[TAG_LONG_ARRAY_ID + 1];
+            this.typeCounts[this.elementType] = size - 1;
+            this.typeCounts[id] = 1;
+        }
+    }
+
+    private void removed(byte id) {
+        if (this.list.isEmpty()) {
+            this.elementType = 0;
+            this.typeCounts = null;
+        } else if (this.typeCounts != null && --this.typeCounts[id] == 0) {
+            collapseIfHomogeneous();
+        }
+    }
+
+    private void replaced(byte previous, byte id) {
+        if (previous == id) {
+            return;
+        }
+        if (this.typeCounts != null) {
+            this.typeCounts[id]++;
+            if (--this.typeCounts[previous] == 0) {
+                collapseIfHomogeneous();
+            }
+        } else if (this.list.size() == 1) {
+            this.elementType = id;
+        } else {
+            this.typeCounts = new int[TAG_LONG_ARRAY_ID + 1];
+            this.typeCounts[previous] = this.list.size() - 1;
+            this.typeCounts[id] = 1;
+        }
+    }
+
+    private void collapseIfHomogeneous() {
+        int remaining = -1;
+        for (int id = 0; id < this.typeCounts.length; id++) {
+            if (this.typeCounts[id] != 0) {
+                if (remaining != -1) {
+                    return;
+                }
+                remaining = id;
+            }
+        }
+        this.elementType = (byte) remaining;
+        this.typeCounts = null;
+    }
+
     @Override
     public void write(DataOutput output) throws IOException {
+        if (this.list instanceof LazyTagList lazy) {
+            output.writeByte(lazy.elementType());
+            output.writeInt(lazy.size());
+            lazy.writeElements(output);
+            return;
+        }
+        if (this.list instanceof PrimitiveTagList primitive && !primitive.isEmpty()) {
+            output.writeByte(primitive.elementType());
+            output.writeInt(primitive.size());
+            primitive.writeElements(output);
+            return;
+        }
         byte type = identifyRawElementType();
         output.writeByte(type);
         output.writeInt(this.list.size());
+        if (type == TAG_COMPOUND_ID) {
+            for (Tag tag : this.list) {
+                writeCompoundElement(tag, output);
+            }
+        } else {
+            for (Tag tag : this.list) {
+                tag.write(output);
+            }
+        }
+    }
+
+    /**
+     * Writes an element of a compound list, emitting the {@code {"": element}} wrapper inline
+     * for elements that need one instead of allocating a wrapper compound.
+     */
+    private static void writeCompoundElement(Tag tag, DataOutput output) throws IOException {
+        if (tag instanceof CompoundTag compoundTag && !isWrapper(compoundTag)) {
+            compoundTag.write(output);
+            return;
+        }
+        output.writeByte(tag.getId());
+        if (tag.getId() != TAG_END_ID) {
+            output.writeShort(0);
+            tag.write(output);
+        }
+        output.writeByte(TAG_END_ID);
+    }
+
+    @Override
+    public int sizeInBytes() {
+        if (this.list instanceof PrimitiveTagList primitive) {
+            return 5 + primitive.size() * primitive.elementSize();
+        }
+        if (this.list instanceof LazyTagList lazy) {
+            return 5 + lazy.size() * lazy.elementSize();
+        }
+        byte type = identifyRawElementType();
+        int size = 5;
         for (Tag tag : this.list) {
-            wrapIfNeeded(type, tag).write(output);
+            size += tag.sizeInBytes();
+            if (type == TAG_COMPOUND_ID && !(tag instanceof CompoundTag compoundTag && !isWrapper(compoundTag))) {
+                // wrapper compound: type id, empty name and end tag around the element
+                size += tag.getId() == TAG_END_ID ? 2 : 4;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Reads the elements of a list whose element type and length have already been read.
+     *
+     * @param input  the input to read from
+     * @param typeId the element type id
+     * @param length the number of elements
+     * @param depth  the depth of the list itself
+     * @return the list tag
+     * @throws IOException if an I/O error occurs
+     */
+    static ListTag readElements(DataInput input, byte typeId, int length, int depth) throws IOException {
+        if (Tag.isNumericTag(typeId) && length > 0) {
+            return new ListTag(PrimitiveTagList.read(typeId, input, length));
+        }
+        TagType<?> tagType = TagTypes.typeById(typeId);
+        ListTag listTag = new ListTag();
+        for (int k = 0; k < length; ++k) {
+            listTag.addAndUnwrap(tagType.read(input, depth + 1));
+        }
+        return listTag;
+    }
+
+    /**
+     * Reads a list payload, element type and length included, viewing the elements in place when possible.
+     * Lists of byte, short, int, long, float or double read from a {@link net.momirealms.sparrow.nbt.io.ByteArrayDataInput}
+     * or {@link net.momirealms.sparrow.nbt.io.ByteBufferDataInput} keep a view of the serialized elements, so
+     * {@link #get(int)}, {@link #getInt(int)}, {@link #getDouble(int)} and the other typed getters decode only the
+     * element asked for, and writing the unchanged list copies the bytes. The first modification decodes the list.
+     * The backing memory must not change while the list is in use. Other lists are read as usual.
+     *
+     * @param input the input to read from
+     * @return the list tag
+     * @throws IOException if an I/O error occurs
+     */
+    public static ListTag readLazily(DataInput input) throws IOException {
+        return readLazily(input, 0);
+    }
+
+    static ListTag readLazily(DataInput input, int depth) throws IOException {
+        if (depth > 512) {
+            throw new RuntimeException("Tried to read NBT tag with too high complexity, depth > 512");
+        }
+        byte typeId = input.readByte();
+        int length = input.readInt();
+        if (typeId == 0 && length > 0) {
+            throw new RuntimeException("Missing type on ListTag");
+        }
+        if (Tag.isNumericTag(typeId) && length > 0) {
+            LazyTagList view = LazyTagList.view(input, typeId, length);
+            if (view != null) {
+                return new ListTag(view);
+            }
         }
+        return readElements(input, typeId, length, depth);
     }
 
     public void addAndUnwrap(Tag tag) {
@@ -105,17 +329,15 @@ public class ListTag extends CollectionTag<Tag> {
         }
     }
 
+    /**
+     * Returns the element type this list is serialized with: the shared element id of a homogeneous list,
+     * {@link #TAG_COMPOUND_ID} for a mixed list whose elements are written wrapped, or 0 for an empty list.
+     * The type is tracked as elements are added and removed, so this does not scan the list.
+     *
+     * @return the serialized element type id
+     */
     public byte identifyRawElementType() {
-        byte type = 0;
-        for (Tag tag : this.list) {
-            byte id = tag.getId();
-            if (type == 0) {
-                type = id;
-            } else if (type != id) {
-                return 10;
-            }
-        }
-        return type;
+        return this.typeCounts != null ? TAG_COMPOUND_ID : this.elementType;
     }
 
     @Override
@@ -130,11 +352,24 @@ public class ListTag extends CollectionTag<Tag> {
 
     @Override
     public ListTag copy() {
+        if (this.list instanceof LazyTagList) {
+            // the view is never modified, the copy replaces it on its first change
+            return new ListTag(this.list);
+        }
+        if (this.list instanceof PrimitiveTagList primitive) {
+            return new ListTag(primitive.copy());
+        }
         return new ListTag(new ArrayList<>(this.list));
     }
 
     @Override
     public ListTag deepClone() {
+        if (this.list instanceof LazyTagList) {
+            return new ListTag(this.list);
+        }
+        if (this.list instanceof PrimitiveTagList primitive) {
+            return new ListTag(primitive.copy());
+        }
         List<Tag> list = new ArrayList<>(this.list.size());
         for (Tag tag : this.list) {
             list.add(tag.deepClone());
@@ -186,6 +421,12 @@ public class ListTag extends CollectionTag<Tag> {
      * @return the float value at the specified index, or the default value
      */
     public float getFloat(int index, float defaultValue) {
+        if (this.list instanceof PrimitiveTagList.Floats values) {
+            return index >= 0 && index < values.size() ? values.getFloat(index) : defaultValue;
+        }
+        if (this.list instanceof LazyTagList values && values.elementType() == TAG_FLOAT_ID) {
+            return index >= 0 && index < values.size() ? values.getFloat(index) : defaultValue;
+        }
         return this.getTypedValue(index, TAG_FLOAT_ID, t -> ((FloatTag) t).getAsFloat(), defaultValue);
     }
 
@@ -207,6 +448,12 @@ public class ListTag extends CollectionTag<Tag> {
      * @return the double value at the specified index, or the default value
      */
     public double getDouble(int index, double defaultValue) {
+        if (this.list instanceof PrimitiveTagList.Doubles values) {
+            return index >= 0 && index < values.size() ? values.getDouble(index) : defaultValue;
+        }
+        if (this.list instanceof LazyTagList values && values.elementType() == TAG_DOUBLE_ID) {
+            return index >= 0 && index < values.size() ? values.getDouble(index) : defaultValue;
+        }
         return this.getTypedValue(index, TAG_DOUBLE_ID, t -> ((DoubleTag) t).getAsDouble(), defaultValue);
     }
 
@@ -270,6 +517,12 @@ public class ListTag extends CollectionTag<Tag> {
      * @return the int value at the specified index, or the default value
      */
     public int getInt(int index, int defaultValue) {
+        if (this.list instanceof PrimitiveTagList.Ints values) {
+            return index >= 0 && index < values.size() ? values.getInt(index) : defaultValue;
+        }
+        if (this.list instanceof LazyTagList values && values.elementType() == TAG_INT_ID) {
+            return index >= 0 && index < values.size() ? values.getInt(index) : defaultValue;
+        }
         return this.getTypedValue(index, TAG_INT_ID, t -> ((IntTag) t).getAsInt(), defaultValue);
     }
 
@@ -291,6 +544,12 @@ public class ListTag extends CollectionTag<Tag> {
      * @return the short value at the specified index, or the default value
      */
     public short getShort(int index, short defaultValue) {
+        if (this.list instanceof PrimitiveTagList.Shorts values) {
+            return index >= 0 && index < values.size() ? values.getShort(index) : defaultValue;
+        }
+        if (this.list instanceof LazyTagList values && values.elementType() == TAG_SHORT_ID) {
+            return index >= 0 && index < values.size() ? values.getShort(index) : defaultValue;
+        }
         return this.getTypedValue(index, TAG_SHORT_ID, t -> ((ShortTag) t).getAsShort(), defaultValue);
     }
 
@@ -312,6 +571,12 @@ public class ListTag extends CollectionTag<Tag> {
      * @return the byte value at the specified index, or the default value
      */
     public byte getByte(int index, byte defaultValue) {
+        if (this.list instanceof PrimitiveTagList.Bytes values) {
+            return index >= 0 && index < values.size() ? values.getByte(index) : defaultValue;
+        }
+        if (this.list instanceof LazyTagList values && values.elementType() == TAG_BYTE_ID) {
+            return index >= 0 && index < values.size() ? values.getByte(index) : defaultValue;
+        }
         return this.getTypedValue(index, TAG_BYTE_ID, t -> ((ByteTag) t).getAsByte(), defaultValue);
     }
 
@@ -333,6 +598,12 @@ public class ListTag extends CollectionTag<Tag> {
      * @return the long value at the specified index, or the default value
      */
     public long getLong(int index, long defaultValue) {
+        if (this.list instanceof PrimitiveTagList.Longs values) {
+            return index >= 0 && index < values.size() ? values.getLong(index) : defaultValue;
+        }
+        if (this.list instanceof LazyTagList values && values.elementType() == TAG_LONG_ID) {
+            return index >= 0 && index < values.size() ? values.getLong(index) : defaultValue;
+        }
         return this.getTypedValue(index, TAG_LONG_ID, t -> ((LongTag) t).getAsLong(), defaultValue);
     }
 
@@ -379,6 +650,9 @@ public class ListTag extends CollectionTag<Tag> {
     }
 
     private <T> T getTypedValue(int index, int expectedId, Function<Tag, T> extractor, T defaultValue) {
+        if (this.typeCounts == null && this.elementType != expectedId) {
+            return defaultValue;
+        }
         if (index >= 0 && index < this.list.size()) {
             Tag tag = this.list.get(index);
             if (tag.getId() == expectedId) {
@@ -1,5 +1,6 @@
 package net.momirealms.sparrow.nbt;
 
+import net.momirealms.sparrow.nbt.util.ArrayIOUtil;
 import net.momirealms.sparrow.nbt.util.ArrayUtil;
 
 import java.io.DataOutput;
@@ -16,14 +17,14 @@ public class LongArrayTag extends CollectionTag<LongTag> {
 
     @Override
     public LongTag get(int index) {
-        return new LongTag(value[index]);
+        return LongTag.valueOf(value[index]);
     }
 
     @Override
     public LongTag set(int index, LongTag tag) {
         long l = this.value[index];
         this.value[index] = tag.getAsLong();
-        return new LongTag(l);
+        return LongTag.valueOf(l);
     }
 
     @Override
@@ -35,7 +36,7 @@ public class LongArrayTag extends CollectionTag<LongTag> {
     public LongTag remove(int index) {
         long l = this.value[index];
         this.value = ArrayUtil.remove(this.value, index);
-        return new LongTag(l);
+        return LongTag.valueOf(l);
     }
 
     @Override
@@ -66,9 +67,12 @@ public class LongArrayTag extends CollectionTag<LongTag> {
     @Override
     public void write(DataOutput output) throws IOException {
         output.writeInt(this.value.length);
-        for(long l : this.value) {
-            output.writeLong(l);
-        }
+        ArrayIOUtil.writeLongs(output, this.value, 0, this.value.length);
+    }
+
+    @Override
+    public int sizeInBytes() {
+        return 4 + this.value.length * 8;
     }
 
     @Override
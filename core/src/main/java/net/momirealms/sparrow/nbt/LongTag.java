@@ -10,6 +10,21 @@ public class LongTag extends NumericTag {
         this.value = value;
     }
 
+    /**
+     * Returns a tag holding the given value, reusing a shared instance if the value is within the cached range.
+     * The range defaults to [-128, 1024] and can be changed with the {@code sparrow.nbt.cache.long.low}
+     * and {@code sparrow.nbt.cache.long.high} system properties.
+     *
+     * @param value the long value
+     * @return a cached or new tag
+     */
+    public static LongTag valueOf(long value) {
+        if (value >= Cache.LOW && value <= Cache.HIGH) {
+            return Cache.VALUES[(int) (value - Cache.LOW)];
+        }
+        return new LongTag(value);
+    }
+
     public long value() {
         return value;
     }
@@ -54,6 +69,11 @@ public class LongTag extends NumericTag {
         output.writeLong(this.value);
     }
 
+    @Override
+    public int sizeInBytes() {
+        return 8;
+    }
+
     @Override
     public byte getId() {
         return TAG_LONG_ID;
@@ -90,4 +110,22 @@ public class LongTag extends NumericTag {
     public int hashCode() {
         return Long.hashCode(value);
     }
+
+    private static final class Cache {
+        static final int LOW;
+        static final int HIGH;
+        static final LongTag[] VALUES;
+        static {
+            int low = Integer.getInteger("sparrow.nbt.cache.long.low", -128);
+            int high = Integer.getInteger("sparrow.nbt.cache.long.high", 1024);
+            // keep the table within 2^20 entries
+            high = (int) Math.min(high, low + (1L << 20) - 1);
+            LOW = low;
+            HIGH = high;
+            VALUES = new LongTag[(int) Math.max(0L, (long) high - low + 1)];
+            for (int i = 0; i < VALUES.length; i++) {
+                VALUES[i] = new LongTag(low + i);
+            }
+        }
+    }
 }
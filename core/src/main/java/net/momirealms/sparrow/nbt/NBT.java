@@ -1,12 +1,29 @@
 package net.momirealms.sparrow.nbt;
 
+import net.momirealms.sparrow.nbt.io.ByteArrayDataInput;
+import net.momirealms.sparrow.nbt.io.ByteArrayDataOutput;
+import net.momirealms.sparrow.nbt.io.ByteBufferDataInput;
+import net.momirealms.sparrow.nbt.io.ByteBufferDataOutput;
+import net.momirealms.sparrow.nbt.io.Compression;
+import net.momirealms.sparrow.nbt.io.FileIO;
+import net.momirealms.sparrow.nbt.jfr.NBTFileReadEvent;
+import net.momirealms.sparrow.nbt.jfr.NBTFileWriteEvent;
+import net.momirealms.sparrow.nbt.jfr.NBTReadEvent;
+import net.momirealms.sparrow.nbt.jfr.NBTWriteEvent;
+import net.momirealms.sparrow.nbt.metrics.NBTMetrics;
+import net.momirealms.sparrow.nbt.util.StringPool;
 import net.momirealms.sparrow.nbt.util.UUIDUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 
 /**
@@ -15,26 +32,68 @@ import java.util.UUID;
  */
 public class NBT {
 
+    private static volatile StringPool keyPool;
+    private static volatile NBTMetrics metrics;
+
     private NBT() {}
 
+    /**
+     * Sets the pool compound keys are canonicalized through while decoding, so that repeated keys
+     * such as "id" or "count" share one instance across all decoded tags.
+     *
+     * @param pool the pool to use, or null to disable key pooling
+     */
+    public static void setKeyPool(@Nullable StringPool pool) {
+        keyPool = pool;
+    }
+
+    /**
+     * Returns the pool compound keys are canonicalized through while decoding.
+     *
+     * @return the key pool, or null if key pooling is disabled
+     */
+    @Nullable
+    public static StringPool keyPool() {
+        return keyPool;
+    }
+
+    /**
+     * Sets the metrics reads, writes and file operations report to.
+     *
+     * @param metrics the metrics to report to, or null to disable reporting
+     */
+    public static void setMetrics(@Nullable NBTMetrics metrics) {
+        NBT.metrics = metrics;
+    }
+
+    /**
+     * Returns the metrics reads, writes and file operations report to.
+     *
+     * @return the metrics, or null if reporting is disabled
+     */
+    @Nullable
+    public static NBTMetrics metrics() {
+        return metrics;
+    }
+
     public static ByteTag createByte(byte b) {
-        return new ByteTag(b);
+        return ByteTag.valueOf(b);
     }
 
     public static ByteTag createBoolean(boolean b) {
-        return new ByteTag(b);
+        return ByteTag.valueOf(b);
     }
 
     public static ShortTag createShort(short s) {
-        return new ShortTag(s);
+        return ShortTag.valueOf(s);
     }
 
     public static IntTag createInt(int i) {
-        return new IntTag(i);
+        return IntTag.valueOf(i);
     }
 
     public static LongTag createLong(long l) {
-        return new LongTag(l);
+        return LongTag.valueOf(l);
     }
 
     public static FloatTag createFloat(float f) {
@@ -89,6 +148,34 @@ public class NBT {
      * @throws IOException if an I/O error occurs
      */
     public static Tag readUnnamedTag(DataInput input, boolean named) throws IOException {
+        NBTMetrics metrics = NBT.metrics;
+        NBTReadEvent event = new NBTReadEvent();
+        if (metrics == null && !event.isEnabled()) {
+            return readTag(input, named);
+        }
+        int start = position(input);
+        event.begin();
+        long startTime = metrics == null ? 0 : System.nanoTime();
+        Tag tag = readTag(input, named);
+        long endTime = metrics == null ? 0 : System.nanoTime();
+        event.end();
+        long bytes = start >= 0 ? position(input) - start : -1;
+        if (metrics != null) {
+            if (bytes < 0) {
+                bytes = sizeInBytes(tag, named);
+            }
+            NBTMetrics.record(metrics, NBTMetrics.Operation.READ, bytes, endTime - startTime, tag);
+        }
+        if (event.shouldCommit()) {
+            event.bytes = bytes >= 0 ? bytes : sizeInBytes(tag, named);
+            event.named = named;
+            event.setRoot(tag);
+            event.commit();
+        }
+        return tag;
+    }
+
+    private static Tag readTag(DataInput input, boolean named) throws IOException {
         byte typeId = input.readByte();
         if (typeId == 0) {
             return EndTag.INSTANCE;
@@ -104,6 +191,41 @@ public class NBT {
         }
     }
 
+    /**
+     * Decodes a(n) (un)named NBT tag from a DataInput stream straight into a visitor.
+     * Entries and elements the visitor skips are stepped over without being decoded, and
+     * {@link StreamTagVisitor.ValueResult#HALT} stops reading right away, leaving the rest of the input unread.
+     *
+     * @param input   the input stream to read from
+     * @param visitor the visitor to feed
+     * @param named   whether the root tag carries a name
+     * @throws IOException if an I/O error occurs
+     */
+    public static void parse(DataInput input, StreamTagVisitor visitor, boolean named) throws IOException {
+        TagType<?> type = TagTypes.typeById(input.readByte());
+        if (type == TagTypes.END) {
+            if (visitor.visitRootEntry(type) == StreamTagVisitor.ValueResult.CONTINUE) {
+                visitor.visitEnd();
+            }
+            return;
+        }
+        switch (visitor.visitRootEntry(type)) {
+            case HALT:
+                break;
+            case BREAK:
+                if (named) {
+                    StringTag.skipString(input);
+                }
+                type.skip(input);
+                break;
+            default:
+                if (named) {
+                    StringTag.skipString(input);
+                }
+                type.parse(input, visitor, 0);
+        }
+    }
+
     /**
      * Writes a(n) (un)named NBT tag to a DataOutput stream.
      *
@@ -112,6 +234,34 @@ public class NBT {
      * @throws IOException if an I/O error occurs
      */
     public static void writeUnnamedTag(Tag tag, DataOutput output, boolean named) throws IOException {
+        NBTMetrics metrics = NBT.metrics;
+        NBTWriteEvent event = new NBTWriteEvent();
+        if (metrics == null && !event.isEnabled()) {
+            writeTag(tag, output, named);
+            return;
+        }
+        int start = position(output);
+        event.begin();
+        long startTime = metrics == null ? 0 : System.nanoTime();
+        writeTag(tag, output, named);
+        long endTime = metrics == null ? 0 : System.nanoTime();
+        event.end();
+        long bytes = start >= 0 ? position(output) - start : -1;
+        if (metrics != null) {
+            if (bytes < 0) {
+                bytes = sizeInBytes(tag, named);
+            }
+            metrics.record(NBTMetrics.Operation.WRITE, bytes, endTime - startTime);
+        }
+        if (event.shouldCommit()) {
+            event.bytes = bytes >= 0 ? bytes : sizeInBytes(tag, named);
+            event.named = named;
+            event.setRoot(tag);
+            event.commit();
+        }
+    }
+
+    private static void writeTag(Tag tag, DataOutput output, boolean named) throws IOException {
         output.writeByte(tag.getId());
         if (tag.getId() != Tag.TAG_END_ID) {
             if (named) {
@@ -137,6 +287,20 @@ public class NBT {
         }
     }
 
+    /**
+     * Reads a CompoundTag from a DataInput stream, decoding only the given paths and skipping everything else.
+     * Reuse an {@link NBTProjection} instead when reading many compounds with the same paths.
+     *
+     * @param input the input stream to read from
+     * @param named whether the root tag carries a name
+     * @param paths the paths to keep, such as {@code Pos}, {@code Data.Level} or {@code Inventory[].id}
+     * @return a sparse CompoundTag with the selected paths
+     * @throws IOException if an I/O error occurs or the root tag is not a CompoundTag
+     */
+    public static CompoundTag readCompound(DataInput input, boolean named, String... paths) throws IOException {
+        return NBTProjection.of(paths).read(input, named);
+    }
+
     /**
      * Writes a CompoundTag to a DataOutput stream.
      *
@@ -157,15 +321,76 @@ public class NBT {
      */
     @Nullable
     public static CompoundTag readFile(File file) throws IOException {
+        return readFile(file, Compression.NONE, false);
+    }
+
+    /**
+     * Reads a CompoundTag from a possibly compressed file.
+     * Files up to {@link FileIO#IN_MEMORY_LIMIT} are loaded and decompressed in one go, larger ones are streamed.
+     *
+     * @param file        the file to read from
+     * @param compression the compression the file was written with
+     * @param named       whether the root tag is stored with a name, as in {@code level.dat}
+     * @return the read CompoundTag, or null if the file does not exist or is empty
+     * @throws IOException if an I/O error occurs or the compressed data is corrupt
+     */
+    @Nullable
+    public static CompoundTag readFile(File file, Compression compression, boolean named) throws IOException {
+        NBTMetrics metrics = NBT.metrics;
+        NBTFileReadEvent event = new NBTFileReadEvent();
+        if (metrics == null && !event.isEnabled()) {
+            return readFileContents(file, compression, named);
+        }
+        event.begin();
+        long startTime = System.nanoTime();
+        CompoundTag tag = readFileContents(file, compression, named);
+        long nanos = System.nanoTime() - startTime;
+        event.end();
+        if (tag != null) {
+            if (metrics != null) {
+                NBTMetrics.record(metrics, NBTMetrics.Operation.FILE_READ, file.length(), nanos, tag);
+            }
+            if (event.shouldCommit()) {
+                event.path = file.getPath();
+                event.bytes = file.length();
+                event.compression = compression.name();
+                event.setRoot(tag);
+                event.commit();
+            }
+        }
+        return tag;
+    }
+
+    private static CompoundTag readFileContents(File file, Compression compression, boolean named) throws IOException {
         if (!file.exists()) {
             return null;
         }
-        if (file.length() == 0) {
-            return null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return null;
+            }
+            if (size <= FileIO.IN_MEMORY_LIMIT) {
+                byte[] bytes = FileIO.readFully(channel, (int) size);
+                if (compression != Compression.NONE) {
+                    bytes = compression.decompress(bytes, 0, bytes.length);
+                }
+                return readFileCompound(new ByteArrayDataInput(bytes), named);
+            }
+            try (DataInputStream input = new DataInputStream(compression.newInputStream(FileIO.newInputStream(channel)))) {
+                return readFileCompound(input, named);
+            }
         }
-        try (FileInputStream fis = new FileInputStream(file);
-             DataInputStream input = new DataInputStream(fis)) {
-            return readCompound(input, false);
+    }
+
+    /**
+     * Decodes the root of a file. Not reported on its own, the file read covers it.
+     */
+    private static CompoundTag readFileCompound(DataInput input, boolean named) throws IOException {
+        if (readTag(input, named) instanceof CompoundTag compound) {
+            return compound;
+        } else {
+            throw new IOException("Root tag must be CompoundTag");
         }
     }
 
@@ -177,12 +402,101 @@ public class NBT {
      * @throws IOException if an I/O error occurs
      */
     public static void writeFile(File file, CompoundTag nbt) throws IOException {
-        try (FileOutputStream fileOutputStream = new FileOutputStream(file);
-             DataOutputStream dataOutputStream = new DataOutputStream(fileOutputStream)) {
-            writeCompound(nbt, dataOutputStream, false);
+        writeFile(file, nbt, Compression.NONE, Compression.DEFAULT_LEVEL, false);
+    }
+
+    /**
+     * Writes a CompoundTag to a file with the default compression level.
+     *
+     * @param file        the file to write to
+     * @param nbt         the CompoundTag to write
+     * @param compression the compression to apply
+     * @param named       whether to store the root tag with an empty name, as in {@code level.dat}
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeFile(File file, CompoundTag nbt, Compression compression, boolean named) throws IOException {
+        writeFile(file, nbt, compression, Compression.DEFAULT_LEVEL, named);
+    }
+
+    /**
+     * Writes a CompoundTag to a file.
+     * The tag is streamed through the compression into a temp file next to the target, which is then moved over
+     * it, so a failure at any point leaves the existing file untouched.
+     *
+     * @param file        the file to write to
+     * @param nbt         the CompoundTag to write
+     * @param compression the compression to apply
+     * @param level       the compression level, 0-9 or {@link Compression#DEFAULT_LEVEL}
+     * @param named       whether to store the root tag with an empty name, as in {@code level.dat}
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeFile(File file, CompoundTag nbt, Compression compression, int level, boolean named) throws IOException {
+        NBTMetrics metrics = NBT.metrics;
+        NBTFileWriteEvent event = new NBTFileWriteEvent();
+        event.begin();
+        long startTime = metrics == null ? 0 : System.nanoTime();
+        long[] size = new long[1];
+        FileIO.replace(file.toPath(), channel -> {
+            // encoded without a nested write report, the file write covers it
+            try (DataOutputStream output = new DataOutputStream(compression.newOutputStream(FileIO.newOutputStream(channel), level))) {
+                writeTag(nbt, output, named);
+            }
+            size[0] = channel.size();
+        });
+        event.end();
+        if (metrics != null) {
+            metrics.record(NBTMetrics.Operation.FILE_WRITE, size[0], System.nanoTime() - startTime);
+        }
+        if (event.shouldCommit()) {
+            event.path = file.getPath();
+            event.bytes = size[0];
+            event.compression = compression.name();
+            event.setRoot(nbt);
+            event.commit();
+        }
+    }
+
+    /**
+     * Reads a CompoundTag from a possibly compressed stream.
+     * Compressed data is read in chunks, so bytes following it may be consumed as well. The stream is not closed.
+     *
+     * @param input       the stream to read from
+     * @param compression the compression the data was written with
+     * @param named       whether the root tag is stored with a name
+     * @return the read CompoundTag
+     * @throws IOException if an I/O error occurs or the compressed data is corrupt
+     */
+    public static CompoundTag readCompressed(InputStream input, Compression compression, boolean named) throws IOException {
+        InputStream decompressed = compression.newInputStream(new FilterInputStream(input) {
+            @Override
+            public void close() {
+                // leave the caller's stream open
+            }
+        });
+        try (DataInputStream dataInput = new DataInputStream(decompressed)) {
+            return readCompound(dataInput, named);
         }
     }
 
+    /**
+     * Writes a CompoundTag to a stream, compressing it if requested.
+     * The stream is neither flushed nor closed.
+     *
+     * @param nbt         the CompoundTag to write
+     * @param output      the stream to write to
+     * @param compression the compression to apply
+     * @param level       the compression level, 0-9 or {@link Compression#DEFAULT_LEVEL}
+     * @param named       whether to store the root tag with an empty name
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeCompressed(CompoundTag nbt, OutputStream output, Compression compression, int level, boolean named) throws IOException {
+        byte[] bytes = toBytes(nbt, named);
+        if (compression != Compression.NONE) {
+            bytes = compression.compress(bytes, 0, bytes.length, level);
+        }
+        output.write(bytes);
+    }
+
     /**
      * Converts a byte array to a CompoundTag.
      *
@@ -195,10 +509,111 @@ public class NBT {
         if (bytes == null || bytes.length == 0) {
             return null;
         }
-        try (ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(bytes);
-             DataInputStream dataInputStream = new DataInputStream(byteArrayInputStream)) {
-            return readCompound(dataInputStream, false);
+        return readCompound(new ByteArrayDataInput(bytes), false);
+    }
+
+    /**
+     * Converts a region of a byte array to a CompoundTag without copying it.
+     *
+     * @param bytes  the byte array to read from
+     * @param offset the index of the first byte of the tag
+     * @param length the number of bytes available for the tag
+     * @return the CompoundTag, or null if the region is empty
+     * @throws IOException if an I/O error occurs
+     */
+    @Nullable
+    public static CompoundTag fromBytes(byte @NotNull [] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return null;
         }
+        return readCompound(new ByteArrayDataInput(bytes, offset, length), false);
+    }
+
+    /**
+     * Converts a byte array to a CompoundTag that decodes its entries on first access.
+     *
+     * @param bytes the byte array to read from, which must not be modified while the tag is in use
+     * @return the CompoundTag, or null if the array is empty
+     * @throws IOException if an I/O error occurs or the root tag is not a CompoundTag
+     * @see #fromBytesLazily(byte[], int, int)
+     */
+    @Nullable
+    public static CompoundTag fromBytesLazily(byte @NotNull [] bytes) throws IOException {
+        return fromBytesLazily(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Converts a region of a byte array to a CompoundTag that decodes its entries on first access.
+     * Only the entry offsets are indexed up front, nested compounds are again read lazily, and entries that
+     * were never looked up or replaced are written back by copying their original bytes.
+     * The tag keeps a reference to the array, which must not be modified while the tag is in use.
+     * As with a regular CompoundTag, several threads may read the tag at once, and threads looking up the same
+     * entry get the same decoded tag; modifying it while other threads use it requires external locking.
+     *
+     * @param bytes  the byte array to read from
+     * @param offset the index of the first byte of the tag
+     * @param length the number of bytes available for the tag
+     * @return the CompoundTag, or null if the region is empty
+     * @throws IOException if an I/O error occurs or the root tag is not a CompoundTag
+     */
+    @Nullable
+    public static CompoundTag fromBytesLazily(byte @NotNull [] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return null;
+        }
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (bytes[offset] != Tag.TAG_COMPOUND_ID) {
+            throw new IOException("Root tag must be CompoundTag");
+        }
+        NBTMetrics metrics = NBT.metrics;
+        NBTReadEvent event = new NBTReadEvent();
+        if (metrics == null && !event.isEnabled()) {
+            return new CompoundTag(LazyTagMap.index(bytes, offset + 1, length - 1, 0));
+        }
+        event.begin();
+        long startTime = metrics == null ? 0 : System.nanoTime();
+        LazyTagMap map = LazyTagMap.index(bytes, offset + 1, length - 1, 0);
+        long endTime = metrics == null ? 0 : System.nanoTime();
+        event.end();
+        CompoundTag tag = new CompoundTag(map);
+        // the entries are not decoded yet, so neither tag counts nor a depth are reported
+        if (metrics != null) {
+            NBTMetrics.record(metrics, NBTMetrics.Operation.READ, map.end() - offset, endTime - startTime, tag);
+        }
+        if (event.shouldCommit()) {
+            event.bytes = map.end() - offset;
+            event.setRoot(tag);
+            event.commit();
+        }
+        return tag;
+    }
+
+    /**
+     * Reads a CompoundTag from the remaining bytes of a buffer.
+     * On success the buffer's position is advanced past the bytes consumed.
+     *
+     * @param buffer the buffer to read from
+     * @return the CompoundTag, or null if the buffer has no remaining bytes
+     * @throws IOException if an I/O error occurs
+     */
+    @Nullable
+    public static CompoundTag fromBuffer(@NotNull ByteBuffer buffer) throws IOException {
+        if (!buffer.hasRemaining()) {
+            return null;
+        }
+        CompoundTag tag;
+        int consumed;
+        if (buffer.hasArray()) {
+            ByteArrayDataInput input = new ByteArrayDataInput(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            tag = readCompound(input, false);
+            consumed = input.position();
+        } else {
+            ByteBufferDataInput input = new ByteBufferDataInput(buffer);
+            tag = readCompound(input, false);
+            consumed = input.position();
+        }
+        buffer.position(buffer.position() + consumed);
+        return tag;
     }
 
     /**
@@ -209,11 +624,7 @@ public class NBT {
      * @throws IOException if an I/O error occurs
      */
     public static byte @NotNull [] toBytes(@NotNull CompoundTag nbt) throws IOException {
-        try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-             DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream)) {
-            writeCompound(nbt, dataOutputStream, false);
-            return byteArrayOutputStream.toByteArray();
-        }
+        return toBytes(nbt, false);
     }
 
     /**
@@ -224,10 +635,76 @@ public class NBT {
      * @throws IOException if an I/O error occurs
      */
     public static byte @NotNull [] toBytes(@NotNull Tag nbt, boolean named) throws IOException {
-        try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-             DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream)) {
-            writeUnnamedTag(nbt, dataOutputStream, named);
-            return byteArrayOutputStream.toByteArray();
+        byte[] bytes = new byte[sizeInBytes(nbt, named)];
+        ByteArrayDataOutput output = new ByteArrayDataOutput(bytes);
+        writeUnnamedTag(nbt, output, named);
+        if (output.remaining() != 0) {
+            throw new IllegalStateException("Tag wrote " + output.position() + " bytes but reported " + bytes.length);
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes a tag directly into the remaining space of a buffer, heap or direct, without intermediate copies.
+     * <p>
+     * If the tag fits, the buffer's position is advanced past the written bytes. Otherwise a
+     * {@link BufferOverflowException} is thrown and the position is left unchanged, although bytes
+     * between the position and the limit may have been overwritten. Callers that grow their buffers
+     * can size them up front with {@link #sizeInBytes(Tag, boolean)}.
+     *
+     * @param nbt    the tag to write
+     * @param buffer the buffer to write into
+     * @param named  whether to write the tag with an empty name
+     * @return the number of bytes written
+     * @throws IOException             if an I/O error occurs
+     * @throws BufferOverflowException if the remaining space is too small for the tag
+     */
+    public static int toBuffer(@NotNull Tag nbt, @NotNull ByteBuffer buffer, boolean named) throws IOException {
+        ByteBufferDataOutput output = new ByteBufferDataOutput(buffer);
+        writeUnnamedTag(nbt, output, named);
+        int written = output.position();
+        buffer.position(buffer.position() + written);
+        return written;
+    }
+
+    /**
+     * Computes the number of bytes {@link #writeUnnamedTag(Tag, DataOutput, boolean)} produces for a tag,
+     * including its type id and, if named, its empty name.
+     *
+     * @param nbt   the tag to measure
+     * @param named whether the tag is written with a name
+     * @return the serialized size in bytes
+     */
+    public static int sizeInBytes(@NotNull Tag nbt, boolean named) {
+        if (nbt.getId() == Tag.TAG_END_ID) {
+            return 1;
+        }
+        return 1 + (named ? 2 : 0) + nbt.sizeInBytes();
+    }
+
+    /**
+     * Returns the read position of the in-memory inputs, or -1 for other inputs.
+     */
+    private static int position(DataInput input) {
+        if (input instanceof ByteArrayDataInput arrayInput) {
+            return arrayInput.position();
+        }
+        if (input instanceof ByteBufferDataInput bufferInput) {
+            return bufferInput.position();
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the write position of the in-memory outputs, or -1 for other outputs.
+     */
+    private static int position(DataOutput output) {
+        if (output instanceof ByteArrayDataOutput arrayOutput) {
+            return arrayOutput.position();
+        }
+        if (output instanceof ByteBufferDataOutput bufferOutput) {
+            return bufferOutput.position();
         }
+        return -1;
     }
 }
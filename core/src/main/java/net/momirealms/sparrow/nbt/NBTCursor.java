@@ -0,0 +1,323 @@
+package net.momirealms.sparrow.nbt;
+
+import net.momirealms.sparrow.nbt.io.ByteBufferDataInput;
+import net.momirealms.sparrow.nbt.util.MathUtil;
+import net.momirealms.sparrow.nbt.util.UTFUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only cursor over a serialized CompoundTag, looking values up in place without creating tags.
+ * <p>
+ * The cursor points at one compound at a time, starting at the root. {@link #enter(String)} moves it into a
+ * child compound and returns the same cursor, so lookups chain:
+ * {@code cursor.enter("components").enter("minecraft:custom_data").getInt("level")}.
+ * Each lookup scans the entries of the current compound, comparing names against the encoded key without decoding
+ * them and stepping over non-matching values with {@link TagType#skip(java.io.DataInput)}. A key that occurs more
+ * than once resolves to its last entry, as when the compound is decoded. Entering a key that is
+ * absent or not a compound leaves the cursor on a missing compound, where every lookup returns its default,
+ * until {@link #reset()} moves it back to the root.
+ * <p>
+ * The numeric getters convert between numeric types like {@link CompoundTag#getInt(String)} does.
+ * Only {@link #getString(String)} allocates. A cursor is not thread-safe, and the data must not change while it is in use.
+ */
+public final class NBTCursor {
+    private static final int MISSING = -1;
+
+    private final ByteBuffer buffer;
+    private final ByteBufferDataInput input;
+    // absolute index of the input's position 0 in the buffer
+    private final int base;
+    private final int root;
+    private int current;
+    private byte[] key = new byte[32];
+    private int keyLength;
+    private String lastKey;
+
+    private NBTCursor(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        this.base = buffer.position();
+        this.input = new ByteBufferDataInput(buffer);
+        if (this.input.readByte() != Tag.TAG_COMPOUND_ID) {
+            throw new IOException("Root tag must be CompoundTag");
+        }
+        this.root = this.input.position();
+        this.current = this.root;
+    }
+
+    /**
+     * Creates a cursor over an unnamed CompoundTag in a byte array.
+     *
+     * @param bytes the byte array to read from
+     * @return the cursor, at the root compound
+     * @throws IOException if an I/O error occurs or the root tag is not a CompoundTag
+     */
+    public static NBTCursor of(byte @NotNull [] bytes) throws IOException {
+        return new NBTCursor(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Creates a cursor over an unnamed CompoundTag in a region of a byte array.
+     *
+     * @param bytes  the byte array to read from
+     * @param offset the index of the first byte of the tag
+     * @param length the number of bytes available for the tag
+     * @return the cursor, at the root compound
+     * @throws IOException if an I/O error occurs or the root tag is not a CompoundTag
+     */
+    public static NBTCursor of(byte @NotNull [] bytes, int offset, int length) throws IOException {
+        return new NBTCursor(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    /**
+     * Creates a cursor over an unnamed CompoundTag in the remaining bytes of a buffer, heap or direct.
+     * The buffer's position is not changed.
+     *
+     * @param buffer the buffer to read from
+     * @return the cursor, at the root compound
+     * @throws IOException if an I/O error occurs or the root tag is not a CompoundTag
+     */
+    public static NBTCursor of(@NotNull ByteBuffer buffer) throws IOException {
+        return new NBTCursor(buffer);
+    }
+
+    /**
+     * Moves the cursor back to the root compound.
+     *
+     * @return this cursor
+     */
+    public NBTCursor reset() {
+        this.current = this.root;
+        return this;
+    }
+
+    /**
+     * Checks whether the cursor points at an existing compound.
+     *
+     * @return false if an {@link #enter(String)} on the way here found no compound
+     */
+    public boolean exists() {
+        return this.current != MISSING;
+    }
+
+    /**
+     * Moves the cursor into the compound stored under a key of the current compound.
+     *
+     * @param key the key of the child compound
+     * @return this cursor, on a missing compound if there is no compound under the key
+     * @throws IOException if an I/O error occurs
+     */
+    public NBTCursor enter(@NotNull String key) throws IOException {
+        this.current = this.find(key) == Tag.TAG_COMPOUND_ID ? this.input.position() : MISSING;
+        return this;
+    }
+
+    /**
+     * Moves the cursor into a compound element of the list stored under a key of the current compound.
+     *
+     * @param key   the key of the list
+     * @param index the index of the element
+     * @return this cursor, on a missing compound if there is no such compound element
+     * @throws IOException if an I/O error occurs
+     */
+    public NBTCursor enter(@NotNull String key, int index) throws IOException {
+        int element = MISSING;
+        if (this.find(key) == Tag.TAG_LIST_ID) {
+            byte elementType = this.input.readByte();
+            int length = this.input.readInt();
+            if (elementType == Tag.TAG_COMPOUND_ID && index >= 0 && index < length) {
+                TagTypes.COMPOUND.skip(this.input, index);
+                element = this.input.position();
+            }
+        }
+        this.current = element;
+        return this;
+    }
+
+    /**
+     * Checks whether the current compound contains a key.
+     *
+     * @param key the key to look up
+     * @return true if the key is present
+     * @throws IOException if an I/O error occurs
+     */
+    public boolean contains(@NotNull String key) throws IOException {
+        return this.find(key) != Tag.TAG_END_ID;
+    }
+
+    /**
+     * Returns the type id of the value under a key of the current compound.
+     *
+     * @param key the key to look up
+     * @return the type id, or 0 if the key is absent
+     * @throws IOException if an I/O error occurs
+     */
+    public byte getTagType(@NotNull String key) throws IOException {
+        return this.find(key);
+    }
+
+    public boolean getBoolean(@NotNull String key) throws IOException {
+        return this.getBoolean(key, false);
+    }
+
+    public boolean getBoolean(@NotNull String key, boolean defaultValue) throws IOException {
+        return this.getByte(key, (byte) (defaultValue ? 1 : 0)) != 0;
+    }
+
+    public byte getByte(@NotNull String key) throws IOException {
+        return this.getByte(key, (byte) 0);
+    }
+
+    public byte getByte(@NotNull String key, byte defaultValue) throws IOException {
+        byte typeId = this.find(key);
+        return Tag.isNumericTag(typeId) ? (byte) this.readInt(typeId) : defaultValue;
+    }
+
+    public short getShort(@NotNull String key) throws IOException {
+        return this.getShort(key, (short) 0);
+    }
+
+    public short getShort(@NotNull String key, short defaultValue) throws IOException {
+        byte typeId = this.find(key);
+        return Tag.isNumericTag(typeId) ? (short) this.readInt(typeId) : defaultValue;
+    }
+
+    public int getInt(@NotNull String key) throws IOException {
+        return this.getInt(key, 0);
+    }
+
+    public int getInt(@NotNull String key, int defaultValue) throws IOException {
+        byte typeId = this.find(key);
+        return Tag.isNumericTag(typeId) ? this.readInt(typeId) : defaultValue;
+    }
+
+    public long getLong(@NotNull String key) throws IOException {
+        return this.getLong(key, 0L);
+    }
+
+    public long getLong(@NotNull String key, long defaultValue) throws IOException {
+        byte typeId = this.find(key);
+        if (!Tag.isNumericTag(typeId)) {
+            return defaultValue;
+        }
+        return switch (typeId) {
+            case Tag.TAG_LONG_ID -> this.input.readLong();
+            case Tag.TAG_FLOAT_ID -> (long) this.input.readFloat();
+            case Tag.TAG_DOUBLE_ID -> (long) Math.floor(this.input.readDouble());
+            default -> this.readInt(typeId);
+        };
+    }
+
+    public float getFloat(@NotNull String key) throws IOException {
+        return this.getFloat(key, 0f);
+    }
+
+    public float getFloat(@NotNull String key, float defaultValue) throws IOException {
+        byte typeId = this.find(key);
+        if (!Tag.isNumericTag(typeId)) {
+            return defaultValue;
+        }
+        return typeId == Tag.TAG_LONG_ID ? (float) this.input.readLong() : (float) this.readDouble(typeId);
+    }
+
+    public double getDouble(@NotNull String key) throws IOException {
+        return this.getDouble(key, 0d);
+    }
+
+    public double getDouble(@NotNull String key, double defaultValue) throws IOException {
+        byte typeId = this.find(key);
+        return Tag.isNumericTag(typeId) ? this.readDouble(typeId) : defaultValue;
+    }
+
+    public String getString(@NotNull String key) throws IOException {
+        return this.getString(key, null);
+    }
+
+    public String getString(@NotNull String key, String defaultValue) throws IOException {
+        return this.find(key) == Tag.TAG_STRING_ID ? UTFUtil.readUTF(this.input) : defaultValue;
+    }
+
+    private int readInt(byte typeId) throws IOException {
+        return switch (typeId) {
+            case Tag.TAG_BYTE_ID -> this.input.readByte();
+            case Tag.TAG_SHORT_ID -> this.input.readShort();
+            case Tag.TAG_INT_ID -> this.input.readInt();
+            case Tag.TAG_LONG_ID -> (int) this.input.readLong();
+            case Tag.TAG_FLOAT_ID -> MathUtil.fastFloor(this.input.readFloat());
+            default -> MathUtil.fastFloor(this.input.readDouble());
+        };
+    }
+
+    private double readDouble(byte typeId) throws IOException {
+        return switch (typeId) {
+            case Tag.TAG_BYTE_ID -> this.input.readByte();
+            case Tag.TAG_SHORT_ID -> this.input.readShort();
+            case Tag.TAG_INT_ID -> this.input.readInt();
+            case Tag.TAG_LONG_ID -> (double) this.input.readLong();
+            case Tag.TAG_FLOAT_ID -> this.input.readFloat();
+            default -> this.input.readDouble();
+        };
+    }
+
+    /**
+     * Scans the current compound for a key, leaving the input at the start of its value if found.
+     * The whole compound is scanned: when a key occurs more than once, the last entry wins, as it does when the
+     * compound is decoded.
+     *
+     * @return the type id of the value, or 0 if the key is absent
+     */
+    private byte find(String key) throws IOException {
+        if (this.current == MISSING) {
+            return Tag.TAG_END_ID;
+        }
+        this.encode(key);
+        ByteBufferDataInput input = this.input;
+        input.seek(this.current);
+        byte found = Tag.TAG_END_ID;
+        int foundPosition = 0;
+        byte typeId;
+        while ((typeId = input.readByte()) != Tag.TAG_END_ID) {
+            int nameLength = input.readUnsignedShort();
+            if (nameLength > input.remaining()) {
+                throw new EOFException("Tried to read " + nameLength + " bytes with only " + input.remaining() + " remaining");
+            }
+            boolean matches = nameLength == this.keyLength && this.matches(this.base + input.position());
+            input.skipBytes(nameLength);
+            if (matches) {
+                found = typeId;
+                foundPosition = input.position();
+            }
+            TagTypes.typeById(typeId).skip(input);
+        }
+        if (found != Tag.TAG_END_ID) {
+            input.seek(foundPosition);
+        }
+        return found;
+    }
+
+    private boolean matches(int index) {
+        byte[] key = this.key;
+        for (int i = 0; i < this.keyLength; i++) {
+            if (this.buffer.get(index + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void encode(String key) {
+        if (key == this.lastKey) {
+            return;
+        }
+        int length = UTFUtil.utfLength(key);
+        if (length > this.key.length) {
+            this.key = new byte[length];
+        }
+        UTFUtil.encode(key, length, this.key, 0);
+        this.keyLength = length;
+        this.lastKey = key;
+    }
+}
@@ -0,0 +1,229 @@
+package net.momirealms.sparrow.nbt;
+
+import net.momirealms.sparrow.nbt.io.ByteArrayDataInput;
+import net.momirealms.sparrow.nbt.visitor.CollectToTagVisitor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A set of NBT paths that compounds are decoded through, keeping only the selected subtrees.
+ * <p>
+ * Paths are dot separated compound keys, where a key followed by {@code []} steps into every element of a list,
+ * e.g. {@code Pos}, {@code Data.Level} or {@code Inventory[].id}. A path selects the whole tag it ends at.
+ * Everything off the selected paths is stepped over with {@link TagType#skip(DataInput)} instead of being decoded,
+ * and once every key selected in a compound has been seen, the rest of that compound is skipped without looking
+ * at the remaining names.
+ * <p>
+ * The result is a sparse copy of the input: compounds and lists on a selected path are kept even when nothing
+ * beneath them matched, so list elements keep their indices. A projection holds no state between reads and can
+ * be shared across threads.
+ */
+public final class NBTProjection {
+
+    private final Node root = new Node();
+
+    private NBTProjection(Collection<String> paths) {
+        for (String path : paths) {
+            Node node = this.root;
+            for (String segment : path.split("\\.", -1)) {
+                int lists = 0;
+                while (segment.endsWith("[]")) {
+                    segment = segment.substring(0, segment.length() - 2);
+                    lists++;
+                }
+                if (segment.isEmpty()) {
+                    throw new IllegalArgumentException("Empty key in NBT path: " + path);
+                }
+                node = node.children.computeIfAbsent(segment, k -> new Node());
+                for (int i = 0; i < lists; i++) {
+                    if (node.elements == null) {
+                        node.elements = new Node();
+                    }
+                    node = node.elements;
+                }
+            }
+            node.whole = true;
+        }
+    }
+
+    /**
+     * Creates a projection selecting the given paths.
+     *
+     * @param paths the paths to keep
+     * @return the projection
+     * @throws IllegalArgumentException if a path contains an empty key
+     */
+    public static NBTProjection of(String... paths) {
+        return new NBTProjection(Arrays.asList(paths));
+    }
+
+    /**
+     * Creates a projection selecting the given paths.
+     *
+     * @param paths the paths to keep
+     * @return the projection
+     * @throws IllegalArgumentException if a path contains an empty key
+     */
+    public static NBTProjection of(Collection<String> paths) {
+        return new NBTProjection(paths);
+    }
+
+    /**
+     * Reads a(n) (un)named CompoundTag from a DataInput stream, keeping only the selected paths.
+     * The whole root tag is consumed from the input, even when it turns out not to be a CompoundTag.
+     *
+     * @param input the input stream to read from
+     * @param named whether the root tag carries a name
+     * @return a sparse CompoundTag with the selected paths
+     * @throws IOException if an I/O error occurs or the root tag is not a CompoundTag
+     */
+    public CompoundTag read(DataInput input, boolean named) throws IOException {
+        ProjectingVisitor visitor = new ProjectingVisitor(this.root);
+        NBT.parse(input, visitor, named);
+        if (visitor.getResult() instanceof CompoundTag compound) {
+            return compound;
+        } else {
+            throw new IOException("Root tag must be CompoundTag");
+        }
+    }
+
+    /**
+     * Reads an unnamed CompoundTag from a byte array, keeping only the selected paths.
+     *
+     * @param bytes the byte array to read from
+     * @return a sparse CompoundTag with the selected paths
+     * @throws IOException if an I/O error occurs or the root tag is not a CompoundTag
+     */
+    public CompoundTag read(byte @NotNull [] bytes) throws IOException {
+        return this.read(new ByteArrayDataInput(bytes), false);
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>(4);
+        private Node elements;
+        private boolean whole;
+
+        private boolean selects(TagType<?> type) {
+            if (this.whole) {
+                return true;
+            } else if (type == TagTypes.COMPOUND) {
+                return !this.children.isEmpty();
+            } else if (type == TagTypes.LIST) {
+                return this.elements != null;
+            } else {
+                return false;
+            }
+        }
+    }
+
+    private static final class Frame {
+        private final Node node;
+        private int unseen;
+
+        private Frame(Node node, boolean compound) {
+            this.node = node;
+            // lists are never cut short, every element has to be looked at
+            this.unseen = compound ? node.children.size() : -1;
+        }
+    }
+
+    private static final class ProjectingVisitor extends CollectToTagVisitor {
+        private final Deque<Frame> frames = new ArrayDeque<>();
+        // containers open inside a wholly selected tag, which are collected without looking at the paths
+        private int wholeDepth;
+
+        private ProjectingVisitor(Node root) {
+            this.frames.push(new Frame(root, true));
+        }
+
+        private boolean insideWhole(TagType<?> type) {
+            if (this.wholeDepth == 0) {
+                return false;
+            }
+            if (type == TagTypes.COMPOUND || type == TagTypes.LIST) {
+                this.wholeDepth++;
+            }
+            return true;
+        }
+
+        private void enter(TagType<?> type, Node node) {
+            if (node.whole) {
+                if (type == TagTypes.COMPOUND || type == TagTypes.LIST) {
+                    this.wholeDepth++;
+                }
+            } else {
+                this.frames.push(new Frame(node, type == TagTypes.COMPOUND));
+            }
+        }
+
+        @Override
+        public ValueResult visitRootEntry(TagType<?> type) {
+            if (type != TagTypes.COMPOUND) {
+                // step over the whole tag so the input is left after it, as for a compound
+                return ValueResult.BREAK;
+            }
+            return super.visitRootEntry(type);
+        }
+
+        @Override
+        public EntryResult visitEntry(TagType<?> type, String name) {
+            if (this.insideWhole(type)) {
+                return super.visitEntry(type, name);
+            }
+            Frame frame = this.frames.element();
+            Node child = frame.node.children.get(name);
+            if (child == null) {
+                return EntryResult.SKIP;
+            }
+            frame.unseen--;
+            if (!child.selects(type)) {
+                return frame.unseen == 0 ? EntryResult.BREAK : EntryResult.SKIP;
+            }
+            this.enter(type, child);
+            return super.visitEntry(type, name);
+        }
+
+        @Override
+        public EntryResult visitElement(TagType<?> type, int index) {
+            if (this.insideWhole(type)) {
+                return super.visitElement(type, index);
+            }
+            Node elements = this.frames.element().node.elements;
+            if (!elements.selects(type)) {
+                return EntryResult.SKIP;
+            }
+            this.enter(type, elements);
+            return super.visitElement(type, index);
+        }
+
+        @Override
+        public ValueResult visitContainerEnd() {
+            if (this.wholeDepth > 0) {
+                this.wholeDepth--;
+            } else {
+                this.frames.pop();
+            }
+            return super.visitContainerEnd();
+        }
+
+        @Override
+        protected ValueResult append(Tag tag) {
+            super.append(tag);
+            if (this.wholeDepth == 0) {
+                Frame frame = this.frames.peek();
+                if (frame != null && frame.unseen == 0) {
+                    return ValueResult.BREAK;
+                }
+            }
+            return ValueResult.CONTINUE;
+        }
+    }
+}
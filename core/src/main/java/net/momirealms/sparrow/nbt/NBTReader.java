@@ -0,0 +1,506 @@
+package net.momirealms.sparrow.nbt;
+
+import net.momirealms.sparrow.nbt.util.ArrayIOUtil;
+import net.momirealms.sparrow.nbt.util.MathUtil;
+import net.momirealms.sparrow.nbt.util.UTFUtil;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A pull parser over binary NBT, reporting the structure of a tag as a sequence of events instead of building it.
+ * <p>
+ * Each call to {@link #next()} advances to the next event. Compounds report {@link Event#START_COMPOUND}, then a
+ * {@link Event#NAME} followed by the value's event for every entry, then {@link Event#END}. Lists report
+ * {@link Event#START_LIST}, with {@link #listElementType()} and {@link #listLength()} available, then one value
+ * event per element and finally {@link Event#END}. Values of all other types report {@link Event#VALUE}.
+ * Events mirror the binary layout, so elements of mixed lists appear inside their {@code {"": value}} wrapper compounds.
+ * <p>
+ * Values are read lazily: the accessors such as {@link #intValue()} or {@link #stringValue()} decode the current
+ * value, and moving on without calling one jumps over its bytes with {@link TagType#skip(DataInput)}.
+ * {@link #skip()} does the same for a whole entry or container, and {@link #readTag()} materializes just the
+ * current subtree. Apart from the values actually requested, memory use does not depend on the input size.
+ * <pre>{@code
+ * NBTReader reader = new NBTReader(new ByteArrayDataInput(bytes), false);
+ * reader.next(); // START_COMPOUND
+ * while (reader.next() == NBTReader.Event.NAME) {
+ *     if (reader.name().equals("DataVersion")) {
+ *         reader.next();
+ *         return reader.intValue();
+ *     }
+ *     reader.skip();
+ * }
+ * }</pre>
+ */
+public final class NBTReader {
+
+    /**
+     * The kinds of events reported by the reader.
+     */
+    public enum Event {
+        /**
+         * The start of a compound, whose entries follow.
+         */
+        START_COMPOUND,
+        /**
+         * The name of a compound entry, whose value follows.
+         */
+        NAME,
+        /**
+         * A value that is neither a compound nor a list.
+         */
+        VALUE,
+        /**
+         * The start of a list, whose elements follow.
+         */
+        START_LIST,
+        /**
+         * The end of the innermost open compound or list.
+         */
+        END,
+        /**
+         * The end of the root tag. No more events follow.
+         */
+        END_DOCUMENT
+    }
+
+    private static final int MAX_DEPTH = 512;
+    private static final byte COMPOUND_FRAME = -1;
+
+    private final DataInput input;
+    private final boolean named;
+    // per open container: COMPOUND_FRAME, or the element type of a list
+    private byte[] frameTypes = new byte[16];
+    // per open list: the number of elements not yet reported
+    private int[] remaining = new int[16];
+    private int depth;
+    private boolean started;
+
+    private Event event;
+    private byte type;
+    private String name;
+    private int listLength;
+    private boolean pendingValue;
+    private boolean hasValue;
+    private long primitive;
+    private Object reference;
+
+    /**
+     * Creates a reader positioned before the root tag.
+     * For in-memory data, pass a {@link net.momirealms.sparrow.nbt.io.ByteArrayDataInput} or
+     * {@link net.momirealms.sparrow.nbt.io.ByteBufferDataInput}, whose skips are constant time.
+     *
+     * @param input the input to read from
+     * @param named whether the root tag is stored with a name
+     */
+    public NBTReader(DataInput input, boolean named) {
+        this.input = input;
+        this.named = named;
+    }
+
+    /**
+     * Advances to the next event, skipping whatever is left of the current value.
+     *
+     * @return the new current event
+     * @throws IOException if an I/O error occurs
+     */
+    public Event next() throws IOException {
+        if (this.event == Event.END_DOCUMENT) {
+            throw new IllegalStateException("No more events after END_DOCUMENT");
+        }
+        if (this.pendingValue) {
+            TagTypes.typeById(this.type).skip(this.input);
+            this.pendingValue = false;
+        }
+        this.hasValue = false;
+        this.reference = null;
+        if (this.event == Event.NAME) {
+            return enter(this.type);
+        }
+        if (!this.started) {
+            this.started = true;
+            byte rootType = this.input.readByte();
+            if (rootType == Tag.TAG_END_ID) {
+                return this.event = Event.END_DOCUMENT;
+            }
+            this.name = this.named ? UTFUtil.readUTF(this.input) : "";
+            return enter(rootType);
+        }
+        if (this.depth == 0) {
+            return this.event = Event.END_DOCUMENT;
+        }
+        byte frame = this.frameTypes[this.depth - 1];
+        if (frame == COMPOUND_FRAME) {
+            byte entryType = this.input.readByte();
+            if (entryType == Tag.TAG_END_ID) {
+                return end(Tag.TAG_COMPOUND_ID);
+            }
+            this.type = entryType;
+            this.name = CompoundTag.readNamedTagName(this.input);
+            return this.event = Event.NAME;
+        }
+        if (this.remaining[this.depth - 1] == 0) {
+            return end(Tag.TAG_LIST_ID);
+        }
+        this.remaining[this.depth - 1]--;
+        this.name = null;
+        return enter(frame);
+    }
+
+    private Event enter(byte typeId) throws IOException {
+        this.type = typeId;
+        if (typeId == Tag.TAG_COMPOUND_ID) {
+            push(COMPOUND_FRAME, 0);
+            return this.event = Event.START_COMPOUND;
+        }
+        if (typeId == Tag.TAG_LIST_ID) {
+            byte elementType = this.input.readByte();
+            int length = this.input.readInt();
+            if (elementType == Tag.TAG_END_ID && length > 0) {
+                throw new RuntimeException("Missing type on ListTag");
+            }
+            this.listLength = Math.max(0, length);
+            push(elementType, this.listLength);
+            return this.event = Event.START_LIST;
+        }
+        TagTypes.typeById(typeId);
+        this.pendingValue = true;
+        return this.event = Event.VALUE;
+    }
+
+    private Event end(byte containerType) {
+        this.depth--;
+        this.type = containerType;
+        this.name = null;
+        return this.event = Event.END;
+    }
+
+    private void push(byte frameType, int count) {
+        if (this.depth >= MAX_DEPTH) {
+            throw new RuntimeException("Tried to read NBT tag with too high complexity, depth > " + MAX_DEPTH);
+        }
+        if (this.depth == this.frameTypes.length) {
+            this.frameTypes = Arrays.copyOf(this.frameTypes, this.depth * 2);
+            this.remaining = Arrays.copyOf(this.remaining, this.depth * 2);
+        }
+        this.frameTypes[this.depth] = frameType;
+        this.remaining[this.depth] = count;
+        this.depth++;
+    }
+
+    /**
+     * Skips the current entry or value without decoding it.
+     * On {@link Event#NAME} the entry's value is skipped, on {@link Event#START_COMPOUND} or
+     * {@link Event#START_LIST} the rest of the container is skipped, including its {@link Event#END}.
+     * In either case the following {@link #next()} reports what comes after.
+     *
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if the current event has nothing to skip
+     */
+    public void skip() throws IOException {
+        switch (checkStarted()) {
+            case NAME -> {
+                TagTypes.typeById(this.type).skip(this.input);
+                this.event = Event.VALUE;
+            }
+            case VALUE -> {
+                if (this.pendingValue) {
+                    TagTypes.typeById(this.type).skip(this.input);
+                    this.pendingValue = false;
+                }
+            }
+            case START_COMPOUND -> {
+                TagTypes.COMPOUND.skip(this.input);
+                closeSkipped();
+            }
+            case START_LIST -> {
+                TagTypes.typeById(this.frameTypes[this.depth - 1]).skip(this.input, this.remaining[this.depth - 1]);
+                closeSkipped();
+            }
+            default -> throw new IllegalStateException("Nothing to skip at " + this.event);
+        }
+    }
+
+    private void closeSkipped() {
+        this.depth--;
+        this.event = Event.VALUE;
+    }
+
+    /**
+     * Decodes the current value, or the value of the current entry, into a tag.
+     * On {@link Event#START_COMPOUND} or {@link Event#START_LIST} the whole container is decoded and
+     * the following {@link #next()} reports what comes after it.
+     *
+     * @return the decoded tag
+     * @throws IOException           if an I/O error occurs
+     * @throws IllegalStateException if the current event has no value
+     */
+    public Tag readTag() throws IOException {
+        switch (checkStarted()) {
+            case NAME -> {
+                Tag tag = TagTypes.typeById(this.type).read(this.input, this.depth);
+                this.event = Event.VALUE;
+                return tag;
+            }
+            case VALUE -> {
+                return switch (this.type) {
+                    case Tag.TAG_BYTE_ID -> ByteTag.valueOf(byteValue());
+                    case Tag.TAG_SHORT_ID -> ShortTag.valueOf(shortValue());
+                    case Tag.TAG_INT_ID -> IntTag.valueOf(intValue());
+                    case Tag.TAG_LONG_ID -> LongTag.valueOf(longValue());
+                    case Tag.TAG_FLOAT_ID -> new FloatTag(floatValue());
+                    case Tag.TAG_DOUBLE_ID -> new DoubleTag(doubleValue());
+                    case Tag.TAG_STRING_ID -> new StringTag(stringValue());
+                    case Tag.TAG_BYTE_ARRAY_ID -> new ByteArrayTag(byteArrayValue());
+                    case Tag.TAG_INT_ARRAY_ID -> new IntArrayTag(intArrayValue());
+                    case Tag.TAG_LONG_ARRAY_ID -> new LongArrayTag(longArrayValue());
+                    default -> throw new IllegalStateException("No value at " + this.event);
+                };
+            }
+            case START_COMPOUND -> {
+                int containerDepth = this.depth - 1;
+                Tag tag = TagTypes.COMPOUND.read(this.input, containerDepth);
+                closeSkipped();
+                return tag;
+            }
+            case START_LIST -> {
+                int containerDepth = this.depth - 1;
+                Tag tag = ListTag.readElements(this.input, this.frameTypes[containerDepth], this.remaining[containerDepth], containerDepth);
+                closeSkipped();
+                return tag;
+            }
+            default -> throw new IllegalStateException("No value at " + this.event);
+        }
+    }
+
+    private Event checkStarted() {
+        if (this.event == null) {
+            throw new IllegalStateException("next() has not been called yet");
+        }
+        return this.event;
+    }
+
+    /**
+     * Returns the current event.
+     *
+     * @return the current event, or null before the first call to {@link #next()}
+     */
+    public Event event() {
+        return this.event;
+    }
+
+    /**
+     * Returns the type id of the current value, entry or container.
+     * On {@link Event#NAME} this is the type of the entry's value, on {@link Event#END} the type of the closed container.
+     *
+     * @return the tag type id
+     */
+    public byte tagType() {
+        return this.type;
+    }
+
+    /**
+     * Returns the name of the current compound entry. It stays available while the entry's value is read,
+     * and is the root name, or empty, for the root tag.
+     *
+     * @return the entry name, or null for list elements
+     */
+    public String name() {
+        return this.name;
+    }
+
+    /**
+     * Returns the number of containers the reader is currently inside, including the one just started.
+     *
+     * @return the nesting depth
+     */
+    public int depth() {
+        return this.depth;
+    }
+
+    /**
+     * Returns the element type of the list just started.
+     *
+     * @return the element type id
+     */
+    public byte listElementType() {
+        checkEvent(Event.START_LIST);
+        return this.frameTypes[this.depth - 1];
+    }
+
+    /**
+     * Returns the length of the list just started.
+     *
+     * @return the number of elements
+     */
+    public int listLength() {
+        checkEvent(Event.START_LIST);
+        return this.listLength;
+    }
+
+    /**
+     * Returns the current value as a byte, converting from other numeric types like {@link NumericTag#getAsByte()}.
+     *
+     * @return the value
+     * @throws IOException if an I/O error occurs
+     */
+    public byte byteValue() throws IOException {
+        return (byte) intValue();
+    }
+
+    /**
+     * Returns the current value as a short, converting from other numeric types like {@link NumericTag#getAsShort()}.
+     *
+     * @return the value
+     * @throws IOException if an I/O error occurs
+     */
+    public short shortValue() throws IOException {
+        return (short) intValue();
+    }
+
+    /**
+     * Returns the current value as an int, converting from other numeric types like {@link NumericTag#getAsInt()}.
+     *
+     * @return the value
+     * @throws IOException if an I/O error occurs
+     */
+    public int intValue() throws IOException {
+        readPrimitive();
+        return switch (this.type) {
+            case Tag.TAG_FLOAT_ID -> MathUtil.fastFloor(Float.intBitsToFloat((int) this.primitive));
+            case Tag.TAG_DOUBLE_ID -> MathUtil.fastFloor(Double.longBitsToDouble(this.primitive));
+            default -> (int) this.primitive;
+        };
+    }
+
+    /**
+     * Returns the current value as a long, converting from other numeric types like {@link NumericTag#getAsLong()}.
+     *
+     * @return the value
+     * @throws IOException if an I/O error occurs
+     */
+    public long longValue() throws IOException {
+        readPrimitive();
+        return switch (this.type) {
+            case Tag.TAG_FLOAT_ID -> (long) Float.intBitsToFloat((int) this.primitive);
+            case Tag.TAG_DOUBLE_ID -> (long) Math.floor(Double.longBitsToDouble(this.primitive));
+            default -> this.primitive;
+        };
+    }
+
+    /**
+     * Returns the current value as a float, converting from other numeric types like {@link NumericTag#getAsFloat()}.
+     *
+     * @return the value
+     * @throws IOException if an I/O error occurs
+     */
+    public float floatValue() throws IOException {
+        readPrimitive();
+        return switch (this.type) {
+            case Tag.TAG_FLOAT_ID -> Float.intBitsToFloat((int) this.primitive);
+            case Tag.TAG_DOUBLE_ID -> (float) Double.longBitsToDouble(this.primitive);
+            default -> (float) this.primitive;
+        };
+    }
+
+    /**
+     * Returns the current value as a double, converting from other numeric types like {@link NumericTag#getAsDouble()}.
+     *
+     * @return the value
+     * @throws IOException if an I/O error occurs
+     */
+    public double doubleValue() throws IOException {
+        readPrimitive();
+        return switch (this.type) {
+            case Tag.TAG_FLOAT_ID -> Float.intBitsToFloat((int) this.primitive);
+            case Tag.TAG_DOUBLE_ID -> Double.longBitsToDouble(this.primitive);
+            default -> (double) this.primitive;
+        };
+    }
+
+    /**
+     * Returns the current string value.
+     *
+     * @return the value
+     * @throws IOException if an I/O error occurs
+     */
+    public String stringValue() throws IOException {
+        return (String) readReference(Tag.TAG_STRING_ID);
+    }
+
+    /**
+     * Returns the current byte array value.
+     *
+     * @return the value
+     * @throws IOException if an I/O error occurs
+     */
+    public byte[] byteArrayValue() throws IOException {
+        return (byte[]) readReference(Tag.TAG_BYTE_ARRAY_ID);
+    }
+
+    /**
+     * Returns the current int array value.
+     *
+     * @return the value
+     * @throws IOException if an I/O error occurs
+     */
+    public int[] intArrayValue() throws IOException {
+        return (int[]) readReference(Tag.TAG_INT_ARRAY_ID);
+    }
+
+    /**
+     * Returns the current long array value.
+     *
+     * @return the value
+     * @throws IOException if an I/O error occurs
+     */
+    public long[] longArrayValue() throws IOException {
+        return (long[]) readReference(Tag.TAG_LONG_ARRAY_ID);
+    }
+
+    private void readPrimitive() throws IOException {
+        checkEvent(Event.VALUE);
+        if (!Tag.isNumericTag(this.type)) {
+            throw new IllegalStateException("Current value is a " + TagTypes.typeById(this.type).name() + ", not a number");
+        }
+        if (this.pendingValue) {
+            this.primitive = switch (this.type) {
+                case Tag.TAG_BYTE_ID -> this.input.readByte();
+                case Tag.TAG_SHORT_ID -> this.input.readShort();
+                case Tag.TAG_INT_ID, Tag.TAG_FLOAT_ID -> this.input.readInt();
+                default -> this.input.readLong();
+            };
+            this.pendingValue = false;
+            this.hasValue = true;
+        } else if (!this.hasValue) {
+            throw new IllegalStateException("Value was already skipped");
+        }
+    }
+
+    private Object readReference(byte expectedType) throws IOException {
+        checkEvent(Event.VALUE);
+        if (this.type != expectedType) {
+            throw new IllegalStateException("Current value is a " + TagTypes.typeById(this.type).name() + ", not a " + TagTypes.typeById(expectedType).name());
+        }
+        if (this.pendingValue) {
+            this.reference = switch (expectedType) {
+                case Tag.TAG_STRING_ID -> UTFUtil.readUTF(this.input);
+                case Tag.TAG_BYTE_ARRAY_ID -> ArrayIOUtil.readByteArray(this.input, this.input.readInt());
+                case Tag.TAG_INT_ARRAY_ID -> ArrayIOUtil.readIntArray(this.input, this.input.readInt());
+                default -> ArrayIOUtil.readLongArray(this.input, this.input.readInt());
+            };
+            this.pendingValue = false;
+            this.hasValue = true;
+        } else if (!this.hasValue) {
+            throw new IllegalStateException("Value was already skipped");
+        }
+        return this.reference;
+    }
+
+    private void checkEvent(Event expected) {
+        if (this.event != expected) {
+            throw new IllegalStateException("Expected " + expected + " but the current event is " + this.event);
+        }
+    }
+}
@@ -0,0 +1,599 @@
+package net.momirealms.sparrow.nbt;
+
+import net.momirealms.sparrow.nbt.util.ArrayIOUtil;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Backing storage of a {@link ListTag} whose elements are all of one numeric type.
+ * Values are kept in a primitive array and only boxed into tags when read through {@link #get(int)}.
+ * Storing a tag of any other type is rejected; {@link ListTag} switches to a regular list before that happens.
+ */
+abstract class PrimitiveTagList extends AbstractList<Tag> implements RandomAccess {
+    private static final int DEFAULT_CAPACITY = 10;
+
+    protected int size;
+
+    PrimitiveTagList(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Reads {@code length} values of a numeric type into a new primitive list.
+     *
+     * @param typeId the numeric element type
+     * @param input  the input to read from
+     * @param length the number of values
+     * @return the list holding the values
+     * @throws IOException if an I/O error occurs or the input holds fewer values than declared
+     */
+    static PrimitiveTagList read(byte typeId, DataInput input, int length) throws IOException {
+        switch (typeId) {
+            case Tag.TAG_BYTE_ID -> {
+                return new Bytes(ArrayIOUtil.readByteArray(input, length), length);
+            }
+            case Tag.TAG_SHORT_ID -> {
+                return new Shorts(ArrayIOUtil.readShortArray(input, length), length);
+            }
+            case Tag.TAG_INT_ID -> {
+                return new Ints(ArrayIOUtil.readIntArray(input, length), length);
+            }
+            case Tag.TAG_LONG_ID -> {
+                return new Longs(ArrayIOUtil.readLongArray(input, length), length);
+            }
+            case Tag.TAG_FLOAT_ID -> {
+                return new Floats(ArrayIOUtil.readFloatArray(input, length), length);
+            }
+            case Tag.TAG_DOUBLE_ID -> {
+                return new Doubles(ArrayIOUtil.readDoubleArray(input, length), length);
+            }
+            default -> throw new IllegalArgumentException("Not a numeric tag type: " + typeId);
+        }
+    }
+
+    /**
+     * Returns the id of the tag type held by this list.
+     *
+     * @return the element type id
+     */
+    abstract byte elementType();
+
+    /**
+     * Returns the size in bytes of one serialized element.
+     *
+     * @return the element size
+     */
+    abstract int elementSize();
+
+    /**
+     * Writes all values, without the list header.
+     *
+     * @param output the output to write to
+     * @throws IOException if an I/O error occurs
+     */
+    abstract void writeElements(DataOutput output) throws IOException;
+
+    /**
+     * Creates an independent copy of this list.
+     *
+     * @return the copy
+     */
+    abstract PrimitiveTagList copy();
+
+    abstract Object array();
+
+    abstract void resize(int capacity);
+
+    abstract void store(int index, Tag tag);
+
+    /**
+     * Checks whether a tag can be stored in this list without changing its representation.
+     *
+     * @param tag the tag to check
+     * @return true if the tag has this list's element type
+     */
+    boolean accepts(Tag tag) {
+        return tag.getId() == elementType();
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Tag set(int index, Tag tag) {
+        Objects.checkIndex(index, this.size);
+        Tag previous = get(index);
+        store(index, checkType(tag));
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Tag tag) {
+        Objects.checkIndex(index, this.size + 1);
+        checkType(tag);
+        int capacity = Array.getLength(array());
+        if (this.size == capacity) {
+            resize(Math.max(DEFAULT_CAPACITY, capacity + (capacity >> 1)));
+        }
+        Object array = array();
+        System.arraycopy(array, index, array, index + 1, this.size - index);
+        store(index, tag);
+        this.size++;
+        this.modCount++;
+    }
+
+    @Override
+    public Tag remove(int index) {
+        Objects.checkIndex(index, this.size);
+        Tag previous = get(index);
+        Object array = array();
+        System.arraycopy(array, index + 1, array, index, this.size - index - 1);
+        this.size--;
+        this.modCount++;
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        this.size = 0;
+        this.modCount++;
+    }
+
+    private Tag checkType(Tag tag) {
+        if (!accepts(tag)) {
+            throw new IllegalArgumentException("Cannot store " + tag.getType().name() + " in a list of " + TagTypes.typeById(elementType()).name());
+        }
+        return tag;
+    }
+
+    static final class Bytes extends PrimitiveTagList {
+        private byte[] values;
+
+        Bytes(byte[] values, int size) {
+            super(size);
+            this.values = values;
+        }
+
+        byte getByte(int index) {
+            Objects.checkIndex(index, this.size);
+            return this.values[index];
+        }
+
+        @Override
+        public Tag get(int index) {
+            return ByteTag.valueOf(getByte(index));
+        }
+
+        @Override
+        byte elementType() {
+            return Tag.TAG_BYTE_ID;
+        }
+
+        @Override
+        int elementSize() {
+            return 1;
+        }
+
+        @Override
+        void writeElements(DataOutput output) throws IOException {
+            output.write(this.values, 0, this.size);
+        }
+
+        @Override
+        Bytes copy() {
+            return new Bytes(Arrays.copyOf(this.values, this.size), this.size);
+        }
+
+        @Override
+        Object array() {
+            return this.values;
+        }
+
+        @Override
+        void resize(int capacity) {
+            this.values = Arrays.copyOf(this.values, capacity);
+        }
+
+        @Override
+        void store(int index, Tag tag) {
+            this.values[index] = ((NumericTag) tag).getAsByte();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof Bytes other) {
+                return Arrays.equals(this.values, 0, this.size, other.values, 0, other.size);
+            }
+            return super.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (int i = 0; i < this.size; i++) {
+                hash = 31 * hash + this.values[i];
+            }
+            return hash;
+        }
+    }
+
+    static final class Shorts extends PrimitiveTagList {
+        private short[] values;
+
+        Shorts(short[] values, int size) {
+            super(size);
+            this.values = values;
+        }
+
+        short getShort(int index) {
+            Objects.checkIndex(index, this.size);
+            return this.values[index];
+        }
+
+        @Override
+        public Tag get(int index) {
+            return ShortTag.valueOf(getShort(index));
+        }
+
+        @Override
+        byte elementType() {
+            return Tag.TAG_SHORT_ID;
+        }
+
+        @Override
+        int elementSize() {
+            return 2;
+        }
+
+        @Override
+        void writeElements(DataOutput output) throws IOException {
+            for (int i = 0; i < this.size; i++) {
+                output.writeShort(this.values[i]);
+            }
+        }
+
+        @Override
+        Shorts copy() {
+            return new Shorts(Arrays.copyOf(this.values, this.size), this.size);
+        }
+
+        @Override
+        Object array() {
+            return this.values;
+        }
+
+        @Override
+        void resize(int capacity) {
+            this.values = Arrays.copyOf(this.values, capacity);
+        }
+
+        @Override
+        void store(int index, Tag tag) {
+            this.values[index] = ((NumericTag) tag).getAsShort();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof Shorts other) {
+                return Arrays.equals(this.values, 0, this.size, other.values, 0, other.size);
+            }
+            return super.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (int i = 0; i < this.size; i++) {
+                hash = 31 * hash + this.values[i];
+            }
+            return hash;
+        }
+    }
+
+    static final class Ints extends PrimitiveTagList {
+        private int[] values;
+
+        Ints(int[] values, int size) {
+            super(size);
+            this.values = values;
+        }
+
+        int getInt(int index) {
+            Objects.checkIndex(index, this.size);
+            return this.values[index];
+        }
+
+        @Override
+        public Tag get(int index) {
+            return IntTag.valueOf(getInt(index));
+        }
+
+        @Override
+        byte elementType() {
+            return Tag.TAG_INT_ID;
+        }
+
+        @Override
+        int elementSize() {
+            return 4;
+        }
+
+        @Override
+        void writeElements(DataOutput output) throws IOException {
+            ArrayIOUtil.writeInts(output, this.values, 0, this.size);
+        }
+
+        @Override
+        Ints copy() {
+            return new Ints(Arrays.copyOf(this.values, this.size), this.size);
+        }
+
+        @Override
+        Object array() {
+            return this.values;
+        }
+
+        @Override
+        void resize(int capacity) {
+            this.values = Arrays.copyOf(this.values, capacity);
+        }
+
+        @Override
+        void store(int index, Tag tag) {
+            this.values[index] = ((NumericTag) tag).getAsInt();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof Ints other) {
+                return Arrays.equals(this.values, 0, this.size, other.values, 0, other.size);
+            }
+            return super.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (int i = 0; i < this.size; i++) {
+                hash = 31 * hash + this.values[i];
+            }
+            return hash;
+        }
+    }
+
+    static final class Longs extends PrimitiveTagList {
+        private long[] values;
+
+        Longs(long[] values, int size) {
+            super(size);
+            this.values = values;
+        }
+
+        long getLong(int index) {
+            Objects.checkIndex(index, this.size);
+            return this.values[index];
+        }
+
+        @Override
+        public Tag get(int index) {
+            return LongTag.valueOf(getLong(index));
+        }
+
+        @Override
+        byte elementType() {
+            return Tag.TAG_LONG_ID;
+        }
+
+        @Override
+        int elementSize() {
+            return 8;
+        }
+
+        @Override
+        void writeElements(DataOutput output) throws IOException {
+            ArrayIOUtil.writeLongs(output, this.values, 0, this.size);
+        }
+
+        @Override
+        Longs copy() {
+            return new Longs(Arrays.copyOf(this.values, this.size), this.size);
+        }
+
+        @Override
+        Object array() {
+            return this.values;
+        }
+
+        @Override
+        void resize(int capacity) {
+            this.values = Arrays.copyOf(this.values, capacity);
+        }
+
+        @Override
+        void store(int index, Tag tag) {
+            this.values[index] = ((NumericTag) tag).getAsLong();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof Longs other) {
+                return Arrays.equals(this.values, 0, this.size, other.values, 0, other.size);
+            }
+            return super.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (int i = 0; i < this.size; i++) {
+                hash = 31 * hash + Long.hashCode(this.values[i]);
+            }
+            return hash;
+        }
+    }
+
+    static final class Floats extends PrimitiveTagList {
+        private float[] values;
+
+        Floats(float[] values, int size) {
+            super(size);
+            this.values = values;
+        }
+
+        float getFloat(int index) {
+            Objects.checkIndex(index, this.size);
+            return this.values[index];
+        }
+
+        @Override
+        public Tag get(int index) {
+            return new FloatTag(getFloat(index));
+        }
+
+        @Override
+        byte elementType() {
+            return Tag.TAG_FLOAT_ID;
+        }
+
+        @Override
+        int elementSize() {
+            return 4;
+        }
+
+        @Override
+        void writeElements(DataOutput output) throws IOException {
+            for (int i = 0; i < this.size; i++) {
+                output.writeFloat(this.values[i]);
+            }
+        }
+
+        @Override
+        Floats copy() {
+            return new Floats(Arrays.copyOf(this.values, this.size), this.size);
+        }
+
+        @Override
+        Object array() {
+            return this.values;
+        }
+
+        @Override
+        void resize(int capacity) {
+            this.values = Arrays.copyOf(this.values, capacity);
+        }
+
+        @Override
+        void store(int index, Tag tag) {
+            this.values[index] = ((NumericTag) tag).getAsFloat();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof Floats other) {
+                // FloatTag compares with Float.compare, which is what Arrays.equals does
+                return Arrays.equals(this.values, 0, this.size, other.values, 0, other.size);
+            }
+            return super.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (int i = 0; i < this.size; i++) {
+                hash = 31 * hash + Float.hashCode(this.values[i]);
+            }
+            return hash;
+        }
+    }
+
+    static final class Doubles extends PrimitiveTagList {
+        private double[] values;
+
+        Doubles(double[] values, int size) {
+            super(size);
+            this.values = values;
+        }
+
+        double getDouble(int index) {
+            Objects.checkIndex(index, this.size);
+            return this.values[index];
+        }
+
+        @Override
+        public Tag get(int index) {
+            return new DoubleTag(getDouble(index));
+        }
+
+        @Override
+        byte elementType() {
+            return Tag.TAG_DOUBLE_ID;
+        }
+
+        @Override
+        int elementSize() {
+            return 8;
+        }
+
+        @Override
+        void writeElements(DataOutput output) throws IOException {
+            for (int i = 0; i < this.size; i++) {
+                output.writeDouble(this.values[i]);
+            }
+        }
+
+        @Override
+        Doubles copy() {
+            return new Doubles(Arrays.copyOf(this.values, this.size), this.size);
+        }
+
+        @Override
+        Object array() {
+            return this.values;
+        }
+
+        @Override
+        void resize(int capacity) {
+            this.values = Arrays.copyOf(this.values, capacity);
+        }
+
+        @Override
+        void store(int index, Tag tag) {
+            this.values[index] = ((NumericTag) tag).getAsDouble();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o instanceof Doubles other) {
+                // DoubleTag compares with ==, so do the same rather than Arrays.equals
+                if (this.size != other.size) {
+                    return false;
+                }
+                for (int i = 0; i < this.size; i++) {
+                    if (this.values[i] != other.values[i]) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return super.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (int i = 0; i < this.size; i++) {
+                hash = 31 * hash + Double.hashCode(this.values[i]);
+            }
+            return hash;
+        }
+    }
+}
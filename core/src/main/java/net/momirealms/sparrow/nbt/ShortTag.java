@@ -10,6 +10,21 @@ public class ShortTag extends NumericTag {
         this.value = value;
     }
 
+    /**
+     * Returns a tag holding the given value, reusing a shared instance if the value is within the cached range.
+     * The range defaults to [-128, 1024] and can be changed with the {@code sparrow.nbt.cache.short.low}
+     * and {@code sparrow.nbt.cache.short.high} system properties.
+     *
+     * @param value the short value
+     * @return a cached or new tag
+     */
+    public static ShortTag valueOf(short value) {
+        if (value >= Cache.LOW && value <= Cache.HIGH) {
+            return Cache.VALUES[value - Cache.LOW];
+        }
+        return new ShortTag(value);
+    }
+
     public short value() {
         return value;
     }
@@ -54,6 +69,11 @@ public class ShortTag extends NumericTag {
         output.writeShort(this.value);
     }
 
+    @Override
+    public int sizeInBytes() {
+        return 2;
+    }
+
     @Override
     public byte getId() {
         return TAG_SHORT_ID;
@@ -90,4 +110,22 @@ public class ShortTag extends NumericTag {
     public int hashCode() {
         return value;
     }
+
+    private static final class Cache {
+        static final int LOW;
+        static final int HIGH;
+        static final ShortTag[] VALUES;
+        static {
+            int low = Math.max(Short.MIN_VALUE, Integer.getInteger("sparrow.nbt.cache.short.low", -128));
+            int high = Math.min(Short.MAX_VALUE, Integer.getInteger("sparrow.nbt.cache.short.high", 1024));
+            // keep the table within 2^20 entries
+            high = (int) Math.min(high, low + (1L << 20) - 1);
+            LOW = low;
+            HIGH = high;
+            VALUES = new ShortTag[(int) Math.max(0L, (long) high - low + 1)];
+            for (int i = 0; i < VALUES.length; i++) {
+                VALUES[i] = new ShortTag((short) (low + i));
+            }
+        }
+    }
 }
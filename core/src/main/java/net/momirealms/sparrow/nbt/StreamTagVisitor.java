@@ -0,0 +1,192 @@
+package net.momirealms.sparrow.nbt;
+
+/**
+ * Interface for visiting binary NBT while it is being decoded, without building tags first.
+ * <p>
+ * The decoder calls {@link #visitEntry(TagType)} and {@link #visitEntry(TagType, String)} for every compound entry and
+ * {@link #visitElement(TagType, int)} for every list element, and the returned {@link EntryResult} decides whether the
+ * value is decoded and visited, skipped with {@link TagType#skip(java.io.DataInput)}, or whether the rest of the container or
+ * the whole parse is abandoned. Skipped subtrees are never decoded.
+ *
+ * @see NBT#parse(java.io.DataInput, StreamTagVisitor, boolean)
+ */
+public interface StreamTagVisitor {
+
+    /**
+     * Visit the end tag, which only occurs as a root tag or as the element type of an empty list.
+     *
+     * @return how to continue
+     */
+    ValueResult visitEnd();
+
+    /**
+     * Visit a string value.
+     *
+     * @param value the value
+     * @return how to continue
+     */
+    ValueResult visit(String value);
+
+    /**
+     * Visit a byte value.
+     *
+     * @param value the value
+     * @return how to continue
+     */
+    ValueResult visit(byte value);
+
+    /**
+     * Visit a short value.
+     *
+     * @param value the value
+     * @return how to continue
+     */
+    ValueResult visit(short value);
+
+    /**
+     * Visit an int value.
+     *
+     * @param value the value
+     * @return how to continue
+     */
+    ValueResult visit(int value);
+
+    /**
+     * Visit a long value.
+     *
+     * @param value the value
+     * @return how to continue
+     */
+    ValueResult visit(long value);
+
+    /**
+     * Visit a float value.
+     *
+     * @param value the value
+     * @return how to continue
+     */
+    ValueResult visit(float value);
+
+    /**
+     * Visit a double value.
+     *
+     * @param value the value
+     * @return how to continue
+     */
+    ValueResult visit(double value);
+
+    /**
+     * Visit a byte array value.
+     *
+     * @param value the value, owned by the visitor from now on
+     * @return how to continue
+     */
+    ValueResult visit(byte[] value);
+
+    /**
+     * Visit an int array value.
+     *
+     * @param value the value, owned by the visitor from now on
+     * @return how to continue
+     */
+    ValueResult visit(int[] value);
+
+    /**
+     * Visit a long array value.
+     *
+     * @param value the value, owned by the visitor from now on
+     * @return how to continue
+     */
+    ValueResult visit(long[] value);
+
+    /**
+     * Visit the start of a list. Unless the result is {@link ValueResult#CONTINUE}, the elements are skipped.
+     * Every list, visited or not, is closed by {@link #visitContainerEnd()}.
+     *
+     * @param elementType the type of the elements
+     * @param length      the number of elements
+     * @return how to continue
+     */
+    ValueResult visitList(TagType<?> elementType, int length);
+
+    /**
+     * Visit a list element before it is decoded.
+     *
+     * @param type  the type of the element
+     * @param index the index of the element
+     * @return whether to visit, skip or stop
+     */
+    EntryResult visitElement(TagType<?> type, int index);
+
+    /**
+     * Visit a compound entry before its name is decoded.
+     *
+     * @param type the type of the entry's value
+     * @return whether to go on with {@link #visitEntry(TagType, String)}, skip or stop
+     */
+    EntryResult visitEntry(TagType<?> type);
+
+    /**
+     * Visit a compound entry after its name was decoded, before its value is.
+     *
+     * @param type the type of the entry's value
+     * @param name the entry name
+     * @return whether to visit, skip or stop
+     */
+    EntryResult visitEntry(TagType<?> type, String name);
+
+    /**
+     * Visit the end of a compound or list.
+     *
+     * @return how to continue
+     */
+    ValueResult visitContainerEnd();
+
+    /**
+     * Visit the root tag before it is decoded.
+     *
+     * @param type the type of the root tag
+     * @return how to continue, {@link ValueResult#BREAK} skips the root tag
+     */
+    ValueResult visitRootEntry(TagType<?> type);
+
+    /**
+     * Control flow after a value.
+     */
+    enum ValueResult {
+        /**
+         * Go on with the next value.
+         */
+        CONTINUE,
+        /**
+         * Skip the rest of the enclosing container.
+         */
+        BREAK,
+        /**
+         * Stop parsing altogether.
+         */
+        HALT
+    }
+
+    /**
+     * Control flow before an entry or element.
+     */
+    enum EntryResult {
+        /**
+         * Decode and visit the value.
+         */
+        ENTER,
+        /**
+         * Skip the value and go on with the next one.
+         */
+        SKIP,
+        /**
+         * Skip the value and the rest of the enclosing container.
+         */
+        BREAK,
+        /**
+         * Stop parsing altogether.
+         */
+        HALT
+    }
+}
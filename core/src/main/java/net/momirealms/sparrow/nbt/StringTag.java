@@ -1,5 +1,7 @@
 package net.momirealms.sparrow.nbt;
 
+import net.momirealms.sparrow.nbt.util.UTFUtil;
+
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
@@ -21,7 +23,12 @@ public class StringTag implements Tag {
 
     @Override
     public void write(DataOutput output) throws IOException {
-        output.writeUTF(this.value);
+        UTFUtil.writeUTF(output, this.value);
+    }
+
+    @Override
+    public int sizeInBytes() {
+        return 2 + UTFUtil.utfLength(this.value);
     }
 
     @Override
@@ -1,9 +1,11 @@
 package net.momirealms.sparrow.nbt;
 
-import net.momirealms.sparrow.nbt.visitor.CompactStringTagVisitor;
+import net.momirealms.sparrow.nbt.io.CountingDataOutput;
+import net.momirealms.sparrow.nbt.visitor.SNBTWriter;
 
 import java.io.DataOutput;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * Interface representing a generic NBT (Named Binary Tag) element.
@@ -35,6 +37,25 @@ public interface Tag {
      */
     void write(DataOutput output) throws IOException;
 
+    /**
+     * Returns the exact number of bytes {@link #write(DataOutput)} produces for this tag.
+     * The type id and name written in front of a named tag are not included.
+     * The default implementation writes the tag to a {@link CountingDataOutput}; the built-in tags compute
+     * the size directly.
+     *
+     * @return the size of the binary payload in bytes
+     * @throws UncheckedIOException if writing the tag fails
+     */
+    default int sizeInBytes() {
+        CountingDataOutput output = new CountingDataOutput();
+        try {
+            this.write(output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.size();
+    }
+
     /**
      * Returns a string representation of the tag.
      *
@@ -77,7 +98,9 @@ public interface Tag {
      * @return a string representing the tag in a compact format
      */
     default String getAsString() {
-        return (new CompactStringTagVisitor()).visit(this);
+        StringBuilder builder = new StringBuilder();
+        new SNBTWriter(builder).write(this);
+        return builder.toString();
     }
 
     /**
@@ -0,0 +1,505 @@
+package net.momirealms.sparrow.nbt;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Parser for SNBT, the string form written by {@link Tag#getAsString()}.
+ * <p>
+ * Supports compounds, lists, typed arrays {@code [B;...]}, {@code [I;...]} and {@code [L;...]}, strings in either
+ * quote style, unquoted strings and numbers with the {@code b}, {@code s}, {@code l}, {@code f} and {@code d}
+ * suffixes, and {@code true}/{@code false} as bytes. Like the game's parser, an unquoted token that is not a
+ * valid number, including a number out of range for its type, is read as a string, a trailing comma
+ * before a closing bracket is accepted, and the elements of a typed array must be of the array's type.
+ * <p>
+ * The input is scanned once without regular expressions. Unquoted keys and strings are cut straight from the
+ * input, and integers are parsed in place without creating intermediate strings.
+ */
+public final class TagParser {
+    private static final int MAX_DEPTH = 512;
+    private static final int CONTEXT_LENGTH = 35;
+    private static final boolean[] UNQUOTED = new boolean[128];
+
+    static {
+        for (char c = '0'; c <= '9'; c++) UNQUOTED[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++) UNQUOTED[c] = true;
+        for (char c = 'a'; c <= 'z'; c++) UNQUOTED[c] = true;
+        UNQUOTED['_'] = true;
+        UNQUOTED['-'] = true;
+        UNQUOTED['.'] = true;
+        UNQUOTED['+'] = true;
+    }
+
+    private final String input;
+    private int position;
+    private StringBuilder escaped;
+    private long[] elements;
+
+    private TagParser(String input) {
+        this.input = input;
+    }
+
+    /**
+     * Parses a tag of any type.
+     *
+     * @param snbt the SNBT to parse
+     * @return the parsed tag
+     * @throws IllegalArgumentException if the input is not valid SNBT
+     */
+    public static Tag parseTag(@NotNull String snbt) {
+        TagParser parser = new TagParser(snbt);
+        Tag tag = parser.readValue(0);
+        parser.expectEnd();
+        return tag;
+    }
+
+    /**
+     * Parses a CompoundTag.
+     *
+     * @param snbt the SNBT to parse
+     * @return the parsed compound
+     * @throws IllegalArgumentException if the input is not a valid SNBT compound
+     */
+    public static CompoundTag parseCompound(@NotNull String snbt) {
+        TagParser parser = new TagParser(snbt);
+        parser.skipWhitespace();
+        if (!parser.canRead() || parser.peek() != '{') {
+            throw parser.error("Expected '{'");
+        }
+        CompoundTag compound = parser.readCompound(0);
+        parser.expectEnd();
+        return compound;
+    }
+
+    /**
+     * Checks whether a character may appear in an unquoted key or string.
+     *
+     * @param c the character to check
+     * @return true for {@code 0-9}, {@code A-Z}, {@code a-z}, {@code _}, {@code -}, {@code .} and {@code +}
+     */
+    public static boolean isAllowedInUnquotedString(char c) {
+        return c < 128 && UNQUOTED[c];
+    }
+
+    private Tag readValue(int depth) {
+        this.skipWhitespace();
+        if (!this.canRead()) {
+            throw this.error("Expected value");
+        }
+        char c = this.peek();
+        if (c == '{') {
+            return this.readCompound(depth);
+        } else if (c == '[') {
+            return this.readListOrArray(depth);
+        } else if (c == '"' || c == '\'') {
+            return new StringTag(this.readQuoted());
+        }
+        int start = this.position;
+        int end = this.skipUnquoted();
+        if (start == end) {
+            throw this.error("Expected value");
+        }
+        return this.typedValue(start, end);
+    }
+
+    private CompoundTag readCompound(int depth) {
+        if (depth > MAX_DEPTH) {
+            throw this.error("Tried to read NBT tag with too high complexity, depth > " + MAX_DEPTH);
+        }
+        this.position++;
+        CompoundTag compound = new CompoundTag();
+        this.skipWhitespace();
+        while (this.canRead() && this.peek() != '}') {
+            String key = this.readKey();
+            this.skipWhitespace();
+            this.expect(':');
+            compound.put(key, this.readValue(depth + 1));
+            if (!this.hasElementSeparator()) {
+                break;
+            }
+        }
+        this.expect('}');
+        return compound;
+    }
+
+    private Tag readListOrArray(int depth) {
+        String input = this.input;
+        int next = this.position + 1;
+        if (next + 1 < input.length() && input.charAt(next + 1) == ';' && Character.isLetter(input.charAt(next))) {
+            return this.readArray(input.charAt(next));
+        }
+        if (depth > MAX_DEPTH) {
+            throw this.error("Tried to read NBT tag with too high complexity, depth > " + MAX_DEPTH);
+        }
+        this.position++;
+        ListTag list = new ListTag();
+        this.skipWhitespace();
+        while (this.canRead() && this.peek() != ']') {
+            list.add(this.readValue(depth + 1));
+            if (!this.hasElementSeparator()) {
+                break;
+            }
+        }
+        this.expect(']');
+        return list;
+    }
+
+    private Tag readArray(char type) {
+        if (type != 'B' && type != 'I' && type != 'L') {
+            this.position++;
+            throw this.error("Invalid array type '" + type + "'");
+        }
+        this.position += 3;
+        long[] elements = this.elements == null ? (this.elements = new long[16]) : this.elements;
+        int count = 0;
+        this.skipWhitespace();
+        while (this.canRead() && this.peek() != ']') {
+            int start = this.position;
+            int end = this.skipUnquoted();
+            if (count == elements.length) {
+                elements = this.elements = Arrays.copyOf(elements, count * 2);
+            }
+            elements[count++] = this.arrayElement(type, start, end);
+            if (!this.hasElementSeparator()) {
+                break;
+            }
+        }
+        this.expect(']');
+        switch (type) {
+            case 'B' -> {
+                byte[] array = new byte[count];
+                for (int i = 0; i < count; i++) {
+                    array[i] = (byte) elements[i];
+                }
+                return new ByteArrayTag(array);
+            }
+            case 'I' -> {
+                int[] array = new int[count];
+                for (int i = 0; i < count; i++) {
+                    array[i] = (int) elements[i];
+                }
+                return new IntArrayTag(array);
+            }
+            default -> {
+                return new LongArrayTag(Arrays.copyOf(elements, count));
+            }
+        }
+    }
+
+    /**
+     * Parses an element of a typed array. As in the game, the element must be a tag of the array's own type:
+     * {@code 1b} or {@code true}/{@code false} in a byte array, {@code 1} in an int array, {@code 1L} in a long array.
+     */
+    private long arrayElement(char type, int start, int end) {
+        if (type == 'B') {
+            if (end - start == 4 && this.input.regionMatches(true, start, "true", 0, 4)) {
+                return 1;
+            }
+            if (end - start == 5 && this.input.regionMatches(true, start, "false", 0, 5)) {
+                return 0;
+            }
+        }
+        int digitsEnd = end;
+        if (type != 'I') {
+            if (end == start || (this.input.charAt(end - 1) | 0x20) != (type | 0x20)) {
+                this.position = start;
+                throw this.error("Expected " + arrayElementType(type) + " array element");
+            }
+            digitsEnd--;
+        }
+        if (!this.isInteger(start, digitsEnd)) {
+            this.position = start;
+            throw this.error("Expected " + arrayElementType(type) + " array element");
+        }
+        long value;
+        try {
+            value = Long.parseLong(this.input, start, digitsEnd, 10);
+        } catch (NumberFormatException e) {
+            value = Long.MAX_VALUE;
+        }
+        boolean inRange = switch (type) {
+            case 'B' -> value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE;
+            case 'I' -> value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+            default -> value != Long.MAX_VALUE || this.input.regionMatches(start, String.valueOf(Long.MAX_VALUE), 0, digitsEnd - start);
+        };
+        if (!inRange) {
+            this.position = start;
+            throw this.error("Array element out of range");
+        }
+        return value;
+    }
+
+    private static String arrayElementType(char type) {
+        return type == 'B' ? "byte" : type == 'I' ? "int" : "long";
+    }
+
+    private Tag typedValue(int start, int end) {
+        String input = this.input;
+        try {
+            switch ((char) (input.charAt(end - 1) | 0x20)) {
+                case 'b' -> {
+                    if (this.isInteger(start, end - 1)) {
+                        int value = Integer.parseInt(input, start, end - 1, 10);
+                        if (value == (byte) value) {
+                            return ByteTag.valueOf((byte) value);
+                        }
+                    }
+                }
+                case 's' -> {
+                    if (this.isInteger(start, end - 1)) {
+                        int value = Integer.parseInt(input, start, end - 1, 10);
+                        if (value == (short) value) {
+                            return ShortTag.valueOf((short) value);
+                        }
+                    }
+                }
+                case 'l' -> {
+                    if (this.isInteger(start, end - 1)) {
+                        return LongTag.valueOf(Long.parseLong(input, start, end - 1, 10));
+                    }
+                }
+                case 'f' -> {
+                    if (this.isDecimal(start, end - 1, false)) {
+                        return new FloatTag(Float.parseFloat(input.substring(start, end - 1)));
+                    }
+                }
+                case 'd' -> {
+                    if (this.isDecimal(start, end - 1, false)) {
+                        return new DoubleTag(Double.parseDouble(input.substring(start, end - 1)));
+                    }
+                }
+                default -> {
+                    if (this.isInteger(start, end)) {
+                        return IntTag.valueOf(Integer.parseInt(input, start, end, 10));
+                    }
+                    if (this.isDecimal(start, end, true)) {
+                        return new DoubleTag(Double.parseDouble(input.substring(start, end)));
+                    }
+                }
+            }
+        } catch (NumberFormatException ignored) {
+            // out of range for its type, kept as a string
+        }
+        if (end - start == 4 && input.regionMatches(true, start, "true", 0, 4)) {
+            return ByteTag.ONE;
+        }
+        if (end - start == 5 && input.regionMatches(true, start, "false", 0, 5)) {
+            return ByteTag.ZERO;
+        }
+        return new StringTag(input.substring(start, end));
+    }
+
+    /**
+     * Matches {@code [-+]?(0|[1-9][0-9]*)}.
+     */
+    private boolean isInteger(int from, int to) {
+        String input = this.input;
+        int i = from;
+        if (i < to && (input.charAt(i) == '-' || input.charAt(i) == '+')) {
+            i++;
+        }
+        if (i >= to) {
+            return false;
+        }
+        if (input.charAt(i) == '0') {
+            return i + 1 == to;
+        }
+        for (; i < to; i++) {
+            char c = input.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matches {@code [-+]?(?:[0-9]+[.]?|[0-9]*[.][0-9]+)(?:e[-+]?[0-9]+)?}, ignoring case, with the dot
+     * being mandatory if {@code requireDot} is set.
+     */
+    private boolean isDecimal(int from, int to, boolean requireDot) {
+        String input = this.input;
+        int i = from;
+        if (i < to && (input.charAt(i) == '-' || input.charAt(i) == '+')) {
+            i++;
+        }
+        int digits = 0;
+        while (i < to && isDigit(input.charAt(i))) {
+            i++;
+            digits++;
+        }
+        boolean dot = i < to && input.charAt(i) == '.';
+        if (dot) {
+            i++;
+            while (i < to && isDigit(input.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0 || requireDot && !dot) {
+            return false;
+        }
+        if (i < to && (input.charAt(i) | 0x20) == 'e') {
+            i++;
+            if (i < to && (input.charAt(i) == '-' || input.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            while (i < to && isDigit(input.charAt(i))) {
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+        return i == to;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private String readKey() {
+        if (!this.canRead()) {
+            throw this.error("Expected key");
+        }
+        char c = this.peek();
+        if (c == '"' || c == '\'') {
+            return this.readQuoted();
+        }
+        int start = this.position;
+        int end = this.skipUnquoted();
+        if (start == end) {
+            throw this.error("Expected key");
+        }
+        return this.input.substring(start, end);
+    }
+
+    private String readQuoted() {
+        String input = this.input;
+        char quote = input.charAt(this.position);
+        int start = this.position + 1;
+        for (int i = start; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == quote) {
+                this.position = i + 1;
+                return input.substring(start, i);
+            }
+            if (c == '\\') {
+                return this.readEscaped(quote, start, i);
+            }
+        }
+        throw this.error("Unclosed quoted string");
+    }
+
+    private String readEscaped(char quote, int start, int escape) {
+        String input = this.input;
+        StringBuilder builder = this.escaped == null ? (this.escaped = new StringBuilder()) : this.escaped;
+        builder.setLength(0);
+        builder.append(input, start, escape);
+        int i = escape;
+        while (i < input.length()) {
+            char c = input.charAt(i++);
+            if (c == quote) {
+                this.position = i;
+                return builder.toString();
+            }
+            if (c != '\\') {
+                builder.append(c);
+                continue;
+            }
+            if (i >= input.length()) {
+                break;
+            }
+            char escaped = input.charAt(i++);
+            switch (escaped) {
+                case '\\', '\'', '"' -> builder.append(escaped);
+                case 'n' -> builder.append('\n');
+                case 't' -> builder.append('\t');
+                case 'r' -> builder.append('\r');
+                case 'b' -> builder.append('\b');
+                case 'f' -> builder.append('\f');
+                case 'u' -> {
+                    if (i + 4 > input.length()) {
+                        this.position = i - 2;
+                        throw this.error("Invalid unicode escape");
+                    }
+                    int value = 0;
+                    for (int end = i + 4; i < end; i++) {
+                        int digit = Character.digit(input.charAt(i), 16);
+                        if (digit < 0) {
+                            this.position = i;
+                            throw this.error("Invalid unicode escape");
+                        }
+                        value = value << 4 | digit;
+                    }
+                    builder.append((char) value);
+                }
+                default -> {
+                    this.position = i - 2;
+                    throw this.error("Invalid escape sequence '\\" + escaped + "'");
+                }
+            }
+        }
+        this.position = input.length();
+        throw this.error("Unclosed quoted string");
+    }
+
+    private int skipUnquoted() {
+        String input = this.input;
+        int i = this.position;
+        while (i < input.length() && isAllowedInUnquotedString(input.charAt(i))) {
+            i++;
+        }
+        this.position = i;
+        return i;
+    }
+
+    private boolean hasElementSeparator() {
+        this.skipWhitespace();
+        if (this.canRead() && this.peek() == ',') {
+            this.position++;
+            this.skipWhitespace();
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        this.skipWhitespace();
+        if (!this.canRead() || this.peek() != c) {
+            throw this.error("Expected '" + c + "'");
+        }
+        this.position++;
+    }
+
+    private void expectEnd() {
+        this.skipWhitespace();
+        if (this.canRead()) {
+            throw this.error("Unexpected trailing data");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (this.canRead() && Character.isWhitespace(this.peek())) {
+            this.position++;
+        }
+    }
+
+    private boolean canRead() {
+        return this.position < this.input.length();
+    }
+
+    private char peek() {
+        return this.input.charAt(this.position);
+    }
+
+    private IllegalArgumentException error(String message) {
+        int position = Math.min(this.position, this.input.length());
+        int from = Math.max(0, position - CONTEXT_LENGTH);
+        return new IllegalArgumentException(message + " at position " + position + ": "
+                + (from > 0 ? "..." : "") + this.input.substring(from, position) + "<--[HERE]");
+    }
+}
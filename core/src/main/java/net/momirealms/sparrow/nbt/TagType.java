@@ -1,5 +1,8 @@
 package net.momirealms.sparrow.nbt;
 
+import net.momirealms.sparrow.nbt.io.ByteArrayDataInput;
+import net.momirealms.sparrow.nbt.io.ByteArrayDataOutput;
+
 import java.io.DataInput;
 import java.io.IOException;
 
@@ -45,6 +48,25 @@ public interface TagType<T extends Tag> {
      */
     T read(DataInput input, int depth) throws IOException;
 
+    /**
+     * Decodes a tag from the input stream straight into a visitor, without creating the tag.
+     * The default implementation reads the tag with {@link #read(DataInput, int)} and feeds it to the visitor
+     * through the built-in type of its id, so the visitor sees the same calls as for a built-in tag; the types
+     * in {@link TagTypes} override it to decode without creating tags.
+     *
+     * @param input   the input stream to read data from
+     * @param visitor the visitor to feed
+     * @param depth   the depth of the current tag structure (used to avoid infinite recursion)
+     * @return how the visitor asked to continue
+     * @throws IOException if an I/O error occurs
+     */
+    default StreamTagVisitor.ValueResult parse(DataInput input, StreamTagVisitor visitor, int depth) throws IOException {
+        T tag = this.read(input, depth);
+        byte[] bytes = new byte[tag.sizeInBytes()];
+        tag.write(new ByteArrayDataOutput(bytes));
+        return TagTypes.typeById(tag.getId()).parse(new ByteArrayDataInput(bytes), visitor, depth);
+    }
+
     /**
      * Checks whether this tag type represents a value.
      *
@@ -1,5 +1,8 @@
 package net.momirealms.sparrow.nbt;
 
+import net.momirealms.sparrow.nbt.util.ArrayIOUtil;
+import net.momirealms.sparrow.nbt.util.UTFUtil;
+
 import java.io.DataInput;
 import java.io.IOException;
 import java.util.HashMap;
@@ -11,6 +14,11 @@ public class TagTypes {
 
     public static final TagType<EndTag> END = new TagType<>() {
 
+        @Override
+        public StreamTagVisitor.ValueResult parse(DataInput input, StreamTagVisitor visitor, int depth) {
+            return visitor.visitEnd();
+        }
+
         @Override
         public String name() {
             return "End";
@@ -32,6 +40,11 @@ public class TagTypes {
 
     public static final TagType<ByteTag> BYTE = new TagType.FixedSize<>() {
 
+        @Override
+        public StreamTagVisitor.ValueResult parse(DataInput input, StreamTagVisitor visitor, int depth) throws IOException {
+            return visitor.visit(input.readByte());
+        }
+
         @Override
         public String name() {
             return "Byte";
@@ -44,7 +57,7 @@ public class TagTypes {
 
         @Override
         public ByteTag read(DataInput input, int depth) throws IOException {
-            return new ByteTag(input.readByte());
+            return ByteTag.valueOf(input.readByte());
         }
 
         @Override
@@ -64,6 +77,11 @@ public class TagTypes {
             return 8;
         }
 
+        @Override
+        public StreamTagVisitor.ValueResult parse(DataInput input, StreamTagVisitor visitor, int depth) throws IOException {
+            return visitor.visit(input.readDouble());
+        }
+
         @Override
         public String name() {
             return "Double";
@@ -86,6 +104,11 @@ public class TagTypes {
             return 4;
         }
 
+        @Override
+        public StreamTagVisitor.ValueResult parse(DataInput input, StreamTagVisitor visitor, int depth) throws IOException {
+            return visitor.visit(input.readFloat());
+        }
+
         @Override
         public String name() {
             return "Float";
@@ -100,7 +123,7 @@ public class TagTypes {
     public static final TagType<LongTag> LONG = new TagType.FixedSize<>() {
         @Override
         public LongTag read(DataInput dataInput, int depth) throws IOException {
-            return new LongTag(dataInput.readLong());
+            return LongTag.valueOf(dataInput.readLong());
         }
 
         @Override
@@ -108,6 +131,11 @@ public class TagTypes {
             return 8;
         }
 
+        @Override
+        public StreamTagVisitor.ValueResult parse(DataInput input, StreamTagVisitor visitor, int depth) throws IOException {
+            return visitor.visit(input.readLong());
+        }
+
         @Override
         public String name() {
             return "Long";
@@ -122,7 +150,7 @@ public class TagTypes {
     public static final TagType<IntTag> INT = new TagType.FixedSize<>() {
         @Override
         public IntTag read(DataInput dataInput, int depth) throws IOException {
-            return new IntTag(dataInput.readInt());
+            return IntTag.valueOf(dataInput.readInt());
         }
 
         @Override
@@ -130,6 +158,11 @@ public class TagTypes {
             return 4;
         }
 
+        @Override
+        public StreamTagVisitor.ValueResult parse(DataInput input, StreamTagVisitor visitor, int depth) throws IOException {
+            return visitor.visit(input.readInt());
+        }
+
         @Override
         public String name() {
             return "Int";
@@ -144,7 +177,7 @@ public class TagTypes {
     public static final TagType<ShortTag> SHORT = new TagType.FixedSize<>() {
         @Override
         public ShortTag read(DataInput dataInput, int depth) throws IOException {
-            return new ShortTag(dataInput.readShort());
+            return ShortTag.valueOf(dataInput.readShort());
         }
 
         @Override
@@ -152,6 +185,11 @@ public class TagTypes {
             return 2;
         }
 
+        @Override
+        public StreamTagVisitor.ValueResult parse(DataInput input, StreamTagVisitor visitor, int depth) throws IOException {
+            return visitor.visit(input.readShort());
+        }
+
         @Override
         public String name() {
             return "Short";
@@ -166,7 +204,7 @@ public class TagTypes {
     public static final TagType<StringTag> STRING = new TagType.FlexibleSize<>() {
         @Override
         public StringTag read(DataInput dataInput, int depth) throws IOException {
-            String string = dataInput.readUTF();
+            String string = UTFUtil.readUTF(dataInput);
             return new StringTag(string);
         }
 
@@ -175,6 +213,11 @@ public class TagTypes {
             StringTag.skipString(input);
         }
 
+        @Override
+        public StreamTagVisitor.ValueResult parse(DataInput input, StreamTagVisitor visitor, int depth) throws IOException {
+            return visitor.visit(UTFUtil.readUTF(input));
+        }
+
         @Override
         public String name() {
             return "String";
@@ -190,11 +233,7 @@ public class TagTypes {
         @Override
         public IntArrayTag read(DataInput input, int depth) throws IOException {
             int i = input.readInt();
-            int[] array = new int[i];
-            for (int k = 0; k < i; ++k) {
-                array[k] = input.readInt();
-            }
-            return new IntArrayTag(array);
+            return new IntArrayTag(ArrayIOUtil.readIntArray(input, i));
         }
 
         @Override
@@ -202,6 +241,11 @@ public class TagTypes {
             input.skipBytes(input.readInt() * 4);
         }
 
+        @Override
+        public StreamTagVisitor.ValueResult parse(DataInput input, StreamTagVisitor visitor, int depth) throws IOException {
+            return visitor.visit(ArrayIOUtil.readIntArray(input, input.readInt()));
+        }
+
         @Override
         public String name() {
             return "Int[]";
@@ -212,9 +256,7 @@ public class TagTypes {
         @Override
         public ByteArrayTag read(DataInput input, int depth) throws IOException {
             int i = input.readInt();
-            byte[] array = new byte[i];
-            input.readFully(array);
-            return new ByteArrayTag(array);
+            return new ByteArrayTag(ArrayIOUtil.readByteArray(input, i));
         }
 
         @Override
@@ -222,6 +264,11 @@ public class TagTypes {
             input.skipBytes(input.readInt());
         }
 
+        @Override
+        public StreamTagVisitor.ValueResult parse(DataInput input, StreamTagVisitor visitor, int depth) throws IOException {
+            return visitor.visit(ArrayIOUtil.readByteArray(input, input.readInt()));
+        }
+
         @Override
         public String name() {
             return "Byte[]";
@@ -232,11 +279,7 @@ public class TagTypes {
         @Override
         public LongArrayTag read(DataInput dataInput, int depth) throws IOException {
             int i = dataInput.readInt();
-            long[] array = new long[i];
-            for (int k = 0; k < i; ++k) {
-                array[k] = dataInput.readLong();
-            }
-            return new LongArrayTag(array);
+            return new LongArrayTag(ArrayIOUtil.readLongArray(dataInput, i));
         }
 
         @Override
@@ -244,6 +287,11 @@ public class TagTypes {
             input.skipBytes(input.readInt() * 8);
         }
 
+        @Override
+        public StreamTagVisitor.ValueResult parse(DataInput input, StreamTagVisitor visitor, int depth) throws IOException {
+            return visitor.visit(ArrayIOUtil.readLongArray(input, input.readInt()));
+        }
+
         @Override
         public String name() {
             return "Long[]";
@@ -261,12 +309,7 @@ public class TagTypes {
                 if (typeId == 0 && length > 0) {
                     throw new RuntimeException("Missing type on ListTag");
                 } else {
-                    TagType<?> tagType = TagTypes.typeById(typeId);
-                    ListTag listTag = new ListTag();
-                    for (int k = 0; k < length; ++k) {
-                        listTag.addAndUnwrap(tagType.read(dataInput, depth + 1));
-                    }
-                    return listTag;
+                    return ListTag.readElements(dataInput, typeId, length, depth);
                 }
             }
         }
@@ -278,6 +321,49 @@ public class TagTypes {
             tagType.skip(input, i);
         }
 
+        @Override
+        public StreamTagVisitor.ValueResult parse(DataInput input, StreamTagVisitor visitor, int depth) throws IOException {
+            if (depth > 512) {
+                throw new RuntimeException("Tried to read NBT tag with too high complexity, depth > 512");
+            }
+            byte typeId = input.readByte();
+            int length = input.readInt();
+            if (typeId == 0 && length > 0) {
+                throw new RuntimeException("Missing type on ListTag");
+            }
+            TagType<?> type = TagTypes.typeById(typeId);
+            switch (visitor.visitList(type, length)) {
+                case HALT:
+                    return StreamTagVisitor.ValueResult.HALT;
+                case BREAK:
+                    type.skip(input, length);
+                    return visitor.visitContainerEnd();
+            }
+            int index = 0;
+            elements:
+            while (index < length) {
+                switch (visitor.visitElement(type, index++)) {
+                    case HALT:
+                        return StreamTagVisitor.ValueResult.HALT;
+                    case BREAK:
+                        type.skip(input);
+                        break elements;
+                    case SKIP:
+                        type.skip(input);
+                        break;
+                    default:
+                        switch (type.parse(input, visitor, depth + 1)) {
+                            case HALT:
+                                return StreamTagVisitor.ValueResult.HALT;
+                            case BREAK:
+                                break elements;
+                        }
+                }
+            }
+            type.skip(input, length - index);
+            return visitor.visitContainerEnd();
+        }
+
         @Override
         public String name() {
             return "List";
@@ -310,6 +396,52 @@ public class TagTypes {
             }
         }
 
+        @Override
+        public StreamTagVisitor.ValueResult parse(DataInput input, StreamTagVisitor visitor, int depth) throws IOException {
+            if (depth > 512) {
+                throw new RuntimeException("Tried to read NBT tag with too high complexity, depth > 512");
+            }
+            byte typeId;
+            entries:
+            while ((typeId = input.readByte()) != Tag.TAG_END_ID) {
+                TagType<?> type = TagTypes.typeById(typeId);
+                switch (visitor.visitEntry(type)) {
+                    case HALT:
+                        return StreamTagVisitor.ValueResult.HALT;
+                    case BREAK:
+                        StringTag.skipString(input);
+                        type.skip(input);
+                        break entries;
+                    case SKIP:
+                        StringTag.skipString(input);
+                        type.skip(input);
+                        continue;
+                }
+                String name = CompoundTag.readNamedTagName(input);
+                switch (visitor.visitEntry(type, name)) {
+                    case HALT:
+                        return StreamTagVisitor.ValueResult.HALT;
+                    case BREAK:
+                        type.skip(input);
+                        break entries;
+                    case SKIP:
+                        type.skip(input);
+                        continue;
+                }
+                switch (type.parse(input, visitor, depth + 1)) {
+                    case HALT:
+                        return StreamTagVisitor.ValueResult.HALT;
+                    case BREAK:
+                        break entries;
+                }
+            }
+            if (typeId != Tag.TAG_END_ID) {
+                // the rest of the compound up to and including its end tag
+                this.skip(input);
+            }
+            return visitor.visitContainerEnd();
+        }
+
         @Override
         public String name() {
             return "Compound";
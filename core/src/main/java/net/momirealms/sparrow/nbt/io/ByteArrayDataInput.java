@@ -0,0 +1,238 @@
+package net.momirealms.sparrow.nbt.io;
+
+import net.momirealms.sparrow.nbt.util.StringPool;
+import net.momirealms.sparrow.nbt.util.UTFUtil;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * A {@link DataInput} reading directly from a region of a byte array.
+ * Multi-byte primitives are decoded through big-endian {@link VarHandle} views,
+ * avoiding the per-byte stream calls of a {@link DataInputStream} chain.
+ */
+public final class ByteArrayDataInput implements DataInput {
+    private static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final byte[] bytes;
+    private final int offset;
+    private final int limit;
+    private int position;
+
+    public ByteArrayDataInput(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Creates an input over a region of the given array.
+     *
+     * @param bytes  the backing array, which is not copied
+     * @param offset the index of the first readable byte
+     * @param length the number of readable bytes
+     * @throws IndexOutOfBoundsException if the region is outside the array
+     */
+    public ByteArrayDataInput(byte[] bytes, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        this.bytes = bytes;
+        this.offset = offset;
+        this.limit = offset + length;
+        this.position = offset;
+    }
+
+    /**
+     * Returns the number of bytes consumed since the start of the region.
+     *
+     * @return the current position relative to the region offset
+     */
+    public int position() {
+        return this.position - this.offset;
+    }
+
+    /**
+     * Returns the number of bytes left to read.
+     *
+     * @return the remaining byte count
+     */
+    public int remaining() {
+        return this.limit - this.position;
+    }
+
+    private int advance(int length) throws EOFException {
+        int index = this.position;
+        if (this.limit - index < length) {
+            throw new EOFException("Tried to read " + length + " bytes with only " + (this.limit - index) + " remaining");
+        }
+        this.position = index + length;
+        return index;
+    }
+
+    private int advance(int count, int width) throws EOFException {
+        if (count > remaining() / width) {
+            throw new EOFException("Tried to read " + count + " values of " + width + " bytes with only " + remaining() + " bytes remaining");
+        }
+        return advance(count * width);
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        System.arraycopy(this.bytes, advance(len), b, off, len);
+    }
+
+    @Override
+    public int skipBytes(int n) {
+        int skipped = Math.max(0, Math.min(n, this.limit - this.position));
+        this.position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return this.bytes[advance(1)] != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return this.bytes[advance(1)];
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return this.bytes[advance(1)] & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return (short) SHORT.get(this.bytes, advance(2));
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return (char) readShort();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return (int) INT.get(this.bytes, advance(4));
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return (long) LONG.get(this.bytes, advance(8));
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    @Override
+    public String readLine() {
+        if (this.position >= this.limit) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        while (this.position < this.limit) {
+            char c = (char) (this.bytes[this.position++] & 0xFF);
+            if (c == '\n') {
+                break;
+            }
+            if (c == '\r') {
+                if (this.position < this.limit && this.bytes[this.position] == '\n') {
+                    this.position++;
+                }
+                break;
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        int utfLength = readUnsignedShort();
+        return UTFUtil.decode(this.bytes, advance(utfLength), utfLength);
+    }
+
+    /**
+     * Reads a length-prefixed modified UTF-8 string, returning the pooled instance if there is one.
+     *
+     * @param pool the pool to canonicalize the string with
+     * @return the decoded string
+     * @throws IOException if an I/O error occurs or the bytes are malformed
+     */
+    public String readUTF(StringPool pool) throws IOException {
+        int utfLength = readUnsignedShort();
+        return pool.intern(this.bytes, advance(utfLength), utfLength);
+    }
+
+    /**
+     * Returns a view of the next {@code count * width} bytes and skips past them, without copying.
+     * The view shares the backing memory, so it must not outlive the data it was read from.
+     *
+     * @param count the number of values
+     * @param width the size in bytes of one value
+     * @return a big-endian buffer over exactly those bytes
+     * @throws EOFException if fewer bytes remain
+     */
+    public ByteBuffer readSlice(int count, int width) throws EOFException {
+        int index = advance(count, width);
+        return ByteBuffer.wrap(this.bytes, index, count * width).slice();
+    }
+
+    /**
+     * Reads big-endian ints into the given array, checking the bounds once for the whole range.
+     *
+     * @param dst the destination array
+     * @param off the index of the first value to store
+     * @param len the number of values to read
+     * @throws IOException if fewer than {@code len * 4} bytes remain
+     */
+    public void readInts(int[] dst, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, dst.length);
+        int index = advance(len, 4);
+        for (int i = 0; i < len; i++, index += 4) {
+            dst[off + i] = (int) INT.get(this.bytes, index);
+        }
+    }
+
+    /**
+     * Reads big-endian longs into the given array, checking the bounds once for the whole range.
+     *
+     * @param dst the destination array
+     * @param off the index of the first value to store
+     * @param len the number of values to read
+     * @throws IOException if fewer than {@code len * 8} bytes remain
+     */
+    public void readLongs(long[] dst, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, dst.length);
+        int index = advance(len, 8);
+        for (int i = 0; i < len; i++, index += 8) {
+            dst[off + i] = (long) LONG.get(this.bytes, index);
+        }
+    }
+}
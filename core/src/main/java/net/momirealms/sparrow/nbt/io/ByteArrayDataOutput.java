@@ -0,0 +1,193 @@
+package net.momirealms.sparrow.nbt.io;
+
+import net.momirealms.sparrow.nbt.util.UTFUtil;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.BufferOverflowException;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * A {@link DataOutput} writing directly into a fixed region of a byte array.
+ * The region never grows: writing past its end throws a {@link BufferOverflowException},
+ * so callers are expected to size it up front, typically with {@link net.momirealms.sparrow.nbt.Tag#sizeInBytes()}.
+ */
+public final class ByteArrayDataOutput implements DataOutput {
+    private static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final byte[] bytes;
+    private final int offset;
+    private final int limit;
+    private int position;
+
+    public ByteArrayDataOutput(byte[] bytes) {
+        this(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Creates an output over a region of the given array.
+     *
+     * @param bytes  the destination array
+     * @param offset the index of the first byte to write
+     * @param length the number of writable bytes
+     * @throws IndexOutOfBoundsException if the region is outside the array
+     */
+    public ByteArrayDataOutput(byte[] bytes, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        this.bytes = bytes;
+        this.offset = offset;
+        this.limit = offset + length;
+        this.position = offset;
+    }
+
+    /**
+     * Returns the number of bytes written since the start of the region.
+     *
+     * @return the current position relative to the region offset
+     */
+    public int position() {
+        return this.position - this.offset;
+    }
+
+    /**
+     * Returns the number of bytes that can still be written.
+     *
+     * @return the remaining capacity
+     */
+    public int remaining() {
+        return this.limit - this.position;
+    }
+
+    private int advance(int length) {
+        int index = this.position;
+        if (this.limit - index < length) {
+            throw new BufferOverflowException();
+        }
+        this.position = index + length;
+        return index;
+    }
+
+    private int advance(int count, int width) {
+        if (count > remaining() / width) {
+            throw new BufferOverflowException();
+        }
+        return advance(count * width);
+    }
+
+    @Override
+    public void write(int b) {
+        this.bytes[advance(1)] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b) {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        System.arraycopy(b, off, this.bytes, advance(len), len);
+    }
+
+    @Override
+    public void writeBoolean(boolean v) {
+        write(v ? 1 : 0);
+    }
+
+    @Override
+    public void writeByte(int v) {
+        write(v);
+    }
+
+    @Override
+    public void writeShort(int v) {
+        SHORT.set(this.bytes, advance(2), (short) v);
+    }
+
+    @Override
+    public void writeChar(int v) {
+        writeShort(v);
+    }
+
+    @Override
+    public void writeInt(int v) {
+        INT.set(this.bytes, advance(4), v);
+    }
+
+    @Override
+    public void writeLong(long v) {
+        LONG.set(this.bytes, advance(8), v);
+    }
+
+    @Override
+    public void writeFloat(float v) {
+        writeInt(Float.floatToIntBits(v));
+    }
+
+    @Override
+    public void writeDouble(double v) {
+        writeLong(Double.doubleToLongBits(v));
+    }
+
+    @Override
+    public void writeBytes(String s) {
+        int length = s.length();
+        int index = advance(length);
+        for (int i = 0; i < length; i++) {
+            this.bytes[index + i] = (byte) s.charAt(i);
+        }
+    }
+
+    @Override
+    public void writeChars(String s) {
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            writeChar(s.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeUTF(String s) throws IOException {
+        int utfLength = UTFUtil.utfLength(s);
+        UTFUtil.checkLength(utfLength);
+        int index = advance(2 + utfLength);
+        SHORT.set(this.bytes, index, (short) utfLength);
+        UTFUtil.encode(s, utfLength, this.bytes, index + 2);
+    }
+
+    /**
+     * Writes the given ints big-endian, checking the bounds once for the whole range.
+     *
+     * @param src the source array
+     * @param off the index of the first value to write
+     * @param len the number of values to write
+     */
+    public void writeInts(int[] src, int off, int len) {
+        Objects.checkFromIndexSize(off, len, src.length);
+        int index = advance(len, 4);
+        for (int i = 0; i < len; i++, index += 4) {
+            INT.set(this.bytes, index, src[off + i]);
+        }
+    }
+
+    /**
+     * Writes the given longs big-endian, checking the bounds once for the whole range.
+     *
+     * @param src the source array
+     * @param off the index of the first value to write
+     * @param len the number of values to write
+     */
+    public void writeLongs(long[] src, int off, int len) {
+        Objects.checkFromIndexSize(off, len, src.length);
+        int index = advance(len, 8);
+        for (int i = 0; i < len; i++, index += 8) {
+            LONG.set(this.bytes, index, src[off + i]);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package net.momirealms.sparrow.nbt.io;
+
+import net.momirealms.sparrow.nbt.util.StringPool;
+import net.momirealms.sparrow.nbt.util.UTFUtil;
+
+import java.io.DataInput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * A {@link DataInput} reading directly from a {@link ByteBuffer}, heap or direct.
+ * Reads use absolute indices, so the buffer's own position is left untouched until
+ * the caller decides what to do with {@link #position()}. Multi-byte primitives are always
+ * decoded big-endian regardless of the buffer's byte order.
+ */
+public final class ByteBufferDataInput implements DataInput {
+    private static final VarHandle SHORT = MethodHandles.byteBufferViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int limit;
+    private int position;
+
+    /**
+     * Creates an input over the remaining bytes of the given buffer.
+     *
+     * @param buffer the buffer to read, which is neither copied nor modified
+     */
+    public ByteBufferDataInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.offset = buffer.position();
+        this.limit = buffer.limit();
+        this.position = this.offset;
+    }
+
+    /**
+     * Returns the number of bytes consumed since the buffer's position at construction.
+     *
+     * @return the number of bytes read so far
+     */
+    public int position() {
+        return this.position - this.offset;
+    }
+
+    /**
+     * Moves to a position relative to the buffer's position at construction, so data can be read again.
+     *
+     * @param position the new position, at most the number of readable bytes
+     * @throws IndexOutOfBoundsException if the position is outside the readable range
+     */
+    public void seek(int position) {
+        Objects.checkIndex(position, this.limit - this.offset + 1);
+        this.position = this.offset + position;
+    }
+
+    /**
+     * Returns the number of bytes left to read.
+     *
+     * @return the remaining byte count
+     */
+    public int remaining() {
+        return this.limit - this.position;
+    }
+
+    private int advance(int length) throws EOFException {
+        int index = this.position;
+        if (this.limit - index < length) {
+            throw new EOFException("Tried to read " + length + " bytes with only " + (this.limit - index) + " remaining");
+        }
+        this.position = index + length;
+        return index;
+    }
+
+    private int advance(int count, int width) throws EOFException {
+        if (count > remaining() / width) {
+            throw new EOFException("Tried to read " + count + " values of " + width + " bytes with only " + remaining() + " bytes remaining");
+        }
+        return advance(count * width);
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        this.buffer.get(advance(len), b, off, len);
+    }
+
+    @Override
+    public int skipBytes(int n) {
+        int skipped = Math.max(0, Math.min(n, this.limit - this.position));
+        this.position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return this.buffer.get(advance(1)) != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return this.buffer.get(advance(1));
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return this.buffer.get(advance(1)) & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return (short) SHORT.get(this.buffer, advance(2));
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return (char) readShort();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return (int) INT.get(this.buffer, advance(4));
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return (long) LONG.get(this.buffer, advance(8));
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    @Override
+    public String readLine() {
+        if (this.position >= this.limit) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        while (this.position < this.limit) {
+            char c = (char) (this.buffer.get(this.position++) & 0xFF);
+            if (c == '\n') {
+                break;
+            }
+            if (c == '\r') {
+                if (this.position < this.limit && this.buffer.get(this.position) == '\n') {
+                    this.position++;
+                }
+                break;
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        int utfLength = readUnsignedShort();
+        int index = advance(utfLength);
+        if (this.buffer.hasArray()) {
+            return UTFUtil.decode(this.buffer.array(), this.buffer.arrayOffset() + index, utfLength);
+        }
+        byte[] bytes = UTFUtil.scratch(utfLength);
+        this.buffer.get(index, bytes, 0, utfLength);
+        return UTFUtil.decode(bytes, 0, utfLength);
+    }
+
+    /**
+     * Reads a length-prefixed modified UTF-8 string, returning the pooled instance if there is one.
+     *
+     * @param pool the pool to canonicalize the string with
+     * @return the decoded string
+     * @throws IOException if an I/O error occurs or the bytes are malformed
+     */
+    public String readUTF(StringPool pool) throws IOException {
+        int utfLength = readUnsignedShort();
+        int index = advance(utfLength);
+        if (this.buffer.hasArray()) {
+            return pool.intern(this.buffer.array(), this.buffer.arrayOffset() + index, utfLength);
+        }
+        byte[] bytes = UTFUtil.scratch(utfLength);
+        this.buffer.get(index, bytes, 0, utfLength);
+        return pool.intern(bytes, 0, utfLength);
+    }
+
+    /**
+     * Returns a view of the next {@code count * width} bytes and skips past them, without copying.
+     * The view shares the backing memory, so it must not outlive the data it was read from.
+     *
+     * @param count the number of values
+     * @param width the size in bytes of one value
+     * @return a big-endian buffer over exactly those bytes
+     * @throws EOFException if fewer bytes remain
+     */
+    public ByteBuffer readSlice(int count, int width) throws EOFException {
+        int index = advance(count, width);
+        return this.buffer.slice(index, count * width).order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Reads big-endian ints into the given array, checking the bounds once for the whole range.
+     *
+     * @param dst the destination array
+     * @param off the index of the first value to store
+     * @param len the number of values to read
+     * @throws IOException if fewer than {@code len * 4} bytes remain
+     */
+    public void readInts(int[] dst, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, dst.length);
+        int index = advance(len, 4);
+        for (int i = 0; i < len; i++, index += 4) {
+            dst[off + i] = (int) INT.get(this.buffer, index);
+        }
+    }
+
+    /**
+     * Reads big-endian longs into the given array, checking the bounds once for the whole range.
+     *
+     * @param dst the destination array
+     * @param off the index of the first value to store
+     * @param len the number of values to read
+     * @throws IOException if fewer than {@code len * 8} bytes remain
+     */
+    public void readLongs(long[] dst, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, dst.length);
+        int index = advance(len, 8);
+        for (int i = 0; i < len; i++, index += 8) {
+            dst[off + i] = (long) LONG.get(this.buffer, index);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package net.momirealms.sparrow.nbt.io;
+
+import net.momirealms.sparrow.nbt.util.UTFUtil;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.util.Objects;
+
+/**
+ * A {@link DataOutput} writing directly into the remaining space of a {@link ByteBuffer}, heap or direct.
+ * Writes use absolute indices between the buffer's position and limit at construction time,
+ * so the buffer's own position is left untouched until the caller commits {@link #position()}.
+ * The buffer never grows: writing past its limit throws a {@link BufferOverflowException}.
+ * Multi-byte primitives are always encoded big-endian regardless of the buffer's byte order.
+ */
+public final class ByteBufferDataOutput implements DataOutput {
+    private static final VarHandle SHORT = MethodHandles.byteBufferViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int limit;
+    private int position;
+
+    /**
+     * Creates an output over the remaining space of the given buffer.
+     *
+     * @param buffer the destination buffer
+     * @throws java.nio.ReadOnlyBufferException if the buffer is read-only
+     */
+    public ByteBufferDataOutput(ByteBuffer buffer) {
+        if (buffer.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        this.buffer = buffer;
+        this.offset = buffer.position();
+        this.limit = buffer.limit();
+        this.position = this.offset;
+    }
+
+    /**
+     * Returns the number of bytes written since the buffer's position at construction.
+     *
+     * @return the number of bytes written so far
+     */
+    public int position() {
+        return this.position - this.offset;
+    }
+
+    /**
+     * Returns the number of bytes that can still be written.
+     *
+     * @return the remaining capacity
+     */
+    public int remaining() {
+        return this.limit - this.position;
+    }
+
+    private int advance(int length) {
+        int index = this.position;
+        if (this.limit - index < length) {
+            throw new BufferOverflowException();
+        }
+        this.position = index + length;
+        return index;
+    }
+
+    private int advance(int count, int width) {
+        if (count > remaining() / width) {
+            throw new BufferOverflowException();
+        }
+        return advance(count * width);
+    }
+
+    @Override
+    public void write(int b) {
+        this.buffer.put(advance(1), (byte) b);
+    }
+
+    @Override
+    public void write(byte[] b) {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        this.buffer.put(advance(len), b, off, len);
+    }
+
+    @Override
+    public void writeBoolean(boolean v) {
+        write(v ? 1 : 0);
+    }
+
+    @Override
+    public void writeByte(int v) {
+        write(v);
+    }
+
+    @Override
+    public void writeShort(int v) {
+        SHORT.set(this.buffer, advance(2), (short) v);
+    }
+
+    @Override
+    public void writeChar(int v) {
+        writeShort(v);
+    }
+
+    @Override
+    public void writeInt(int v) {
+        INT.set(this.buffer, advance(4), v);
+    }
+
+    @Override
+    public void writeLong(long v) {
+        LONG.set(this.buffer, advance(8), v);
+    }
+
+    @Override
+    public void writeFloat(float v) {
+        writeInt(Float.floatToIntBits(v));
+    }
+
+    @Override
+    public void writeDouble(double v) {
+        writeLong(Double.doubleToLongBits(v));
+    }
+
+    @Override
+    public void writeBytes(String s) {
+        int length = s.length();
+        int index = advance(length);
+        for (int i = 0; i < length; i++) {
+            this.buffer.put(index + i, (byte) s.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeChars(String s) {
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            writeChar(s.charAt(i));
+        }
+    }
+
+    @Override
+    public void writeUTF(String s) throws IOException {
+        int utfLength = UTFUtil.utfLength(s);
+        UTFUtil.checkLength(utfLength);
+        int index = advance(2 + utfLength);
+        SHORT.set(this.buffer, index, (short) utfLength);
+        if (this.buffer.hasArray()) {
+            UTFUtil.encode(s, utfLength, this.buffer.array(), this.buffer.arrayOffset() + index + 2);
+        } else {
+            byte[] encoded = UTFUtil.scratch(utfLength);
+            UTFUtil.encode(s, utfLength, encoded, 0);
+            this.buffer.put(index + 2, encoded, 0, utfLength);
+        }
+    }
+
+    /**
+     * Writes the given ints big-endian, checking the bounds once for the whole range.
+     *
+     * @param src the source array
+     * @param off the index of the first value to write
+     * @param len the number of values to write
+     */
+    public void writeInts(int[] src, int off, int len) {
+        Objects.checkFromIndexSize(off, len, src.length);
+        int index = advance(len, 4);
+        for (int i = 0; i < len; i++, index += 4) {
+            INT.set(this.buffer, index, src[off + i]);
+        }
+    }
+
+    /**
+     * Writes the given longs big-endian, checking the bounds once for the whole range.
+     *
+     * @param src the source array
+     * @param off the index of the first value to write
+     * @param len the number of values to write
+     */
+    public void writeLongs(long[] src, int off, int len) {
+        Objects.checkFromIndexSize(off, len, src.length);
+        int index = advance(len, 8);
+        for (int i = 0; i < len; i++, index += 8) {
+            LONG.set(this.buffer, index, src[off + i]);
+        }
+    }
+}
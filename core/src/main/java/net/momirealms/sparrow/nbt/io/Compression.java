@@ -0,0 +1,614 @@
+package net.momirealms.sparrow.nbt.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Compression formats NBT data is commonly stored in.
+ * <p>
+ * {@link #GZIP} is used by {@code level.dat}, player data and most standalone {@code .dat} files,
+ * {@link #ZLIB} by region file chunks. Both are coded with {@link Inflater} and {@link Deflater} instances
+ * pooled per thread together with their transfer buffers, so reading or writing a file does not allocate
+ * native zlib state each time. The GZIP container is parsed and written here rather than through
+ * {@link java.util.zip.GZIPInputStream}, which cannot reuse an inflater. Only the first member of a
+ * multi-member GZIP stream is read.
+ */
+public enum Compression {
+    NONE,
+    GZIP,
+    ZLIB;
+
+    /**
+     * The compression level zlib picks by default, a good balance of speed and size.
+     */
+    public static final int DEFAULT_LEVEL = Deflater.DEFAULT_COMPRESSION;
+
+    /**
+     * Size of the pooled input and output buffers of compressing streams.
+     */
+    public static final int BUFFER_SIZE = 16 * 1024;
+
+    // deflate cannot expand more than about 1032:1, so larger GZIP size hints are corrupt or hostile
+    private static final int MAX_INFLATE_RATIO = 1032;
+
+    private static final int GZIP_MAGIC = 0x8B1F;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final byte[] GZIP_HEADER = {0x1F, (byte) 0x8B, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xFF};
+
+    private final ThreadLocal<Inflating> inflaters = new ThreadLocal<>();
+    private final ThreadLocal<Deflating> deflaters = new ThreadLocal<>();
+
+    /**
+     * Guesses the compression of the given bytes from their first two bytes.
+     * Uncompressed NBT always starts with a tag id, which never looks like either header.
+     *
+     * @param bytes  the source array
+     * @param offset the index of the first byte
+     * @param length the number of bytes available
+     * @return the detected compression, {@link #NONE} if the data is not recognized as compressed
+     */
+    public static Compression detect(byte[] bytes, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (length < 2) {
+            return NONE;
+        }
+        int b0 = bytes[offset] & 0xFF;
+        int b1 = bytes[offset + 1] & 0xFF;
+        if ((b0 | b1 << 8) == GZIP_MAGIC) {
+            return GZIP;
+        }
+        if ((b0 & 0x0F) == Deflater.DEFLATED && (b0 << 8 | b1) % 31 == 0) {
+            return ZLIB;
+        }
+        return NONE;
+    }
+
+    /**
+     * Wraps a stream to decompress the data read from it.
+     * Closing the returned stream closes the source stream and returns the pooled inflater.
+     *
+     * @param in the compressed stream
+     * @return a stream of the decompressed bytes, {@code in} itself for {@link #NONE}
+     * @throws IOException if the GZIP header cannot be read or is invalid
+     */
+    public InputStream newInputStream(InputStream in) throws IOException {
+        if (this == NONE) {
+            return in;
+        }
+        Inflating inflating = acquireInflater();
+        try {
+            if (this == GZIP) {
+                readGzipHeader(in);
+            }
+            return new InflatingInputStream(this, in, inflating);
+        } catch (IOException | RuntimeException e) {
+            releaseInflater(inflating);
+            throw e;
+        }
+    }
+
+    /**
+     * Wraps a stream to compress the data written to it with the default level.
+     *
+     * @param out the destination stream
+     * @return a compressing stream, {@code out} itself for {@link #NONE}
+     * @throws IOException if the GZIP header cannot be written
+     */
+    public OutputStream newOutputStream(OutputStream out) throws IOException {
+        return newOutputStream(out, DEFAULT_LEVEL);
+    }
+
+    /**
+     * Wraps a stream to compress the data written to it.
+     * Closing the returned stream finishes the compressed data, closes the destination stream and
+     * returns the pooled deflater.
+     *
+     * @param out   the destination stream
+     * @param level the compression level, 0-9 or {@link #DEFAULT_LEVEL}
+     * @return a compressing stream, {@code out} itself for {@link #NONE}
+     * @throws IOException              if the GZIP header cannot be written
+     * @throws IllegalArgumentException if the level is invalid
+     */
+    public OutputStream newOutputStream(OutputStream out, int level) throws IOException {
+        if (this == NONE) {
+            return out;
+        }
+        Deflating deflating = acquireDeflater(level);
+        try {
+            if (this == GZIP) {
+                out.write(GZIP_HEADER);
+            }
+            return new DeflatingOutputStream(this, out, deflating);
+        } catch (IOException | RuntimeException e) {
+            releaseDeflater(deflating);
+            throw e;
+        }
+    }
+
+    /**
+     * Decompresses a complete compressed payload held in memory.
+     * For GZIP the uncompressed size recorded in the trailer is used to size the result up front.
+     *
+     * @param bytes  the source array
+     * @param offset the index of the first compressed byte
+     * @param length the number of compressed bytes
+     * @return the decompressed bytes, a copy of the range for {@link #NONE}
+     * @throws IOException if the data is truncated or corrupt
+     */
+    public byte[] decompress(byte[] bytes, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (this == NONE) {
+            return Arrays.copyOfRange(bytes, offset, offset + length);
+        }
+        int start = offset;
+        int sizeHint = (int) Math.min(length * 4L, Integer.MAX_VALUE - 8);
+        if (this == GZIP) {
+            ByteArrayInputStream header = new ByteArrayInputStream(bytes, offset, length);
+            readGzipHeader(header);
+            start = offset + length - header.available();
+            if (length >= 18) {
+                long size = readIntLE(bytes, offset + length - 4) & 0xFFFFFFFFL;
+                if (size <= (long) length * MAX_INFLATE_RATIO && size <= Integer.MAX_VALUE - 8) {
+                    sizeHint = (int) size;
+                }
+            }
+        }
+        Inflating inflating = acquireInflater();
+        try {
+            Inflater inflater = inflating.inflater;
+            inflater.setInput(bytes, start, offset + length - start);
+            byte[] result = new byte[Math.max(sizeHint, 64)];
+            int size = 0;
+            while (!inflater.finished()) {
+                if (size == result.length) {
+                    if (result.length == Integer.MAX_VALUE - 8) {
+                        throw new OutOfMemoryError("Decompressed data exceeds the maximum array size");
+                    }
+                    result = Arrays.copyOf(result, (int) Math.min(Integer.MAX_VALUE - 8, result.length * 2L));
+                }
+                int n = inflate(inflater, result, size, result.length - size);
+                if (n == 0 && inflater.needsInput() && !inflater.finished()) {
+                    throw new EOFException("Unexpected end of " + this + " data");
+                }
+                size += n;
+            }
+            if (this == GZIP) {
+                int trailer = offset + length - inflater.getRemaining();
+                if (offset + length - trailer < 8) {
+                    throw new EOFException("Unexpected end of GZIP trailer");
+                }
+                inflating.crc.update(result, 0, size);
+                checkGzipTrailer(inflating.crc, inflater, readIntLE(bytes, trailer), readIntLE(bytes, trailer + 4));
+            }
+            return size == result.length ? result : Arrays.copyOf(result, size);
+        } finally {
+            releaseInflater(inflating);
+        }
+    }
+
+    /**
+     * Compresses bytes held in memory with the default level.
+     *
+     * @param bytes  the source array
+     * @param offset the index of the first byte to compress
+     * @param length the number of bytes to compress
+     * @return the compressed bytes, a copy of the range for {@link #NONE}
+     */
+    public byte[] compress(byte[] bytes, int offset, int length) {
+        return compress(bytes, offset, length, DEFAULT_LEVEL);
+    }
+
+    /**
+     * Compresses bytes held in memory.
+     *
+     * @param bytes  the source array
+     * @param offset the index of the first byte to compress
+     * @param length the number of bytes to compress
+     * @param level  the compression level, 0-9 or {@link #DEFAULT_LEVEL}
+     * @return the compressed bytes, a copy of the range for {@link #NONE}
+     * @throws IllegalArgumentException if the level is invalid
+     */
+    public byte[] compress(byte[] bytes, int offset, int length, int level) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (this == NONE) {
+            return Arrays.copyOfRange(bytes, offset, offset + length);
+        }
+        Deflating deflating = acquireDeflater(level);
+        try {
+            Deflater deflater = deflating.deflater;
+            deflater.setInput(bytes, offset, length);
+            deflater.finish();
+            int headerSize = this == GZIP ? GZIP_HEADER.length : 0;
+            int trailerSize = this == GZIP ? 8 : 0;
+            // small inputs can grow slightly, large ones usually shrink well below half
+            byte[] result = new byte[headerSize + Math.max(length / 2, 64) + trailerSize];
+            int size = headerSize;
+            while (!deflater.finished()) {
+                if (result.length - size <= trailerSize) {
+                    result = Arrays.copyOf(result, result.length * 2);
+                }
+                size += deflater.deflate(result, size, result.length - size - trailerSize);
+            }
+            if (this == GZIP) {
+                System.arraycopy(GZIP_HEADER, 0, result, 0, GZIP_HEADER.length);
+                deflating.crc.update(bytes, offset, length);
+                writeIntLE(result, size, (int) deflating.crc.getValue());
+                writeIntLE(result, size + 4, length);
+                size += 8;
+            }
+            return size == result.length ? result : Arrays.copyOf(result, size);
+        } finally {
+            releaseDeflater(deflating);
+        }
+    }
+
+    private Inflating acquireInflater() {
+        Inflating inflating = this.inflaters.get();
+        if (inflating == null) {
+            return new Inflating(new Inflater(this == GZIP));
+        }
+        this.inflaters.set(null);
+        return inflating;
+    }
+
+    private void releaseInflater(Inflating inflating) {
+        if (this.inflaters.get() != null) {
+            // another instance was returned while this one was in use
+            inflating.inflater.end();
+            return;
+        }
+        inflating.inflater.reset();
+        inflating.crc.reset();
+        this.inflaters.set(inflating);
+    }
+
+    private Deflating acquireDeflater(int level) {
+        Deflating deflating = this.deflaters.get();
+        if (deflating == null) {
+            deflating = new Deflating(new Deflater(DEFAULT_LEVEL, this == GZIP));
+        } else {
+            this.deflaters.set(null);
+        }
+        try {
+            deflating.deflater.setLevel(level);
+        } catch (IllegalArgumentException e) {
+            releaseDeflater(deflating);
+            throw e;
+        }
+        return deflating;
+    }
+
+    private void releaseDeflater(Deflating deflating) {
+        if (this.deflaters.get() != null) {
+            deflating.deflater.end();
+            return;
+        }
+        deflating.deflater.reset();
+        deflating.crc.reset();
+        this.deflaters.set(deflating);
+    }
+
+    private static int inflate(Inflater inflater, byte[] dst, int offset, int length) throws ZipException {
+        try {
+            int n = inflater.inflate(dst, offset, length);
+            if (n == 0 && inflater.needsDictionary()) {
+                throw new ZipException("Compressed data requires a preset dictionary");
+            }
+            return n;
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage() == null ? "Invalid compressed data" : e.getMessage());
+        }
+    }
+
+    private static void readGzipHeader(InputStream in) throws IOException {
+        if ((readUnsignedByte(in) | readUnsignedByte(in) << 8) != GZIP_MAGIC) {
+            throw new ZipException("Not in GZIP format");
+        }
+        if (readUnsignedByte(in) != Deflater.DEFLATED) {
+            throw new ZipException("Unsupported GZIP compression method");
+        }
+        int flags = readUnsignedByte(in);
+        // modification time, extra flags and operating system
+        skipFully(in, 6);
+        if ((flags & FEXTRA) != 0) {
+            skipFully(in, readUnsignedByte(in) | readUnsignedByte(in) << 8);
+        }
+        if ((flags & FNAME) != 0) {
+            while (readUnsignedByte(in) != 0);
+        }
+        if ((flags & FCOMMENT) != 0) {
+            while (readUnsignedByte(in) != 0);
+        }
+        if ((flags & FHCRC) != 0) {
+            skipFully(in, 2);
+        }
+    }
+
+    private static void checkGzipTrailer(CRC32 crc, Inflater inflater, int expectedCrc, int expectedSize) throws ZipException {
+        if (expectedCrc != (int) crc.getValue()) {
+            throw new ZipException("Corrupt GZIP trailer: CRC mismatch");
+        }
+        if (expectedSize != (int) inflater.getBytesWritten()) {
+            throw new ZipException("Corrupt GZIP trailer: size mismatch");
+        }
+    }
+
+    private static int readUnsignedByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Unexpected end of GZIP header");
+        }
+        return b;
+    }
+
+    private static void skipFully(InputStream in, int n) throws IOException {
+        for (int i = 0; i < n; i++) {
+            readUnsignedByte(in);
+        }
+    }
+
+    private static int readIntLE(byte[] bytes, int index) {
+        return bytes[index] & 0xFF | (bytes[index + 1] & 0xFF) << 8 | (bytes[index + 2] & 0xFF) << 16 | bytes[index + 3] << 24;
+    }
+
+    private static void writeIntLE(byte[] bytes, int index, int value) {
+        bytes[index] = (byte) value;
+        bytes[index + 1] = (byte) (value >>> 8);
+        bytes[index + 2] = (byte) (value >>> 16);
+        bytes[index + 3] = (byte) (value >>> 24);
+    }
+
+    private static final class Inflating {
+        private final Inflater inflater;
+        private final CRC32 crc = new CRC32();
+        private final byte[] input = new byte[BUFFER_SIZE];
+        private final byte[] output = new byte[BUFFER_SIZE];
+
+        private Inflating(Inflater inflater) {
+            this.inflater = inflater;
+        }
+    }
+
+    private static final class Deflating {
+        private final Deflater deflater;
+        private final CRC32 crc = new CRC32();
+        private final byte[] input = new byte[BUFFER_SIZE];
+        private final byte[] output = new byte[BUFFER_SIZE];
+
+        private Deflating(Deflater deflater) {
+            this.deflater = deflater;
+        }
+    }
+
+    /**
+     * Inflates into a buffer so that small reads, such as those of a {@link java.io.DataInputStream},
+     * are served without calling into zlib each time.
+     */
+    private static final class InflatingInputStream extends InputStream {
+        private final Compression compression;
+        private final InputStream in;
+        private Inflating inflating;
+        private int position;
+        private int limit;
+        private int inputLength;
+        private boolean finished;
+
+        private InflatingInputStream(Compression compression, InputStream in, Inflating inflating) {
+            this.compression = compression;
+            this.in = in;
+            this.inflating = inflating;
+        }
+
+        private boolean fill() throws IOException {
+            ensureOpen();
+            if (this.finished) {
+                return false;
+            }
+            Inflater inflater = this.inflating.inflater;
+            byte[] output = this.inflating.output;
+            int n;
+            while ((n = inflate(inflater, output, 0, output.length)) == 0) {
+                if (inflater.finished()) {
+                    finish();
+                    return false;
+                }
+                int read = this.in.read(this.inflating.input, 0, this.inflating.input.length);
+                if (read < 0) {
+                    throw new EOFException("Unexpected end of " + this.compression + " stream");
+                }
+                inflater.setInput(this.inflating.input, 0, read);
+                this.inputLength = read;
+            }
+            if (this.compression == GZIP) {
+                this.inflating.crc.update(output, 0, n);
+            }
+            this.position = 0;
+            this.limit = n;
+            return true;
+        }
+
+        private void finish() throws IOException {
+            this.finished = true;
+            if (this.compression != GZIP) {
+                return;
+            }
+            // the trailer starts with whatever input the inflater did not consume
+            Inflater inflater = this.inflating.inflater;
+            byte[] trailer = new byte[8];
+            int buffered = Math.min(inflater.getRemaining(), trailer.length);
+            System.arraycopy(this.inflating.input, this.inputLength - inflater.getRemaining(), trailer, 0, buffered);
+            for (int i = buffered; i < trailer.length; i++) {
+                trailer[i] = (byte) readUnsignedByte(this.in);
+            }
+            checkGzipTrailer(this.inflating.crc, inflater, readIntLE(trailer, 0), readIntLE(trailer, 4));
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (this.position == this.limit && !fill()) {
+                return -1;
+            }
+            return this.inflating.output[this.position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0) {
+                return 0;
+            }
+            if (this.position == this.limit && !fill()) {
+                return -1;
+            }
+            int n = Math.min(len, this.limit - this.position);
+            System.arraycopy(this.inflating.output, this.position, b, off, n);
+            this.position += n;
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            ensureOpen();
+            return this.limit - this.position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.inflating != null) {
+                this.compression.releaseInflater(this.inflating);
+                this.inflating = null;
+                this.in.close();
+            }
+        }
+
+        private void ensureOpen() throws IOException {
+            if (this.inflating == null) {
+                throw new IOException("Stream closed");
+            }
+        }
+    }
+
+    /**
+     * Collects writes in a buffer and deflates them a chunk at a time.
+     */
+    private static final class DeflatingOutputStream extends OutputStream {
+        private final Compression compression;
+        private final OutputStream out;
+        private Deflating deflating;
+        private int position;
+
+        private DeflatingOutputStream(Compression compression, OutputStream out, Deflating deflating) {
+            this.compression = compression;
+            this.out = out;
+            this.deflating = deflating;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureOpen();
+            if (this.position == this.deflating.input.length) {
+                deflateBuffered();
+            }
+            this.deflating.input[this.position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+            Objects.checkFromIndexSize(off, len, b.length);
+            byte[] input = this.deflating.input;
+            if (len >= input.length) {
+                deflateBuffered();
+                deflate(b, off, len);
+                return;
+            }
+            if (len > input.length - this.position) {
+                deflateBuffered();
+            }
+            System.arraycopy(b, off, input, this.position, len);
+            this.position += len;
+        }
+
+        private void deflateBuffered() throws IOException {
+            if (this.position > 0) {
+                deflate(this.deflating.input, 0, this.position);
+                this.position = 0;
+            }
+        }
+
+        private void deflate(byte[] b, int off, int len) throws IOException {
+            Deflater deflater = this.deflating.deflater;
+            if (this.compression == GZIP) {
+                this.deflating.crc.update(b, off, len);
+            }
+            deflater.setInput(b, off, len);
+            byte[] output = this.deflating.output;
+            while (!deflater.needsInput()) {
+                int n = deflater.deflate(output, 0, output.length);
+                if (n > 0) {
+                    this.out.write(output, 0, n);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            ensureOpen();
+            deflateBuffered();
+            Deflater deflater = this.deflating.deflater;
+            byte[] output = this.deflating.output;
+            int n;
+            while ((n = deflater.deflate(output, 0, output.length, Deflater.SYNC_FLUSH)) > 0) {
+                this.out.write(output, 0, n);
+                if (n < output.length) {
+                    break;
+                }
+            }
+            this.out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.deflating == null) {
+                return;
+            }
+            try (OutputStream out = this.out) {
+                deflateBuffered();
+                Deflater deflater = this.deflating.deflater;
+                byte[] output = this.deflating.output;
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(output, 0, output.length);
+                    out.write(output, 0, n);
+                }
+                if (this.compression == GZIP) {
+                    writeIntLE(output, 0, (int) this.deflating.crc.getValue());
+                    writeIntLE(output, 4, (int) deflater.getBytesRead());
+                    out.write(output, 0, 8);
+                }
+            } finally {
+                this.compression.releaseDeflater(this.deflating);
+                this.deflating = null;
+            }
+        }
+
+        private void ensureOpen() throws IOException {
+            if (this.deflating == null) {
+                throw new IOException("Stream closed");
+            }
+        }
+    }
+}
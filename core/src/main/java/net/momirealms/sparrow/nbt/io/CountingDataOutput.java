@@ -0,0 +1,99 @@
+package net.momirealms.sparrow.nbt.io;
+
+import net.momirealms.sparrow.nbt.util.UTFUtil;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A {@link DataOutput} that discards what is written and only counts the bytes.
+ * Backs the default {@link net.momirealms.sparrow.nbt.Tag#sizeInBytes()} of tags that do not compute their size directly.
+ */
+public final class CountingDataOutput implements DataOutput {
+    private int size;
+
+    /**
+     * Returns the number of bytes written so far.
+     *
+     * @return the byte count
+     */
+    public int size() {
+        return this.size;
+    }
+
+    private void count(int bytes) {
+        this.size = Math.addExact(this.size, bytes);
+    }
+
+    @Override
+    public void write(int b) {
+        this.count(1);
+    }
+
+    @Override
+    public void write(byte[] b) {
+        this.count(b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        this.count(len);
+    }
+
+    @Override
+    public void writeBoolean(boolean v) {
+        this.count(1);
+    }
+
+    @Override
+    public void writeByte(int v) {
+        this.count(1);
+    }
+
+    @Override
+    public void writeShort(int v) {
+        this.count(2);
+    }
+
+    @Override
+    public void writeChar(int v) {
+        this.count(2);
+    }
+
+    @Override
+    public void writeInt(int v) {
+        this.count(4);
+    }
+
+    @Override
+    public void writeLong(long v) {
+        this.count(8);
+    }
+
+    @Override
+    public void writeFloat(float v) {
+        this.count(4);
+    }
+
+    @Override
+    public void writeDouble(double v) {
+        this.count(8);
+    }
+
+    @Override
+    public void writeBytes(String s) {
+        this.count(s.length());
+    }
+
+    @Override
+    public void writeChars(String s) {
+        this.count(Math.multiplyExact(s.length(), 2));
+    }
+
+    @Override
+    public void writeUTF(String s) throws IOException {
+        int utfLength = UTFUtil.utfLength(s);
+        UTFUtil.checkLength(utfLength);
+        this.count(2 + utfLength);
+    }
+}
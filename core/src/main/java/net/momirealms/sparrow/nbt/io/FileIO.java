@@ -0,0 +1,307 @@
+package net.momirealms.sparrow.nbt.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+
+/**
+ * Channel based file access used by the NBT file helpers.
+ * Small files are loaded with a single bulk read, larger ones are streamed through
+ * a per-thread reusable buffer so that primitive reads and writes never hit the file system one by one.
+ */
+public final class FileIO {
+
+    /**
+     * Size of the reusable transfer buffer in bytes.
+     */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Files up to this size are read into memory at once instead of being streamed.
+     */
+    public static final int IN_MEMORY_LIMIT = 16 * 1024 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> BUFFER = new ThreadLocal<>();
+
+    private FileIO() {}
+
+    /**
+     * Reads the whole content of the channel, starting at its current position.
+     *
+     * @param channel the channel to read from
+     * @param size    the number of bytes to read
+     * @return the bytes read
+     * @throws IOException if an I/O error occurs or the channel ends before {@code size} bytes were read
+     */
+    public static byte[] readFully(FileChannel channel, int size) throws IOException {
+        byte[] bytes = new byte[size];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Expected " + size + " bytes but only got " + buffer.position());
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes all the given bytes to the channel.
+     *
+     * @param channel the channel to write to
+     * @param bytes   the source array
+     * @param offset  the offset of the first byte to write
+     * @param length  the number of bytes to write
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeFully(FileChannel channel, byte[] bytes, int offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Replaces the content of a file, so that readers and failures never see it half written.
+     * The writer fills a fresh temp file next to the target, which is then moved over it, atomically where
+     * the file system supports it. If anything fails before the move, the target is left as it was.
+     * A symbolic link is followed and the file it points to is replaced, and an existing file keeps its POSIX
+     * permissions. Concurrent replacements of the same file each use their own temp file, the last move wins.
+     *
+     * @param file   the file to replace
+     * @param writer writes the new content to the temp file's channel
+     * @throws IOException if an I/O error occurs
+     */
+    public static void replace(Path file, ChannelWriter writer) throws IOException {
+        Path target = Files.exists(file) ? file.toRealPath() : file.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            if (Files.exists(target)) {
+                PosixFileAttributeView view = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+                if (view != null) {
+                    Files.setPosixFilePermissions(temp, view.readAttributes().permissions());
+                }
+            }
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                writer.write(channel);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a buffered stream reading from the channel's current position.
+     * Closing the stream does not close the channel.
+     *
+     * @param channel the channel to read from
+     * @return the input stream
+     */
+    public static InputStream newInputStream(FileChannel channel) {
+        return new ChannelInputStream(channel, acquireBuffer());
+    }
+
+    /**
+     * Creates a buffered stream writing at the channel's current position.
+     * Closing the stream flushes pending bytes but does not close the channel.
+     *
+     * @param channel the channel to write to
+     * @return the output stream
+     */
+    public static OutputStream newOutputStream(FileChannel channel) {
+        return new ChannelOutputStream(channel, acquireBuffer());
+    }
+
+    /**
+     * Writes the content of a file being replaced.
+     */
+    @FunctionalInterface
+    public interface ChannelWriter {
+
+        /**
+         * Writes the content to the channel, which is positioned at the start of an empty file.
+         *
+         * @param channel the channel to write to, closed by the caller
+         * @throws IOException if an I/O error occurs
+         */
+        void write(FileChannel channel) throws IOException;
+    }
+
+    private static ByteBuffer acquireBuffer() {
+        ByteBuffer buffer = BUFFER.get();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        BUFFER.set(null);
+        return buffer.clear();
+    }
+
+    private static void releaseBuffer(ByteBuffer buffer) {
+        BUFFER.set(buffer);
+    }
+
+    private static final class ChannelInputStream extends InputStream {
+        private final FileChannel channel;
+        private ByteBuffer buffer;
+
+        private ChannelInputStream(FileChannel channel, ByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer.flip();
+        }
+
+        private boolean fill() throws IOException {
+            ensureOpen();
+            this.buffer.clear();
+            int read;
+            do {
+                read = this.channel.read(this.buffer);
+            } while (read == 0);
+            this.buffer.flip();
+            return read > 0;
+        }
+
+        @Override
+        public int read() throws IOException {
+            ensureOpen();
+            if (!this.buffer.hasRemaining() && !fill()) {
+                return -1;
+            }
+            return this.buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+            if (len == 0) {
+                return 0;
+            }
+            if (!this.buffer.hasRemaining() && !fill()) {
+                return -1;
+            }
+            int n = Math.min(len, this.buffer.remaining());
+            this.buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            ensureOpen();
+            if (n <= 0) {
+                return 0;
+            }
+            int buffered = this.buffer.remaining();
+            if (n <= buffered) {
+                this.buffer.position(this.buffer.position() + (int) n);
+                return n;
+            }
+            this.buffer.position(this.buffer.limit());
+            long position = this.channel.position();
+            long skipped = Math.min(n - buffered, this.channel.size() - position);
+            this.channel.position(position + skipped);
+            return buffered + skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            ensureOpen();
+            return this.buffer.remaining();
+        }
+
+        @Override
+        public void close() {
+            if (this.buffer != null) {
+                releaseBuffer(this.buffer);
+                this.buffer = null;
+            }
+        }
+
+        private void ensureOpen() throws IOException {
+            if (this.buffer == null) {
+                throw new IOException("Stream closed");
+            }
+        }
+    }
+
+    private static final class ChannelOutputStream extends OutputStream {
+        private final FileChannel channel;
+        private ByteBuffer buffer;
+
+        private ChannelOutputStream(FileChannel channel, ByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private void drain() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            ensureOpen();
+            if (!this.buffer.hasRemaining()) {
+                drain();
+            }
+            this.buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+            while (len > 0) {
+                if (!this.buffer.hasRemaining()) {
+                    drain();
+                }
+                int n = Math.min(len, this.buffer.remaining());
+                this.buffer.put(b, off, n);
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            ensureOpen();
+            drain();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.buffer != null) {
+                try {
+                    drain();
+                } finally {
+                    releaseBuffer(this.buffer);
+                    this.buffer = null;
+                }
+            }
+        }
+
+        private void ensureOpen() throws IOException {
+            if (this.buffer == null) {
+                throw new IOException("Stream closed");
+            }
+        }
+    }
+}
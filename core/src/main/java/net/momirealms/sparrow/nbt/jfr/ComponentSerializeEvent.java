@@ -0,0 +1,18 @@
+package net.momirealms.sparrow.nbt.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Converting a text component to or from tags in the adventure module. Only top-level calls are recorded,
+ * not the nested components they handle. The root is the component's tag on either side.
+ */
+@Name("net.momirealms.sparrow.nbt.ComponentSerialize")
+@Label("Component Serialize")
+@Description("Converting a text component to or from tags")
+public final class ComponentSerializeEvent extends NBTEvent {
+    @Label("Deserialize")
+    @Description("Whether tags were turned into a component rather than the reverse")
+    public boolean deserialize;
+}
@@ -0,0 +1,79 @@
+package net.momirealms.sparrow.nbt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import net.momirealms.sparrow.nbt.CompoundTag;
+import net.momirealms.sparrow.nbt.ListTag;
+import net.momirealms.sparrow.nbt.Tag;
+
+/**
+ * Base of the JDK Flight Recorder events emitted for NBT work, grouped under one category in recordings.
+ * <p>
+ * Events are used as {@code event.begin()}, the work, {@code event.end()}, then filled in and committed only
+ * if {@link #shouldCommit()} holds. While no recording has them enabled, creating and checking an event is
+ * optimized away by the JIT, so the work pays next to nothing for them.
+ * <p>
+ * Like the JDK's file and socket I/O events, they default to a 20 ms threshold and no stack trace, so a
+ * recording shows the slow operations rather than every small tag. Both can be changed per recording, in a
+ * {@code .jfc} file or with {@code recording.enable("net.momirealms.sparrow.nbt.NbtRead").withThreshold(Duration.ZERO)}.
+ */
+@Category({"Sparrow NBT"})
+@Threshold("20 ms")
+@StackTrace(false)
+public abstract class NBTEvent extends Event {
+    @Label("Root Type")
+    @Description("Type of the outermost tag")
+    public String rootType;
+
+    @Label("Depth")
+    @Description("Nesting depth of the deepest tag, 0 being the root, or -1 if the tag is or contains a lazily decoded compound")
+    public int depth;
+
+    /**
+     * Fills in the type and depth of the tag the event is about. Walks the tag once, so call it only once
+     * {@link #shouldCommit()} holds. The walk stops at a {@linkplain CompoundTag#isLazy() lazy} compound and
+     * reports a depth of -1, instead of decoding its entries.
+     *
+     * @param root the tag, or null if there was none
+     */
+    public void setRoot(Tag root) {
+        if (root == null) {
+            return;
+        }
+        this.rootType = root.getType().name();
+        this.depth = depth(root);
+    }
+
+    private static int depth(Tag tag) {
+        int depth = 0;
+        if (tag instanceof CompoundTag compound) {
+            if (compound.isLazy()) {
+                return -1;
+            }
+            for (Tag value : compound.values()) {
+                int valueDepth = depth(value);
+                if (valueDepth < 0) {
+                    return -1;
+                }
+                depth = Math.max(depth, valueDepth + 1);
+            }
+        } else if (tag instanceof ListTag list && !list.isEmpty()) {
+            byte elementType = list.identifyRawElementType();
+            if (elementType != Tag.TAG_COMPOUND_ID && elementType != Tag.TAG_LIST_ID) {
+                return 1;
+            }
+            for (int i = 0; i < list.size(); i++) {
+                int elementDepth = depth(list.get(i));
+                if (elementDepth < 0) {
+                    return -1;
+                }
+                depth = Math.max(depth, elementDepth + 1);
+            }
+        }
+        return depth;
+    }
+}
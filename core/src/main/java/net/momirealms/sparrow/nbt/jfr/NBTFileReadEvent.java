@@ -0,0 +1,26 @@
+package net.momirealms.sparrow.nbt.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Reading a compound from a file through {@code NBT.readFile}, including its decompression and decoding, which
+ * are not recorded as a separate {@link NBTReadEvent}.
+ */
+@Name("net.momirealms.sparrow.nbt.NbtFileRead")
+@Label("NBT File Read")
+@Description("Reading a compound from a file")
+public final class NBTFileReadEvent extends NBTEvent {
+    @Label("Path")
+    public String path;
+
+    @Label("Bytes")
+    @Description("Size of the file on disk")
+    @DataAmount
+    public long bytes;
+
+    @Label("Compression")
+    public String compression;
+}
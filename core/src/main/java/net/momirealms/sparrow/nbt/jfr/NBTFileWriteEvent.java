@@ -0,0 +1,26 @@
+package net.momirealms.sparrow.nbt.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Writing a compound to a file through {@code NBT.writeFile}, including its encoding and compression, which
+ * are not recorded as a separate {@link NBTWriteEvent}.
+ */
+@Name("net.momirealms.sparrow.nbt.NbtFileWrite")
+@Label("NBT File Write")
+@Description("Writing a compound to a file")
+public final class NBTFileWriteEvent extends NBTEvent {
+    @Label("Path")
+    public String path;
+
+    @Label("Bytes")
+    @Description("Size of the file on disk")
+    @DataAmount
+    public long bytes;
+
+    @Label("Compression")
+    public String compression;
+}
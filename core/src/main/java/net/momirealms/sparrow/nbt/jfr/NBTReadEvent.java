@@ -0,0 +1,24 @@
+package net.momirealms.sparrow.nbt.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Binary decoding of a tag through {@code NBT.readUnnamedTag}, which every compound, byte array and
+ * buffer method goes through, or indexing of a compound by {@code NBT.fromBytesLazily}.
+ */
+@Name("net.momirealms.sparrow.nbt.NbtRead")
+@Label("NBT Read")
+@Description("Binary decoding of a tag")
+public final class NBTReadEvent extends NBTEvent {
+    @Label("Bytes")
+    @Description("Size of the binary form")
+    @DataAmount
+    public long bytes;
+
+    @Label("Named")
+    @Description("Whether the root tag carries a name")
+    public boolean named;
+}
@@ -0,0 +1,24 @@
+package net.momirealms.sparrow.nbt.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Binary encoding of a tag through {@code NBT.writeUnnamedTag}, which every compound, byte array and
+ * buffer method goes through.
+ */
+@Name("net.momirealms.sparrow.nbt.NbtWrite")
+@Label("NBT Write")
+@Description("Binary encoding of a tag")
+public final class NBTWriteEvent extends NBTEvent {
+    @Label("Bytes")
+    @Description("Size of the binary form")
+    @DataAmount
+    public long bytes;
+
+    @Label("Named")
+    @Description("Whether the root tag carries a name")
+    public boolean named;
+}
@@ -0,0 +1,21 @@
+package net.momirealms.sparrow.nbt.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Formatting a tag as SNBT through {@code SNBTWriter.write}, which {@code Tag.getAsString()} uses.
+ */
+@Name("net.momirealms.sparrow.nbt.SnbtFormat")
+@Label("SNBT Format")
+@Description("Formatting a tag as SNBT")
+public final class SNBTFormatEvent extends NBTEvent {
+    @Label("Characters")
+    @Description("Length of the written text")
+    public long characters;
+
+    @Label("Pretty")
+    @Description("Whether the text was indented")
+    public boolean pretty;
+}
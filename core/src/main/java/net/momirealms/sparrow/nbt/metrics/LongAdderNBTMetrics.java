@@ -0,0 +1,114 @@
+package net.momirealms.sparrow.nbt.metrics;
+
+import net.momirealms.sparrow.nbt.Tag;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free {@link NBTMetrics} keeping running totals in {@link LongAdder}s, so recording threads do not contend.
+ * <p>
+ * The totals are meant to be polled, for example by gauges or function counters of a metrics registry:
+ * {@code FunctionCounter.builder("nbt.read.bytes", metrics, m -> m.bytes(Operation.READ))}.
+ */
+public final class LongAdderNBTMetrics implements NBTMetrics {
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private final LongAdder[] operations = adders(OPERATIONS.length);
+    private final LongAdder[] bytes = adders(OPERATIONS.length);
+    private final LongAdder[] nanos = adders(OPERATIONS.length);
+    private final LongAdder[] tags = adders(Tag.TAG_LONG_ARRAY_ID + 1);
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    @Override
+    public void record(Operation operation, long bytes, long nanos) {
+        int index = operation.ordinal();
+        this.operations[index].increment();
+        if (bytes > 0) {
+            this.bytes[index].add(bytes);
+        }
+        this.nanos[index].add(nanos);
+    }
+
+    @Override
+    public void recordTags(Operation operation, int[] counts, int maxDepth) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                this.tags[i].add(counts[i]);
+            }
+        }
+        this.maxDepth.accumulate(maxDepth);
+    }
+
+    /**
+     * Returns the number of completed operations of a kind.
+     *
+     * @param operation the operation
+     * @return the count since creation or the last {@link #reset()}
+     */
+    public long count(Operation operation) {
+        return this.operations[operation.ordinal()].sum();
+    }
+
+    /**
+     * Returns the bytes read or written by operations of a kind.
+     *
+     * @param operation the operation
+     * @return the total bytes since creation or the last {@link #reset()}
+     */
+    public long bytes(Operation operation) {
+        return this.bytes[operation.ordinal()].sum();
+    }
+
+    /**
+     * Returns the time spent in operations of a kind.
+     *
+     * @param operation the operation
+     * @return the total nanoseconds since creation or the last {@link #reset()}
+     */
+    public long nanos(Operation operation) {
+        return this.nanos[operation.ordinal()].sum();
+    }
+
+    /**
+     * Returns the number of tags of a type produced by reads, codec encodes and component serialization.
+     *
+     * @param typeId the tag type id
+     * @return the total count since creation or the last {@link #reset()}
+     */
+    public long tags(byte typeId) {
+        return this.tags[typeId].sum();
+    }
+
+    /**
+     * Returns the deepest nesting seen in produced tags.
+     *
+     * @return the maximum depth since creation or the last {@link #reset()}, 0 being a root tag
+     */
+    public long maxDepth() {
+        return this.maxDepth.get();
+    }
+
+    /**
+     * Clears all totals. Operations recorded concurrently may be partly lost.
+     */
+    public void reset() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            this.operations[i].reset();
+            this.bytes[i].reset();
+            this.nanos[i].reset();
+        }
+        for (LongAdder adder : this.tags) {
+            adder.reset();
+        }
+        this.maxDepth.reset();
+    }
+}
@@ -0,0 +1,91 @@
+package net.momirealms.sparrow.nbt.metrics;
+
+import net.momirealms.sparrow.nbt.Tag;
+
+/**
+ * Receives measurements of NBT work, once installed with {@link net.momirealms.sparrow.nbt.NBT#setMetrics(NBTMetrics)}.
+ * <p>
+ * Measured are the top-level entry points: {@code NBT.readUnnamedTag} and {@code writeUnnamedTag}, which every
+ * compound, byte array and buffer method goes through, {@code NBT.fromBytesLazily}, {@code NBT.readFile} and
+ * {@code writeFile}, the encode and decode methods of the codec modules' ops, and the adventure component
+ * serializer. A lazy read is timed for indexing the compound and reported without tag counts, since counting
+ * would decode every entry; for the same reason, no counts are reported for a produced tree that contains a
+ * lazily decoded compound. A file operation is reported once, without a separate {@link Operation#READ} or
+ * {@link Operation#WRITE} for the decoding or encoding inside it. Only operations that complete are recorded.
+ * <p>
+ * Methods are called on the thread doing the work and must be thread-safe and cheap. {@link LongAdderNBTMetrics}
+ * is a ready-made implementation; to feed another metrics library, implement this interface on top of its
+ * counters and timers, or read a {@link LongAdderNBTMetrics} from gauges. With no metrics installed, an
+ * entry point costs one volatile read.
+ */
+public interface NBTMetrics {
+
+    enum Operation {
+        /** Binary decoding of a tag. */
+        READ,
+        /** Binary encoding of a tag. */
+        WRITE,
+        /** Reading a file, bytes being its size on disk. */
+        FILE_READ,
+        /** Writing a file, bytes being its size on disk. */
+        FILE_WRITE,
+        /** Encoding a value into tags through a codec. */
+        CODEC_ENCODE,
+        /** Decoding a value from tags through a codec. */
+        CODEC_DECODE,
+        /** Serializing a text component into tags. */
+        COMPONENT_SERIALIZE,
+        /** Deserializing a text component from tags. */
+        COMPONENT_DESERIALIZE
+    }
+
+    /**
+     * Records a completed operation.
+     *
+     * @param operation the operation
+     * @param bytes     the bytes read or written, or -1 if the operation works on tags only
+     * @param nanos     the elapsed time in nanoseconds
+     */
+    void record(Operation operation, long bytes, long nanos);
+
+    /**
+     * Records the tags produced by a {@link Operation#READ}, {@link Operation#FILE_READ},
+     * {@link Operation#CODEC_ENCODE} or {@link Operation#COMPONENT_SERIALIZE}. Called after {@link #record} and not included in its time.
+     *
+     * @param operation the operation
+     * @param counts    the number of tags by type id, from {@link Tag#TAG_END_ID} to {@link Tag#TAG_LONG_ARRAY_ID};
+     *                  only valid during the call
+     * @param maxDepth  the nesting depth of the deepest tag, 0 being the root
+     */
+    void recordTags(Operation operation, int[] counts, int maxDepth);
+
+    /**
+     * Whether {@link #recordTags} is wanted. Counting walks each produced tree once, which costs a fraction
+     * of decoding it; implementations that only need bytes and times can turn it off.
+     *
+     * @return true to have produced tags counted
+     */
+    default boolean countsTags() {
+        return true;
+    }
+
+    /**
+     * Records a completed operation and, if wanted, counts the tags it produced.
+     *
+     * @param metrics   the metrics to record to
+     * @param operation the operation
+     * @param bytes     the bytes read or written, or -1 if the operation works on tags only
+     * @param nanos     the elapsed time in nanoseconds
+     * @param produced  the tag the operation produced, or null if it produced none; its tags are not counted if
+     *                  it contains a lazily decoded compound
+     */
+    static void record(NBTMetrics metrics, Operation operation, long bytes, long nanos, Tag produced) {
+        metrics.record(operation, bytes, nanos);
+        if (produced != null && metrics.countsTags()) {
+            TagCounter counter = new TagCounter();
+            if (counter.count(produced, 0)) {
+                metrics.recordTags(operation, counter.counts, counter.maxDepth);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package net.momirealms.sparrow.nbt.metrics;
+
+import net.momirealms.sparrow.nbt.CompoundTag;
+import net.momirealms.sparrow.nbt.ListTag;
+import net.momirealms.sparrow.nbt.Tag;
+
+/**
+ * Counts the tags of a tree by type and finds its depth. Lists of a single non-container type are counted
+ * from their size, without visiting the elements. A {@linkplain CompoundTag#isLazy() lazy} compound stops the
+ * count, since walking it would decode its entries.
+ */
+final class TagCounter {
+    final int[] counts = new int[Tag.TAG_LONG_ARRAY_ID + 1];
+    int maxDepth;
+
+    /**
+     * Adds the tag and everything below it to the counts.
+     *
+     * @return false if a lazy compound was found and the counts are incomplete
+     */
+    boolean count(Tag tag, int depth) {
+        this.counts[tag.getId()]++;
+        if (depth > this.maxDepth) {
+            this.maxDepth = depth;
+        }
+        if (tag instanceof CompoundTag compound) {
+            if (compound.isLazy()) {
+                return false;
+            }
+            for (Tag value : compound.values()) {
+                if (!this.count(value, depth + 1)) {
+                    return false;
+                }
+            }
+        } else if (tag instanceof ListTag list && !list.isEmpty()) {
+            byte elementType = list.identifyRawElementType();
+            if (elementType != Tag.TAG_COMPOUND_ID && elementType != Tag.TAG_LIST_ID) {
+                this.counts[elementType] += list.size();
+                if (depth + 1 > this.maxDepth) {
+                    this.maxDepth = depth + 1;
+                }
+                return true;
+            }
+            for (int i = 0; i < list.size(); i++) {
+                if (!this.count(list.get(i), depth + 1)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,440 @@
+package net.momirealms.sparrow.nbt.region;
+
+import net.momirealms.sparrow.nbt.CompoundTag;
+import net.momirealms.sparrow.nbt.NBT;
+import net.momirealms.sparrow.nbt.io.ByteArrayDataInput;
+import net.momirealms.sparrow.nbt.io.Compression;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * Random access to the chunks of an Anvil region file ({@code r.<x>.<z>.mca}).
+ * <p>
+ * A region holds 32x32 chunks. The file starts with two 4 KiB tables: 1024 sector locations, each a 3 byte sector
+ * offset and a 1 byte sector count, followed by 1024 modification timestamps. Both tables are read once when the
+ * file is opened and kept in memory, so looking up a chunk costs a single positional read of its own sectors.
+ * Each chunk payload is a 4 byte length, a compression id and the compressed, named root compound. Payloads of
+ * 256 sectors or more are stored next to the region in a {@code c.<x>.<z>.mcc} file, with only the header left
+ * in the region.
+ * <p>
+ * Writes place the new payload in the first run of free sectors, reusing space released by earlier writes, and
+ * only then point the header at it and release the old sectors, so an interrupted write never leaves the chunk
+ * pointing at partially written data. All methods are synchronized on the region.
+ */
+public final class RegionFile implements Closeable {
+
+    /**
+     * Size of a sector, the allocation unit of region files, in bytes.
+     */
+    public static final int SECTOR_SIZE = 4096;
+
+    /**
+     * Number of chunks along each axis of a region.
+     */
+    public static final int REGION_SIZE = 32;
+
+    /**
+     * Compression id of GZIP compressed payloads.
+     */
+    public static final byte VERSION_GZIP = 1;
+
+    /**
+     * Compression id of zlib compressed payloads, the format the game writes by default.
+     */
+    public static final byte VERSION_DEFLATE = 2;
+
+    /**
+     * Compression id of uncompressed payloads.
+     */
+    public static final byte VERSION_NONE = 3;
+
+    private static final int CHUNK_COUNT = REGION_SIZE * REGION_SIZE;
+    private static final int HEADER_SECTORS = 2;
+    private static final int CHUNK_HEADER_SIZE = 5;
+    private static final int MAX_SECTOR_COUNT = 255;
+    private static final int MAX_SECTOR_OFFSET = (1 << 24) - 1;
+    private static final int EXTERNAL_FLAG = 0x80;
+
+    private final Path path;
+    private final Path externalDirectory;
+    private final FileChannel channel;
+    private final boolean readOnly;
+    private final int[] locations = new int[CHUNK_COUNT];
+    private final int[] timestamps = new int[CHUNK_COUNT];
+    private final BitSet usedSectors = new BitSet();
+
+    /**
+     * Opens a region file for reading and writing, creating it if it does not exist.
+     *
+     * @param path the region file
+     * @throws IOException if the file cannot be opened or its header cannot be read
+     */
+    public RegionFile(@NotNull Path path) throws IOException {
+        this(path, false);
+    }
+
+    /**
+     * Opens a region file.
+     *
+     * @param path     the region file
+     * @param readOnly whether to open the file for reading only, in which case it must exist
+     * @throws IOException if the file cannot be opened or its header cannot be read
+     */
+    public RegionFile(@NotNull Path path, boolean readOnly) throws IOException {
+        this.path = path;
+        this.externalDirectory = path.toAbsolutePath().getParent();
+        this.readOnly = readOnly;
+        this.channel = readOnly
+                ? FileChannel.open(path, StandardOpenOption.READ)
+                : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try {
+            readHeader();
+        } catch (IOException | RuntimeException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    private void readHeader() throws IOException {
+        this.usedSectors.set(0, HEADER_SECTORS);
+        long fileSize = this.channel.size();
+        if (fileSize < HEADER_SECTORS * SECTOR_SIZE) {
+            if (fileSize > 0 && this.readOnly) {
+                throw new EOFException("Region file " + this.path + " is shorter than its header");
+            }
+            if (!this.readOnly) {
+                // new or truncated region, start with an empty header
+                writeFully(ByteBuffer.allocate(HEADER_SECTORS * SECTOR_SIZE), 0);
+            }
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SECTORS * SECTOR_SIZE);
+        readFully(header, 0);
+        header.flip();
+        IntBuffer ints = header.asIntBuffer();
+        ints.get(this.locations);
+        ints.get(this.timestamps);
+        long fileSectors = (fileSize + SECTOR_SIZE - 1) / SECTOR_SIZE;
+        for (int i = 0; i < CHUNK_COUNT; i++) {
+            int location = this.locations[i];
+            if (location == 0) {
+                continue;
+            }
+            int offset = sectorOffset(location);
+            int count = sectorCount(location);
+            if (offset < HEADER_SECTORS || count == 0 || offset + count > fileSectors) {
+                // points into the header or past the end of the file, treat the chunk as missing
+                this.locations[i] = 0;
+                continue;
+            }
+            this.usedSectors.set(offset, offset + count);
+        }
+        if (!this.readOnly && fileSize % SECTOR_SIZE != 0) {
+            // pad a torn last sector so that new payloads start on a boundary
+            writeFully(ByteBuffer.allocate((int) (SECTOR_SIZE - fileSize % SECTOR_SIZE)), fileSize);
+        }
+    }
+
+    /**
+     * Returns the region file this instance reads from.
+     *
+     * @return the path of the region file
+     */
+    public Path path() {
+        return this.path;
+    }
+
+    /**
+     * Checks whether the region stores a chunk at the given position.
+     *
+     * @param chunkX the chunk x coordinate, absolute or relative to the region
+     * @param chunkZ the chunk z coordinate, absolute or relative to the region
+     * @return true if the chunk is present
+     */
+    public synchronized boolean hasChunk(int chunkX, int chunkZ) {
+        return this.locations[index(chunkX, chunkZ)] != 0;
+    }
+
+    /**
+     * Returns the time the chunk was last written.
+     *
+     * @param chunkX the chunk x coordinate, absolute or relative to the region
+     * @param chunkZ the chunk z coordinate, absolute or relative to the region
+     * @return the timestamp in epoch seconds, or 0 if unknown
+     */
+    public synchronized int timestamp(int chunkX, int chunkZ) {
+        return this.timestamps[index(chunkX, chunkZ)];
+    }
+
+    /**
+     * Reads and decompresses a single chunk.
+     *
+     * @param chunkX the absolute chunk x coordinate, used to locate a {@code .mcc} file for oversized chunks
+     * @param chunkZ the absolute chunk z coordinate, used to locate a {@code .mcc} file for oversized chunks
+     * @return the chunk's root compound, or null if the chunk is not present
+     * @throws IOException if an I/O error occurs or the stored data is corrupt
+     */
+    @Nullable
+    public CompoundTag read(int chunkX, int chunkZ) throws IOException {
+        byte[] payload = readPayload(chunkX, chunkZ);
+        if (payload == null) {
+            return null;
+        }
+        // decompress outside the lock, the payload is a private copy
+        Compression compression = compression(payload[0] & 0xFF);
+        if (compression == Compression.NONE) {
+            return NBT.readCompound(new ByteArrayDataInput(payload, 1, payload.length - 1), true);
+        }
+        byte[] data = compression.decompress(payload, 1, payload.length - 1);
+        return NBT.readCompound(new ByteArrayDataInput(data), true);
+    }
+
+    /**
+     * Reads the compression id followed by the compressed bytes of a chunk.
+     */
+    private synchronized byte @Nullable [] readPayload(int chunkX, int chunkZ) throws IOException {
+        ensureOpen();
+        int location = this.locations[index(chunkX, chunkZ)];
+        if (location == 0) {
+            return null;
+        }
+        int offset = sectorOffset(location);
+        int count = sectorCount(location);
+        ByteBuffer header = ByteBuffer.allocate(CHUNK_HEADER_SIZE);
+        readFully(header, (long) offset * SECTOR_SIZE);
+        int length = header.getInt(0);
+        int version = header.get(4) & 0xFF;
+        if (length <= 0 || length > count * SECTOR_SIZE - 4) {
+            throw new IOException("Invalid length " + length + " for chunk [" + chunkX + ", " + chunkZ + "] occupying " + count + " sectors");
+        }
+        if ((version & EXTERNAL_FLAG) != 0) {
+            byte[] data = Files.readAllBytes(externalFile(chunkX, chunkZ));
+            byte[] payload = new byte[data.length + 1];
+            payload[0] = (byte) (version & ~EXTERNAL_FLAG);
+            System.arraycopy(data, 0, payload, 1, data.length);
+            return payload;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(payload, (long) offset * SECTOR_SIZE + 4);
+        return payload.array();
+    }
+
+    /**
+     * Compresses and writes a chunk with zlib, the compression the game uses by default.
+     *
+     * @param chunkX the absolute chunk x coordinate
+     * @param chunkZ the absolute chunk z coordinate
+     * @param tag    the chunk's root compound
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(int chunkX, int chunkZ, @NotNull CompoundTag tag) throws IOException {
+        write(chunkX, chunkZ, tag, Compression.ZLIB, Compression.DEFAULT_LEVEL);
+    }
+
+    /**
+     * Compresses and writes a chunk.
+     * Payloads too large for the region's 255 sector limit are written to a {@code .mcc} file instead.
+     *
+     * @param chunkX      the absolute chunk x coordinate
+     * @param chunkZ      the absolute chunk z coordinate
+     * @param tag         the chunk's root compound
+     * @param compression the compression to store the chunk with
+     * @param level       the compression level, 0-9 or {@link Compression#DEFAULT_LEVEL}
+     * @throws IOException if an I/O error occurs or the region is read-only
+     */
+    public void write(int chunkX, int chunkZ, @NotNull CompoundTag tag, @NotNull Compression compression, int level) throws IOException {
+        // serialize and compress outside the lock, the region is only needed for the actual write
+        byte[] data = NBT.toBytes(tag, true);
+        if (compression != Compression.NONE) {
+            data = compression.compress(data, 0, data.length, level);
+        }
+        writeCompressed(chunkX, chunkZ, data, version(compression));
+    }
+
+    private synchronized void writeCompressed(int chunkX, int chunkZ, byte[] data, byte version) throws IOException {
+        ensureWritable();
+        int index = index(chunkX, chunkZ);
+        Path external = externalFile(chunkX, chunkZ);
+        int count = sectorsFor(CHUNK_HEADER_SIZE + data.length);
+        boolean oversized = count > MAX_SECTOR_COUNT;
+        ByteBuffer payload;
+        if (oversized) {
+            Path temp = external.resolveSibling(external.getFileName() + ".tmp");
+            Files.write(temp, data);
+            Files.move(temp, external, StandardCopyOption.REPLACE_EXISTING);
+            count = 1;
+            payload = ByteBuffer.allocate(SECTOR_SIZE);
+            payload.putInt(1).put((byte) (version | EXTERNAL_FLAG));
+        } else {
+            payload = ByteBuffer.allocate(count * SECTOR_SIZE);
+            payload.putInt(data.length + 1).put(version).put(data);
+        }
+        payload.clear();
+        int offset = allocate(count);
+        writeFully(payload, (long) offset * SECTOR_SIZE);
+        int previous = this.locations[index];
+        this.locations[index] = offset << 8 | count;
+        this.timestamps[index] = (int) (System.currentTimeMillis() / 1000L);
+        writeHeaderEntry(index);
+        release(previous);
+        if (!oversized && previous != 0 && sectorCount(previous) == 1) {
+            // the previous payload may have been an external stub, whose file is now stale
+            Files.deleteIfExists(external);
+        }
+    }
+
+    /**
+     * Removes a chunk from the region, releasing its sectors for reuse.
+     *
+     * @param chunkX the absolute chunk x coordinate
+     * @param chunkZ the absolute chunk z coordinate
+     * @throws IOException if an I/O error occurs or the region is read-only
+     */
+    public synchronized void delete(int chunkX, int chunkZ) throws IOException {
+        ensureWritable();
+        int index = index(chunkX, chunkZ);
+        int previous = this.locations[index];
+        if (previous == 0) {
+            return;
+        }
+        this.locations[index] = 0;
+        this.timestamps[index] = 0;
+        writeHeaderEntry(index);
+        release(previous);
+        Files.deleteIfExists(externalFile(chunkX, chunkZ));
+    }
+
+    /**
+     * Forces written chunks and header entries to the storage device.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public synchronized void flush() throws IOException {
+        ensureOpen();
+        if (!this.readOnly) {
+            this.channel.force(true);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!this.channel.isOpen()) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    private int allocate(int count) throws IOException {
+        int start = HEADER_SECTORS;
+        while (true) {
+            start = this.usedSectors.nextClearBit(start);
+            int end = this.usedSectors.nextSetBit(start);
+            if (end == -1 || end - start >= count) {
+                break;
+            }
+            start = end;
+        }
+        if (start + count > MAX_SECTOR_OFFSET) {
+            throw new IOException("Region file " + this.path + " is full");
+        }
+        this.usedSectors.set(start, start + count);
+        return start;
+    }
+
+    private void release(int location) {
+        if (location != 0) {
+            int offset = sectorOffset(location);
+            this.usedSectors.clear(offset, offset + sectorCount(location));
+        }
+    }
+
+    private void writeHeaderEntry(int index) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(4);
+        entry.putInt(0, this.locations[index]);
+        writeFully(entry, index * 4L);
+        entry.clear();
+        entry.putInt(0, this.timestamps[index]);
+        writeFully(entry, SECTOR_SIZE + index * 4L);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = this.channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Unexpected end of region file " + this.path);
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private Path externalFile(int chunkX, int chunkZ) {
+        return this.externalDirectory.resolve("c." + chunkX + "." + chunkZ + ".mcc");
+    }
+
+    private void ensureOpen() throws IOException {
+        if (!this.channel.isOpen()) {
+            throw new IOException("Region file " + this.path + " is closed");
+        }
+    }
+
+    private void ensureWritable() throws IOException {
+        ensureOpen();
+        if (this.readOnly) {
+            throw new IOException("Region file " + this.path + " is opened read-only");
+        }
+    }
+
+    private static int index(int chunkX, int chunkZ) {
+        return (chunkX & (REGION_SIZE - 1)) + (chunkZ & (REGION_SIZE - 1)) * REGION_SIZE;
+    }
+
+    private static int sectorOffset(int location) {
+        return location >>> 8;
+    }
+
+    private static int sectorCount(int location) {
+        return location & 0xFF;
+    }
+
+    private static int sectorsFor(int bytes) {
+        return (bytes + SECTOR_SIZE - 1) / SECTOR_SIZE;
+    }
+
+    private static Compression compression(int version) throws IOException {
+        return switch (version) {
+            case VERSION_GZIP -> Compression.GZIP;
+            case VERSION_DEFLATE -> Compression.ZLIB;
+            case VERSION_NONE -> Compression.NONE;
+            default -> throw new IOException("Unsupported chunk compression " + version);
+        };
+    }
+
+    private static byte version(Compression compression) {
+        return switch (compression) {
+            case GZIP -> VERSION_GZIP;
+            case ZLIB -> VERSION_DEFLATE;
+            case NONE -> VERSION_NONE;
+        };
+    }
+}
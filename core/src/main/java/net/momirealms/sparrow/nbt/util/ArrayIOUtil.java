@@ -0,0 +1,334 @@
+package net.momirealms.sparrow.nbt.util;
+
+import net.momirealms.sparrow.nbt.io.ByteArrayDataInput;
+import net.momirealms.sparrow.nbt.io.ByteArrayDataOutput;
+import net.momirealms.sparrow.nbt.io.ByteBufferDataInput;
+import net.momirealms.sparrow.nbt.io.ByteBufferDataOutput;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Bulk transfer of big-endian numeric arrays, as found in array tag and numeric list payloads.
+ * The array and buffer readers and writers check bounds once and then run a plain {@link VarHandle} loop over
+ * the range. Other inputs and outputs are served in chunks through a per-thread scratch buffer instead of one
+ * stream call per value.
+ * <p>
+ * Readers never trust a length prefix with an allocation: in-memory inputs are checked against their remaining
+ * bytes first, and stream inputs fill an array that grows chunk by chunk as the data arrives.
+ */
+public class ArrayIOUtil {
+
+    private static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final int CHUNK_SIZE = 8192;
+    private static final ThreadLocal<byte[]> CHUNK = ThreadLocal.withInitial(() -> new byte[CHUNK_SIZE]);
+
+    private ArrayIOUtil() {}
+
+    /**
+     * Reads an array of big-endian ints, with the same length checks as {@link #readByteArray}.
+     *
+     * @param input  the input to read from
+     * @param length the number of values
+     * @return the values read
+     * @throws IOException if an I/O error occurs or the input ends early
+     */
+    public static int[] readIntArray(DataInput input, int length) throws IOException {
+        if (input instanceof ByteArrayDataInput arrayInput) {
+            checkAvailable(length, 4, arrayInput.remaining());
+            int[] values = new int[length];
+            arrayInput.readInts(values, 0, length);
+            return values;
+        }
+        if (input instanceof ByteBufferDataInput bufferInput) {
+            checkAvailable(length, 4, bufferInput.remaining());
+            int[] values = new int[length];
+            bufferInput.readInts(values, 0, length);
+            return values;
+        }
+        int[] values = new int[Math.min(length, CHUNK_SIZE / 4)];
+        byte[] chunk = CHUNK.get();
+        for (int done = 0; done < length; ) {
+            int count = Math.min(length - done, CHUNK_SIZE / 4);
+            input.readFully(chunk, 0, count * 4);
+            values = ensureCapacity(values, done + count, length);
+            for (int i = 0; i < count; i++) {
+                values[done + i] = (int) INT.get(chunk, i * 4);
+            }
+            done += count;
+        }
+        return values;
+    }
+
+    /**
+     * Reads an array of big-endian longs, with the same length checks as {@link #readByteArray}.
+     *
+     * @param input  the input to read from
+     * @param length the number of values
+     * @return the values read
+     * @throws IOException if an I/O error occurs or the input ends early
+     */
+    public static long[] readLongArray(DataInput input, int length) throws IOException {
+        if (input instanceof ByteArrayDataInput arrayInput) {
+            checkAvailable(length, 8, arrayInput.remaining());
+            long[] values = new long[length];
+            arrayInput.readLongs(values, 0, length);
+            return values;
+        }
+        if (input instanceof ByteBufferDataInput bufferInput) {
+            checkAvailable(length, 8, bufferInput.remaining());
+            long[] values = new long[length];
+            bufferInput.readLongs(values, 0, length);
+            return values;
+        }
+        long[] values = new long[Math.min(length, CHUNK_SIZE / 8)];
+        byte[] chunk = CHUNK.get();
+        for (int done = 0; done < length; ) {
+            int count = Math.min(length - done, CHUNK_SIZE / 8);
+            input.readFully(chunk, 0, count * 8);
+            values = ensureCapacity(values, done + count, length);
+            for (int i = 0; i < count; i++) {
+                values[done + i] = (long) LONG.get(chunk, i * 8);
+            }
+            done += count;
+        }
+        return values;
+    }
+
+    /**
+     * Reads an array of bytes.
+     * For the array and buffer readers the length is checked against the remaining bytes before allocating;
+     * other inputs are read in chunks, so a corrupt length fails at the end of the input instead of allocating
+     * the whole array up front.
+     *
+     * @param input  the input to read from
+     * @param length the number of values
+     * @return the values read
+     * @throws IOException if an I/O error occurs or the input ends early
+     */
+    public static byte[] readByteArray(DataInput input, int length) throws IOException {
+        if (input instanceof ByteArrayDataInput arrayInput) {
+            checkAvailable(length, 1, arrayInput.remaining());
+        } else if (input instanceof ByteBufferDataInput bufferInput) {
+            checkAvailable(length, 1, bufferInput.remaining());
+        } else {
+            byte[] values = new byte[Math.min(length, CHUNK_SIZE)];
+            for (int done = 0; done < length; ) {
+                int count = Math.min(length - done, CHUNK_SIZE);
+                values = ensureCapacity(values, done + count, length);
+                input.readFully(values, done, count);
+                done += count;
+            }
+            return values;
+        }
+        byte[] values = new byte[length];
+        input.readFully(values);
+        return values;
+    }
+
+    /**
+     * Reads an array of big-endian shorts, with the same length checks as {@link #readByteArray}.
+     *
+     * @param input  the input to read from
+     * @param length the number of values
+     * @return the values read
+     * @throws IOException if an I/O error occurs or the input ends early
+     */
+    public static short[] readShortArray(DataInput input, int length) throws IOException {
+        if (input instanceof ByteArrayDataInput arrayInput) {
+            checkAvailable(length, 2, arrayInput.remaining());
+        } else if (input instanceof ByteBufferDataInput bufferInput) {
+            checkAvailable(length, 2, bufferInput.remaining());
+        } else {
+            short[] values = new short[Math.min(length, CHUNK_SIZE / 2)];
+            byte[] chunk = CHUNK.get();
+            for (int done = 0; done < length; ) {
+                int count = Math.min(length - done, CHUNK_SIZE / 2);
+                input.readFully(chunk, 0, count * 2);
+                values = ensureCapacity(values, done + count, length);
+                for (int i = 0; i < count; i++) {
+                    values[done + i] = (short) SHORT.get(chunk, i * 2);
+                }
+                done += count;
+            }
+            return values;
+        }
+        short[] values = new short[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = input.readShort();
+        }
+        return values;
+    }
+
+    /**
+     * Reads an array of big-endian floats, with the same length checks as {@link #readByteArray}.
+     *
+     * @param input  the input to read from
+     * @param length the number of values
+     * @return the values read
+     * @throws IOException if an I/O error occurs or the input ends early
+     */
+    public static float[] readFloatArray(DataInput input, int length) throws IOException {
+        if (input instanceof ByteArrayDataInput arrayInput) {
+            checkAvailable(length, 4, arrayInput.remaining());
+        } else if (input instanceof ByteBufferDataInput bufferInput) {
+            checkAvailable(length, 4, bufferInput.remaining());
+        } else {
+            float[] values = new float[Math.min(length, CHUNK_SIZE / 4)];
+            byte[] chunk = CHUNK.get();
+            for (int done = 0; done < length; ) {
+                int count = Math.min(length - done, CHUNK_SIZE / 4);
+                input.readFully(chunk, 0, count * 4);
+                values = ensureCapacity(values, done + count, length);
+                for (int i = 0; i < count; i++) {
+                    values[done + i] = Float.intBitsToFloat((int) INT.get(chunk, i * 4));
+                }
+                done += count;
+            }
+            return values;
+        }
+        float[] values = new float[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = input.readFloat();
+        }
+        return values;
+    }
+
+    /**
+     * Reads an array of big-endian doubles, with the same length checks as {@link #readByteArray}.
+     *
+     * @param input  the input to read from
+     * @param length the number of values
+     * @return the values read
+     * @throws IOException if an I/O error occurs or the input ends early
+     */
+    public static double[] readDoubleArray(DataInput input, int length) throws IOException {
+        if (input instanceof ByteArrayDataInput arrayInput) {
+            checkAvailable(length, 8, arrayInput.remaining());
+        } else if (input instanceof ByteBufferDataInput bufferInput) {
+            checkAvailable(length, 8, bufferInput.remaining());
+        } else {
+            double[] values = new double[Math.min(length, CHUNK_SIZE / 8)];
+            byte[] chunk = CHUNK.get();
+            for (int done = 0; done < length; ) {
+                int count = Math.min(length - done, CHUNK_SIZE / 8);
+                input.readFully(chunk, 0, count * 8);
+                values = ensureCapacity(values, done + count, length);
+                for (int i = 0; i < count; i++) {
+                    values[done + i] = Double.longBitsToDouble((long) LONG.get(chunk, i * 8));
+                }
+                done += count;
+            }
+            return values;
+        }
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = input.readDouble();
+        }
+        return values;
+    }
+
+    /**
+     * Writes a range of ints big-endian, without a length prefix.
+     *
+     * @param output the output to write to
+     * @param values the source array
+     * @param offset the index of the first value to write
+     * @param length the number of values to write
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeInts(DataOutput output, int[] values, int offset, int length) throws IOException {
+        if (output instanceof ByteArrayDataOutput arrayOutput) {
+            arrayOutput.writeInts(values, offset, length);
+            return;
+        }
+        if (output instanceof ByteBufferDataOutput bufferOutput) {
+            bufferOutput.writeInts(values, offset, length);
+            return;
+        }
+        byte[] chunk = CHUNK.get();
+        for (int done = 0; done < length; ) {
+            int count = Math.min(length - done, CHUNK_SIZE / 4);
+            for (int i = 0; i < count; i++) {
+                INT.set(chunk, i * 4, values[offset + done + i]);
+            }
+            output.write(chunk, 0, count * 4);
+            done += count;
+        }
+    }
+
+    /**
+     * Writes a range of longs big-endian, without a length prefix.
+     *
+     * @param output the output to write to
+     * @param values the source array
+     * @param offset the index of the first value to write
+     * @param length the number of values to write
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeLongs(DataOutput output, long[] values, int offset, int length) throws IOException {
+        if (output instanceof ByteArrayDataOutput arrayOutput) {
+            arrayOutput.writeLongs(values, offset, length);
+            return;
+        }
+        if (output instanceof ByteBufferDataOutput bufferOutput) {
+            bufferOutput.writeLongs(values, offset, length);
+            return;
+        }
+        byte[] chunk = CHUNK.get();
+        for (int done = 0; done < length; ) {
+            int count = Math.min(length - done, CHUNK_SIZE / 8);
+            for (int i = 0; i < count; i++) {
+                LONG.set(chunk, i * 8, values[offset + done + i]);
+            }
+            output.write(chunk, 0, count * 8);
+            done += count;
+        }
+    }
+
+    /*
+     * Arrays read from streams start at one chunk and double as data arrives, up to the declared length,
+     * so memory is only committed for bytes that actually exist.
+     */
+    private static byte[] ensureCapacity(byte[] values, int needed, int length) {
+        return needed <= values.length ? values : Arrays.copyOf(values, grow(values.length, needed, length));
+    }
+
+    private static short[] ensureCapacity(short[] values, int needed, int length) {
+        return needed <= values.length ? values : Arrays.copyOf(values, grow(values.length, needed, length));
+    }
+
+    private static int[] ensureCapacity(int[] values, int needed, int length) {
+        return needed <= values.length ? values : Arrays.copyOf(values, grow(values.length, needed, length));
+    }
+
+    private static long[] ensureCapacity(long[] values, int needed, int length) {
+        return needed <= values.length ? values : Arrays.copyOf(values, grow(values.length, needed, length));
+    }
+
+    private static float[] ensureCapacity(float[] values, int needed, int length) {
+        return needed <= values.length ? values : Arrays.copyOf(values, grow(values.length, needed, length));
+    }
+
+    private static double[] ensureCapacity(double[] values, int needed, int length) {
+        return needed <= values.length ? values : Arrays.copyOf(values, grow(values.length, needed, length));
+    }
+
+    private static int grow(int capacity, int needed, int length) {
+        return (int) Math.min(length, Math.max(needed, capacity * 2L));
+    }
+
+    private static void checkAvailable(int length, int width, int remaining) throws EOFException {
+        if (length > remaining / width) {
+            throw new EOFException("Array of " + length + " values needs more than the " + remaining + " bytes remaining");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package net.momirealms.sparrow.nbt.util;
+
+import java.io.UTFDataFormatException;
+import java.util.Arrays;
+
+/**
+ * A bounded pool of canonical string instances, used to share compound keys between decoded tags.
+ * <p>
+ * The pool is a direct-mapped cache: each string hashes to exactly one slot, and a miss replaces whatever
+ * the slot held. Memory is therefore fixed at construction and recently seen keys win over stale ones.
+ * Lookups and replacements are lock-free; strings are immutable, so racing threads can at worst miss
+ * and store an equal instance, never observe a wrong one.
+ */
+public final class StringPool {
+
+    /**
+     * Default slot count of pools created with {@link #StringPool()}.
+     */
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    /**
+     * Default length above which strings are not pooled.
+     */
+    public static final int DEFAULT_MAX_LENGTH = 64;
+
+    private final String[] slots;
+    private final int mask;
+    private final int maxLength;
+
+    public StringPool() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param capacity  the number of slots, rounded up to a power of two
+     * @param maxLength the longest string, in chars or encoded bytes, worth pooling
+     */
+    public StringPool(int capacity, int maxLength) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30, got " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new String[size];
+        this.mask = size - 1;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns the pooled instance equal to the given string, pooling it if there is none.
+     *
+     * @param value the string to canonicalize
+     * @return an instance equal to {@code value}
+     */
+    public String intern(String value) {
+        if (value.length() > this.maxLength) {
+            return value;
+        }
+        int slot = slot(value.hashCode());
+        String pooled = this.slots[slot];
+        if (value.equals(pooled)) {
+            return pooled;
+        }
+        this.slots[slot] = value;
+        return value;
+    }
+
+    /**
+     * Returns the pooled string for the given modified UTF-8 bytes, decoding them only on a miss.
+     * A hit on an ASCII key allocates nothing.
+     *
+     * @param src    the source array
+     * @param offset the index of the first encoded byte
+     * @param length the number of encoded bytes
+     * @return the decoded, canonical string
+     * @throws UTFDataFormatException if the bytes are not valid modified UTF-8
+     */
+    public String intern(byte[] src, int offset, int length) throws UTFDataFormatException {
+        if (length > this.maxLength) {
+            return UTFUtil.decode(src, offset, length);
+        }
+        int hash = 0;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            byte b = src[i];
+            if (b < 0) {
+                return intern(UTFUtil.decode(src, offset, length));
+            }
+            hash = 31 * hash + b;
+        }
+        int slot = slot(hash);
+        String pooled = this.slots[slot];
+        if (pooled != null && pooled.length() == length && pooled.hashCode() == hash && matches(pooled, src, offset)) {
+            return pooled;
+        }
+        String value = UTFUtil.decode(src, offset, length);
+        this.slots[slot] = value;
+        return value;
+    }
+
+    /**
+     * Removes every pooled string.
+     */
+    public void clear() {
+        Arrays.fill(this.slots, null);
+    }
+
+    private static boolean matches(String pooled, byte[] src, int offset) {
+        for (int i = 0, length = pooled.length(); i < length; i++) {
+            if (pooled.charAt(i) != src[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int slot(int hash) {
+        return (hash ^ hash >>> 16) & this.mask;
+    }
+}
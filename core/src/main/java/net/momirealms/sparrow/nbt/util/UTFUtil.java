@@ -0,0 +1,268 @@
+package net.momirealms.sparrow.nbt.util;
+
+import net.momirealms.sparrow.nbt.io.ByteArrayDataInput;
+import net.momirealms.sparrow.nbt.io.ByteArrayDataOutput;
+import net.momirealms.sparrow.nbt.io.ByteBufferDataInput;
+import net.momirealms.sparrow.nbt.io.ByteBufferDataOutput;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Modified UTF-8 codec as used by {@link DataInput#readUTF()} and {@link DataOutput#writeUTF(String)}.
+ * Pure ASCII strings, which covers nearly all keys and ids, are detected eight bytes at a time and
+ * converted with a single bulk copy. Other strings are coded through per-thread scratch buffers.
+ */
+public class UTFUtil {
+
+    /**
+     * The largest number of encoded bytes a string may occupy, as its length is written as an unsigned short.
+     */
+    public static final int MAX_LENGTH = 65535;
+
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final long NON_ASCII_MASK = 0x8080808080808080L;
+    private static final ThreadLocal<byte[]> BYTE_SCRATCH = ThreadLocal.withInitial(() -> new byte[256]);
+    private static final ThreadLocal<char[]> CHAR_SCRATCH = ThreadLocal.withInitial(() -> new char[256]);
+
+    private UTFUtil() {}
+
+    /**
+     * Computes the number of bytes the modified UTF-8 encoding of the string occupies, excluding the length prefix.
+     *
+     * @param value the string to measure
+     * @return the encoded length in bytes
+     */
+    public static int utfLength(String value) {
+        int length = value.length();
+        int utfLength = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80 || c == 0) {
+                utfLength += c >= 0x800 ? 2 : 1;
+            }
+        }
+        return utfLength;
+    }
+
+    /**
+     * Encodes the string as modified UTF-8, without the length prefix.
+     *
+     * @param value  the string to encode
+     * @param dst    the destination array, which must have room for {@link #utfLength(String)} bytes
+     * @param offset the index of the first byte to write
+     * @return the index after the last byte written
+     */
+    public static int encode(String value, byte[] dst, int offset) {
+        return encode(value, utfLength(value), dst, offset);
+    }
+
+    /**
+     * Encodes the string as modified UTF-8, without the length prefix, reusing an already computed length.
+     *
+     * @param value     the string to encode
+     * @param utfLength the result of {@link #utfLength(String)} for the string
+     * @param dst       the destination array, which must have room for {@code utfLength} bytes
+     * @param offset    the index of the first byte to write
+     * @return the index after the last byte written
+     */
+    @SuppressWarnings("deprecation")
+    public static int encode(String value, int utfLength, byte[] dst, int offset) {
+        int length = value.length();
+        if (utfLength == length) {
+            // every char is in 1..0x7F, so the low bytes are the encoding
+            value.getBytes(0, length, dst, offset);
+            return offset + length;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c != 0 && c < 0x80) {
+                dst[offset++] = (byte) c;
+            } else if (c < 0x800) {
+                dst[offset++] = (byte) (0xC0 | c >> 6 & 0x1F);
+                dst[offset++] = (byte) (0x80 | c & 0x3F);
+            } else {
+                dst[offset++] = (byte) (0xE0 | c >> 12 & 0x0F);
+                dst[offset++] = (byte) (0x80 | c >> 6 & 0x3F);
+                dst[offset++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Decodes modified UTF-8 bytes into a string.
+     *
+     * @param src    the source array
+     * @param offset the index of the first encoded byte
+     * @param length the number of encoded bytes
+     * @return the decoded string
+     * @throws UTFDataFormatException if the bytes are not valid modified UTF-8
+     */
+    public static String decode(byte[] src, int offset, int length) throws UTFDataFormatException {
+        if (isAscii(src, offset, length)) {
+            return new String(src, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        char[] chars = CHAR_SCRATCH.get();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+            CHAR_SCRATCH.set(chars);
+        }
+        int count = 0;
+        int index = offset;
+        int end = offset + length;
+        while (index < end) {
+            int c = src[index] & 0xFF;
+            if (c < 0x80) {
+                index++;
+                chars[count++] = (char) c;
+            } else if ((c & 0xE0) == 0xC0) {
+                if (index + 2 > end) {
+                    throw new UTFDataFormatException("Malformed input: partial character at end");
+                }
+                int c2 = src[index + 1];
+                if ((c2 & 0xC0) != 0x80) {
+                    throw new UTFDataFormatException("Malformed input around byte " + (index - offset));
+                }
+                chars[count++] = (char) ((c & 0x1F) << 6 | c2 & 0x3F);
+                index += 2;
+            } else if ((c & 0xF0) == 0xE0) {
+                if (index + 3 > end) {
+                    throw new UTFDataFormatException("Malformed input: partial character at end");
+                }
+                int c2 = src[index + 1];
+                int c3 = src[index + 2];
+                if ((c2 & 0xC0) != 0x80 || (c3 & 0xC0) != 0x80) {
+                    throw new UTFDataFormatException("Malformed input around byte " + (index - offset));
+                }
+                chars[count++] = (char) ((c & 0x0F) << 12 | (c2 & 0x3F) << 6 | c3 & 0x3F);
+                index += 3;
+            } else {
+                throw new UTFDataFormatException("Malformed input around byte " + (index - offset));
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * Checks whether all bytes in the range are below 0x80, eight bytes at a time.
+     *
+     * @param src    the source array
+     * @param offset the index of the first byte
+     * @param length the number of bytes to check
+     * @return true if the range is pure ASCII
+     */
+    public static boolean isAscii(byte[] src, int offset, int length) {
+        int index = offset;
+        int end = offset + length;
+        for (int wordEnd = end - 7; index < wordEnd; index += 8) {
+            if (((long) LONG.get(src, index) & NON_ASCII_MASK) != 0) {
+                return false;
+            }
+        }
+        for (; index < end; index++) {
+            if (src[index] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a length-prefixed modified UTF-8 string.
+     * The array and buffer readers decode in place, other inputs go through a per-thread scratch buffer
+     * instead of the per-call allocations of {@link java.io.DataInputStream#readUTF(DataInput)}.
+     *
+     * @param input the input to read from
+     * @return the decoded string
+     * @throws IOException if an I/O error occurs or the bytes are malformed
+     */
+    public static String readUTF(DataInput input) throws IOException {
+        if (input instanceof ByteArrayDataInput || input instanceof ByteBufferDataInput) {
+            return input.readUTF();
+        }
+        int utfLength = input.readUnsignedShort();
+        byte[] bytes = scratch(utfLength);
+        input.readFully(bytes, 0, utfLength);
+        return decode(bytes, 0, utfLength);
+    }
+
+    /**
+     * Reads a length-prefixed modified UTF-8 string and canonicalizes it through the given pool.
+     * ASCII strings already in the pool are returned without decoding.
+     *
+     * @param input the input to read from
+     * @param pool  the pool to canonicalize the string with
+     * @return the pooled string
+     * @throws IOException if an I/O error occurs or the bytes are malformed
+     */
+    public static String readUTF(DataInput input, StringPool pool) throws IOException {
+        if (input instanceof ByteArrayDataInput arrayInput) {
+            return arrayInput.readUTF(pool);
+        }
+        if (input instanceof ByteBufferDataInput bufferInput) {
+            return bufferInput.readUTF(pool);
+        }
+        int utfLength = input.readUnsignedShort();
+        byte[] bytes = scratch(utfLength);
+        input.readFully(bytes, 0, utfLength);
+        return pool.intern(bytes, 0, utfLength);
+    }
+
+    /**
+     * Writes a length-prefixed modified UTF-8 string.
+     * The array and buffer writers encode in place, other outputs receive the encoding in a single
+     * bulk write from a per-thread scratch buffer.
+     *
+     * @param output the output to write to
+     * @param value  the string to write
+     * @throws IOException if an I/O error occurs or the string is too long
+     */
+    public static void writeUTF(DataOutput output, String value) throws IOException {
+        if (output instanceof ByteArrayDataOutput || output instanceof ByteBufferDataOutput) {
+            output.writeUTF(value);
+            return;
+        }
+        int utfLength = utfLength(value);
+        checkLength(utfLength);
+        byte[] bytes = scratch(2 + utfLength);
+        bytes[0] = (byte) (utfLength >>> 8);
+        bytes[1] = (byte) utfLength;
+        encode(value, utfLength, bytes, 2);
+        output.write(bytes, 0, 2 + utfLength);
+    }
+
+    /**
+     * Returns this thread's byte scratch buffer, grown to at least the given size.
+     * The content is only valid until the next call on the same thread.
+     *
+     * @param size the minimum size
+     * @return the scratch buffer
+     */
+    public static byte[] scratch(int size) {
+        byte[] bytes = BYTE_SCRATCH.get();
+        if (bytes.length < size) {
+            bytes = new byte[Math.max(size, bytes.length * 2)];
+            BYTE_SCRATCH.set(bytes);
+        }
+        return bytes;
+    }
+
+    /**
+     * Validates that an encoded length fits into the unsigned short length prefix.
+     *
+     * @param utfLength the encoded length
+     * @throws UTFDataFormatException if the string is too long to be written
+     */
+    public static void checkLength(int utfLength) throws UTFDataFormatException {
+        if (utfLength > MAX_LENGTH) {
+            throw new UTFDataFormatException("Encoded string too long: " + utfLength + " bytes");
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package net.momirealms.sparrow.nbt.visitor;
+
+import net.momirealms.sparrow.nbt.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Stream visitor that builds the visited tags, producing the same tree {@link NBT#readUnnamedTag} would.
+ * <p>
+ * Subclasses select what is kept by overriding {@link #visitEntry(TagType, String)} or
+ * {@link #visitElement(TagType, int)} and returning {@link EntryResult#SKIP} for values they don't want;
+ * values to keep must go through the super method, which opens the container for compounds and lists.
+ */
+public class CollectToTagVisitor implements StreamTagVisitor {
+
+    private final Deque<Tag> containers = new ArrayDeque<>();
+    private final Deque<String> names = new ArrayDeque<>();
+    private String lastName = "";
+    private Tag result;
+
+    /**
+     * Returns the collected root tag.
+     *
+     * @return the root tag, or null if none was visited
+     */
+    @Nullable
+    public Tag getResult() {
+        return this.result;
+    }
+
+    /**
+     * Returns the number of compounds and lists currently open.
+     *
+     * @return the current depth
+     */
+    protected int depth() {
+        return this.containers.size();
+    }
+
+    @Override
+    public ValueResult visitEnd() {
+        return this.append(EndTag.INSTANCE);
+    }
+
+    @Override
+    public ValueResult visit(String value) {
+        return this.append(new StringTag(value));
+    }
+
+    @Override
+    public ValueResult visit(byte value) {
+        return this.append(ByteTag.valueOf(value));
+    }
+
+    @Override
+    public ValueResult visit(short value) {
+        return this.append(ShortTag.valueOf(value));
+    }
+
+    @Override
+    public ValueResult visit(int value) {
+        return this.append(IntTag.valueOf(value));
+    }
+
+    @Override
+    public ValueResult visit(long value) {
+        return this.append(LongTag.valueOf(value));
+    }
+
+    @Override
+    public ValueResult visit(float value) {
+        return this.append(new FloatTag(value));
+    }
+
+    @Override
+    public ValueResult visit(double value) {
+        return this.append(new DoubleTag(value));
+    }
+
+    @Override
+    public ValueResult visit(byte[] value) {
+        return this.append(new ByteArrayTag(value));
+    }
+
+    @Override
+    public ValueResult visit(int[] value) {
+        return this.append(new IntArrayTag(value));
+    }
+
+    @Override
+    public ValueResult visit(long[] value) {
+        return this.append(new LongArrayTag(value));
+    }
+
+    @Override
+    public ValueResult visitList(TagType<?> elementType, int length) {
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public EntryResult visitElement(TagType<?> type, int index) {
+        this.enterIfContainer(type, "");
+        return EntryResult.ENTER;
+    }
+
+    @Override
+    public EntryResult visitEntry(TagType<?> type) {
+        return EntryResult.ENTER;
+    }
+
+    @Override
+    public EntryResult visitEntry(TagType<?> type, String name) {
+        this.lastName = name;
+        this.enterIfContainer(type, name);
+        return EntryResult.ENTER;
+    }
+
+    @Override
+    public ValueResult visitContainerEnd() {
+        Tag container = this.containers.pop();
+        this.lastName = this.names.pop();
+        return this.append(container);
+    }
+
+    @Override
+    public ValueResult visitRootEntry(TagType<?> type) {
+        this.enterIfContainer(type, "");
+        return ValueResult.CONTINUE;
+    }
+
+    private void enterIfContainer(TagType<?> type, String name) {
+        if (type == TagTypes.COMPOUND) {
+            this.containers.push(new CompoundTag());
+            this.names.push(name);
+        } else if (type == TagTypes.LIST) {
+            this.containers.push(new ListTag());
+            this.names.push(name);
+        }
+    }
+
+    /**
+     * Adds a finished value to the innermost open container, or makes it the result at the root.
+     *
+     * @param tag the finished value
+     * @return how to continue
+     */
+    protected ValueResult append(Tag tag) {
+        Tag parent = this.containers.peek();
+        if (parent == null) {
+            this.result = tag;
+        } else if (parent instanceof CompoundTag compound) {
+            compound.put(this.lastName, tag);
+        } else {
+            ((ListTag) parent).addAndUnwrap(tag);
+        }
+        return ValueResult.CONTINUE;
+    }
+}
@@ -99,7 +99,7 @@ public class CompactStringTagVisitor implements TagVisitor {
             if (i != 0) {
                 this.builder.append(',');
             }
-            this.builder.append((new CompactStringTagVisitor()).visit(element.get(i)));
+            element.get(i).accept(this);
         }
         this.builder.append(']');
     }
@@ -109,17 +109,19 @@ public class CompactStringTagVisitor implements TagVisitor {
         this.builder.append('{');
         List<String> list = new ArrayList<>(compound.keySet());
         Collections.sort(list);
-        for (String string : list) {
-            if (this.builder.length() != 1) {
+        for (int i = 0; i < list.size(); i++) {
+            if (i != 0) {
                 this.builder.append(',');
             }
-            this.builder.append(handleEscape(string)).append(':').append((new CompactStringTagVisitor()).visit(Objects.requireNonNull(compound.get(string))));
+            String string = list.get(i);
+            this.builder.append(handleEscape(string)).append(':');
+            Objects.requireNonNull(compound.get(string)).accept(this);
         }
         this.builder.append('}');
     }
 
     protected static String handleEscape(String name) {
-        return SIMPLE_VALUE.matcher(name).matches() ? name : StringTag.quoteAndEscape(name);
+        return SNBTWriter.isSimpleKey(name) ? name : StringTag.quoteAndEscape(name);
     }
 
     @Override
@@ -0,0 +1,219 @@
+package net.momirealms.sparrow.nbt.visitor;
+
+import net.momirealms.sparrow.nbt.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Writes tags as indented, human-readable SNBT in a single pass.
+ * <p>
+ * With the default settings the text is the same as {@link PrettyStringTagVisitor} produces: three spaces per
+ * level, {@code \r\n} line breaks, compound entries prefixed with their type name, and arrays without suffixes.
+ * The writer tracks the nesting depth and writes each line's indentation directly, instead of re-indenting
+ * every child's text at each level. Line breaks inside strings are indented too, as before.
+ * Long arrays can be cut off after a number of elements, which keeps output on large tags such as chunk
+ * sections readable.
+ */
+public class PrettySNBTWriter extends SNBTWriter {
+    private final String indent;
+    private final String lineSeparator;
+    private final int maxArrayElements;
+    private int depth;
+
+    /**
+     * Creates a writer with the default layout.
+     *
+     * @param output the output to write to
+     */
+    public PrettySNBTWriter(@NotNull Appendable output) {
+        this(output, "   ", "\r\n", Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * Creates a writer.
+     *
+     * @param output           the output to write to
+     * @param indent           the indentation added per nesting level
+     * @param lineSeparator    the line separator
+     * @param maxArrayElements the number of array elements to write before the rest are summarized
+     * @param sortKeys         whether to write compound entries sorted by key
+     */
+    public PrettySNBTWriter(@NotNull Appendable output, @NotNull String indent, @NotNull String lineSeparator, int maxArrayElements, boolean sortKeys) {
+        super(output, sortKeys);
+        if (maxArrayElements < 0) {
+            throw new IllegalArgumentException("maxArrayElements must not be negative: " + maxArrayElements);
+        }
+        this.indent = indent;
+        this.lineSeparator = lineSeparator;
+        this.maxArrayElements = maxArrayElements;
+    }
+
+    @Override
+    public void visitString(StringTag element) {
+        int start = this.builder.length();
+        this.writeQuoted(element.getAsString());
+        this.indentLineBreaks(start, this.depth);
+    }
+
+    @Override
+    public void visitByteArray(ByteArrayTag element) {
+        byte[] array = element.getAsByteArray();
+        int shown = Math.min(array.length, this.maxArrayElements);
+        this.builder.append('[');
+        for (int i = 0; i < shown; i++) {
+            if (i != 0) {
+                this.builder.append(", ");
+            }
+            this.builder.append(array[i]);
+            this.flushIfFull();
+        }
+        this.endArray(shown, array.length);
+    }
+
+    @Override
+    public void visitIntArray(IntArrayTag element) {
+        int[] array = element.getAsIntArray();
+        int shown = Math.min(array.length, this.maxArrayElements);
+        this.builder.append('[');
+        for (int i = 0; i < shown; i++) {
+            if (i != 0) {
+                this.builder.append(", ");
+            }
+            this.builder.append(array[i]);
+            this.flushIfFull();
+        }
+        this.endArray(shown, array.length);
+    }
+
+    @Override
+    public void visitLongArray(LongArrayTag element) {
+        long[] array = element.getAsLongArray();
+        int shown = Math.min(array.length, this.maxArrayElements);
+        this.builder.append('[');
+        for (int i = 0; i < shown; i++) {
+            if (i != 0) {
+                this.builder.append(", ");
+            }
+            this.builder.append(array[i]);
+            this.flushIfFull();
+        }
+        this.endArray(shown, array.length);
+    }
+
+    @Override
+    public void visitList(ListTag element) {
+        this.builder.append('[').append(this.lineSeparator);
+        if (element.isEmpty()) {
+            this.endEmptyContainer(']');
+            return;
+        }
+        this.depth++;
+        for (int i = 0; i < element.size(); i++) {
+            if (i != 0) {
+                this.builder.append(',').append(this.lineSeparator);
+            }
+            this.writeIndent();
+            element.get(i).accept(this);
+            this.flushIfFull();
+        }
+        this.endContainer(']');
+    }
+
+    @Override
+    public void visitCompound(CompoundTag compound) {
+        this.builder.append('{').append(this.lineSeparator);
+        if (compound.isEmpty()) {
+            this.endEmptyContainer('}');
+            return;
+        }
+        this.depth++;
+        if (this.sortKeys && compound.size() > 1) {
+            String[] keys = compound.keySet().toArray(new String[0]);
+            Arrays.sort(keys);
+            for (int i = 0; i < keys.length; i++) {
+                if (i != 0) {
+                    this.builder.append(',').append(this.lineSeparator);
+                }
+                this.writeEntry(keys[i], compound.get(keys[i]));
+            }
+        } else {
+            boolean first = true;
+            for (Map.Entry<String, Tag> entry : compound.entrySet()) {
+                if (!first) {
+                    this.builder.append(',').append(this.lineSeparator);
+                }
+                first = false;
+                this.writeEntry(entry.getKey(), entry.getValue());
+            }
+        }
+        this.endContainer('}');
+    }
+
+    private void writeEntry(String key, Tag value) {
+        this.writeIndent();
+        this.builder.append(value.getType().name()).append("(\"");
+        if (isSimpleKey(key)) {
+            this.builder.append(key);
+        } else {
+            int start = this.builder.length();
+            this.writeQuoted(key);
+            // the key is part of its compound's text, so its line breaks sit one level further out than the value's
+            this.indentLineBreaks(start, this.depth - 1);
+        }
+        this.builder.append("\"): ");
+        value.accept(this);
+        this.flushIfFull();
+    }
+
+    private void endArray(int shown, int length) {
+        if (shown < length) {
+            if (shown != 0) {
+                this.builder.append(", ");
+            }
+            this.builder.append("... ").append(length - shown).append(" more");
+        }
+        this.builder.append(']');
+    }
+
+    private void endContainer(char close) {
+        this.depth--;
+        this.builder.append(this.lineSeparator);
+        this.writeIndent();
+        this.builder.append(close);
+    }
+
+    /**
+     * An empty container keeps the blank line between its brackets, indented to the container's own level.
+     */
+    private void endEmptyContainer(char close) {
+        this.writeIndent();
+        this.builder.append(this.lineSeparator);
+        this.writeIndent();
+        this.builder.append(close);
+    }
+
+    private void writeIndent() {
+        for (int i = 0; i < this.depth; i++) {
+            this.builder.append(this.indent);
+        }
+    }
+
+    /**
+     * Indents the line breaks written since {@code start} to the given depth.
+     */
+    private void indentLineBreaks(int start, int depth) {
+        if (depth == 0 || this.lineSeparator.isEmpty()) {
+            return;
+        }
+        StringBuilder builder = this.builder;
+        String prefix = this.indent.repeat(depth);
+        int index = start;
+        while ((index = builder.indexOf(this.lineSeparator, index)) != -1) {
+            index += this.lineSeparator.length();
+            builder.insert(index, prefix);
+            index += prefix.length();
+        }
+    }
+}
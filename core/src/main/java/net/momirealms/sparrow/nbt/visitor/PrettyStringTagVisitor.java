@@ -2,7 +2,7 @@ package net.momirealms.sparrow.nbt.visitor;
 
 import net.momirealms.sparrow.nbt.*;
 
-import java.util.*;
+import java.util.StringJoiner;
 
 public class PrettyStringTagVisitor extends CompactStringTagVisitor {
 
@@ -44,26 +44,11 @@ public class PrettyStringTagVisitor extends CompactStringTagVisitor {
 
     @Override
     public void visitList(ListTag element) {
-        this.builder.append("[\r\n");
-        StringJoiner joiner = new StringJoiner(",\r\n");
-        for (Tag tag : element) {
-            joiner.add("   " + (new PrettyStringTagVisitor().visit(tag)).replaceAll("\r\n", "\r\n   "));
-        }
-        this.builder.append(joiner);
-        this.builder.append("\r\n]");
+        new PrettySNBTWriter(this.builder).visitList(element);
     }
 
     @Override
     public void visitCompound(CompoundTag compound) {
-        this.builder.append("{\r\n");
-        List<String> list = new ArrayList<>(compound.keySet());
-        Collections.sort(list);
-        StringJoiner joiner = new StringJoiner(",\r\n");
-        for (String string : list) {
-            Tag tag = Objects.requireNonNull(compound.get(string));
-            joiner.add("   " + tag.getType().name() + "(\"" + handleEscape(string) + "\"): " + (new PrettyStringTagVisitor()).visit(tag).replaceAll("\r\n", "\r\n   "));
-        }
-        this.builder.append(joiner);
-        this.builder.append("\r\n}");
+        new PrettySNBTWriter(this.builder).visitCompound(compound);
     }
 }
@@ -0,0 +1,278 @@
+package net.momirealms.sparrow.nbt.visitor;
+
+import net.momirealms.sparrow.nbt.*;
+import net.momirealms.sparrow.nbt.jfr.SNBTFormatEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Writes tags as compact SNBT in a single pass, producing the same text as {@link CompactStringTagVisitor}.
+ * <p>
+ * Nested tags are written by this same visitor, so no intermediate strings are built per child.
+ * When the output is a {@link StringBuilder} the text goes straight into it; any other {@link Appendable}
+ * receives it in chunks of about {@value #FLUSH_THRESHOLD} characters, and I/O errors are rethrown as
+ * {@link UncheckedIOException}. Compound keys are sorted by default, which costs one array sort per compound;
+ * with sorting disabled entries are written in the compound's iteration order.
+ */
+public class SNBTWriter implements TagVisitor {
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    private final Appendable output;
+    protected final StringBuilder builder;
+    protected final boolean sortKeys;
+    private long flushed;
+
+    /**
+     * Creates a writer with sorted compound keys.
+     *
+     * @param output the output to write to
+     */
+    public SNBTWriter(@NotNull Appendable output) {
+        this(output, true);
+    }
+
+    /**
+     * Creates a writer.
+     *
+     * @param output   the output to write to
+     * @param sortKeys whether to write compound entries sorted by key
+     */
+    public SNBTWriter(@NotNull Appendable output, boolean sortKeys) {
+        this.output = output;
+        this.sortKeys = sortKeys;
+        this.builder = output instanceof StringBuilder stringBuilder ? stringBuilder : new StringBuilder();
+    }
+
+    /**
+     * Writes a tag to the output.
+     *
+     * @param tag the tag to write
+     * @throws UncheckedIOException if the output fails
+     */
+    public void write(@NotNull Tag tag) {
+        SNBTFormatEvent event = new SNBTFormatEvent();
+        if (!event.isEnabled()) {
+            tag.accept(this);
+            this.flush();
+            return;
+        }
+        long start = this.flushed + this.builder.length();
+        event.begin();
+        tag.accept(this);
+        this.flush();
+        event.end();
+        if (event.shouldCommit()) {
+            event.characters = this.flushed + this.builder.length() - start;
+            event.pretty = this instanceof PrettySNBTWriter;
+            event.setRoot(tag);
+            event.commit();
+        }
+    }
+
+    /**
+     * Checks whether a compound key can be written without quotes.
+     *
+     * @param key the key to check
+     * @return true if the key is not empty and consists of {@code [A-Za-z0-9._+-]} only
+     */
+    public static boolean isSimpleKey(String key) {
+        if (key.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (!TagParser.isAllowedInUnquotedString(key.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void visitString(StringTag element) {
+        this.writeQuoted(element.getAsString());
+    }
+
+    @Override
+    public void visitByte(ByteTag element) {
+        this.builder.append(element.getAsByte()).append('b');
+    }
+
+    @Override
+    public void visitShort(ShortTag element) {
+        this.builder.append(element.getAsShort()).append('s');
+    }
+
+    @Override
+    public void visitInt(IntTag element) {
+        this.builder.append(element.getAsInt());
+    }
+
+    @Override
+    public void visitLong(LongTag element) {
+        this.builder.append(element.getAsLong()).append('L');
+    }
+
+    @Override
+    public void visitFloat(FloatTag element) {
+        this.builder.append(element.getAsFloat()).append('f');
+    }
+
+    @Override
+    public void visitDouble(DoubleTag element) {
+        this.builder.append(element.getAsDouble()).append('d');
+    }
+
+    @Override
+    public void visitByteArray(ByteArrayTag element) {
+        StringBuilder builder = this.builder;
+        builder.append("[B;");
+        byte[] array = element.getAsByteArray();
+        for (int i = 0; i < array.length; i++) {
+            if (i != 0) {
+                builder.append(',');
+            }
+            builder.append(array[i]).append('B');
+            this.flushIfFull();
+        }
+        builder.append(']');
+    }
+
+    @Override
+    public void visitIntArray(IntArrayTag element) {
+        StringBuilder builder = this.builder;
+        builder.append("[I;");
+        int[] array = element.getAsIntArray();
+        for (int i = 0; i < array.length; i++) {
+            if (i != 0) {
+                builder.append(',');
+            }
+            builder.append(array[i]);
+            this.flushIfFull();
+        }
+        builder.append(']');
+    }
+
+    @Override
+    public void visitLongArray(LongArrayTag element) {
+        StringBuilder builder = this.builder;
+        builder.append("[L;");
+        long[] array = element.getAsLongArray();
+        for (int i = 0; i < array.length; i++) {
+            if (i != 0) {
+                builder.append(',');
+            }
+            builder.append(array[i]).append('L');
+            this.flushIfFull();
+        }
+        builder.append(']');
+    }
+
+    @Override
+    public void visitList(ListTag element) {
+        this.builder.append('[');
+        for (int i = 0; i < element.size(); i++) {
+            if (i != 0) {
+                this.builder.append(',');
+            }
+            element.get(i).accept(this);
+            this.flushIfFull();
+        }
+        this.builder.append(']');
+    }
+
+    @Override
+    public void visitCompound(CompoundTag compound) {
+        this.builder.append('{');
+        if (this.sortKeys && compound.size() > 1) {
+            String[] keys = compound.keySet().toArray(new String[0]);
+            Arrays.sort(keys);
+            for (int i = 0; i < keys.length; i++) {
+                if (i != 0) {
+                    this.builder.append(',');
+                }
+                this.writeEntry(keys[i], compound.get(keys[i]));
+            }
+        } else {
+            boolean first = true;
+            for (Map.Entry<String, Tag> entry : compound.entrySet()) {
+                if (!first) {
+                    this.builder.append(',');
+                }
+                first = false;
+                this.writeEntry(entry.getKey(), entry.getValue());
+            }
+        }
+        this.builder.append('}');
+    }
+
+    @Override
+    public void visitEnd(EndTag element) {
+        this.builder.append("END");
+    }
+
+    private void writeEntry(String key, Tag value) {
+        if (isSimpleKey(key)) {
+            this.builder.append(key);
+        } else {
+            this.writeQuoted(key);
+        }
+        this.builder.append(':');
+        value.accept(this);
+        this.flushIfFull();
+    }
+
+    /**
+     * Same output as {@link StringTag#quoteAndEscape(String)}, written in place.
+     */
+    protected void writeQuoted(String value) {
+        StringBuilder builder = this.builder;
+        int start = builder.length();
+        builder.append(' ');
+        char quoteChar = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') {
+                builder.append('\\');
+            } else if (c == '"' || c == '\'') {
+                if (quoteChar == 0) {
+                    quoteChar = c == '"' ? '\'' : '"';
+                }
+                if (quoteChar == c) {
+                    builder.append('\\');
+                }
+            }
+            builder.append(c);
+        }
+        if (quoteChar == 0) {
+            quoteChar = '"';
+        }
+        builder.setCharAt(start, quoteChar);
+        builder.append(quoteChar);
+    }
+
+    /**
+     * Hands the buffered text to the output once enough has accumulated. Called after each container element.
+     */
+    protected void flushIfFull() {
+        if (this.builder.length() >= FLUSH_THRESHOLD && this.builder != this.output) {
+            this.flush();
+        }
+    }
+
+    private void flush() {
+        if (this.builder == this.output) {
+            return;
+        }
+        try {
+            this.output.append(this.builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.flushed += this.builder.length();
+        this.builder.setLength(0);
+    }
+}
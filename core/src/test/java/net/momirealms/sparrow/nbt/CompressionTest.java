@@ -0,0 +1,74 @@
+package net.momirealms.sparrow.nbt;
+
+import net.momirealms.sparrow.nbt.io.Compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+public final class CompressionTest {
+
+    public static void main(String[] args) throws IOException {
+        byte[] data = new byte[100_000];
+        new Random(42).nextBytes(data);
+        Arrays.fill(data, 50_000, 100_000, (byte) 7);
+        for (Compression compression : Compression.values()) {
+            for (byte[] input : new byte[][]{new byte[0], data}) {
+                byte[] compressed = compression.compress(input, 0, input.length);
+                check(Arrays.equals(input, compression.decompress(compressed, 0, compressed.length)), compression + " round trip of " + input.length + " bytes");
+                check(Arrays.equals(input, readStream(compression, compressed)), compression + " stream round trip of " + input.length + " bytes");
+                if (compression == Compression.NONE) {
+                    continue;
+                }
+                check(Compression.detect(compressed, 0, compressed.length) == compression, compression + " detection");
+                byte[] truncated = Arrays.copyOf(compressed, compressed.length - 5);
+                expectFailure(() -> compression.decompress(truncated, 0, truncated.length), compression + " truncated");
+                expectFailure(() -> readStream(compression, truncated), compression + " truncated stream");
+            }
+            if (compression != Compression.NONE) {
+                byte[] garbage = compression.compress(data, 0, data.length);
+                for (int i = 12; i < 40; i++) {
+                    garbage[i] ^= (byte) 0x5A;
+                }
+                expectFailure(() -> compression.decompress(garbage, 0, garbage.length), compression + " corrupt");
+            }
+        }
+
+        CompoundTag tag = new CompoundTag();
+        tag.putString("name", "level");
+        tag.putLongArray("seeds", new long[]{1, 2, 3});
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        NBT.writeCompressed(tag, output, Compression.GZIP, Compression.DEFAULT_LEVEL, true);
+        check(tag.equals(NBT.readCompressed(new ByteArrayInputStream(output.toByteArray()), Compression.GZIP, true)), "compressed compound");
+        System.out.println("CompressionTest passed");
+    }
+
+    private static byte[] readStream(Compression compression, byte[] compressed) throws IOException {
+        try (InputStream input = compression.newInputStream(new ByteArrayInputStream(compressed))) {
+            return input.readAllBytes();
+        }
+    }
+
+    private static void expectFailure(IOAction action, String message) {
+        try {
+            action.run();
+        } catch (IOException expected) {
+            return;
+        }
+        throw new AssertionError(message + ": no IOException");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    private interface IOAction {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,82 @@
+package net.momirealms.sparrow.nbt;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+public final class LazyCompoundTest {
+
+    public static void main(String[] args) throws IOException {
+        CompoundTag tag = sample();
+        byte[] bytes = NBT.toBytes(tag);
+
+        // untouched or only read, the compound writes back its original bytes
+        CompoundTag lazy = NBT.fromBytesLazily(bytes);
+        check(Arrays.equals(bytes, NBT.toBytes(lazy)), "untouched write-back");
+        check(lazy.getInt("DataVersion") == 3955 && lazy.getCompound("Level").getString("Name").equals("world"), "lookups");
+        check(Arrays.equals(bytes, NBT.toBytes(lazy)), "write-back after reads");
+        check(tag.equals(lazy) && lazy.equals(tag) && tag.hashCode() == lazy.hashCode(), "equality with the eager compound");
+
+        // each mutation, applied to a lazy and an eager compound, must end up in the written bytes
+        lazy = NBT.fromBytesLazily(bytes);
+        CompoundTag eager = NBT.fromBytes(bytes);
+        for (CompoundTag target : new CompoundTag[]{lazy, eager}) {
+            target.putInt("DataVersion", 4000);
+            target.remove("Removed");
+            target.putString("Added", "new");
+            target.getCompound("Level").putString("Name", "renamed");
+            target.getCompound("Level").getCompound("Nested").putLong("Time", 99L);
+            target.getList("Items").getCompound(1).putByte("Count", (byte) 64);
+            target.getCompound("Untouched");
+        }
+        byte[] written = NBT.toBytes(lazy);
+        check(eager.equals(NBT.fromBytes(written)), "mutations written back");
+        check(eager.equals(NBT.fromBytesLazily(written)), "lazy read of the written bytes");
+
+        // a repeated key resolves to its last entry, as in eager decoding
+        byte[] duplicated = {10, 3, 0, 1, 'k', 0, 0, 0, 1, 3, 0, 1, 'k', 0, 0, 0, 2, 0};
+        CompoundTag duplicateLazy = NBT.fromBytesLazily(duplicated);
+        check(duplicateLazy.size() == 1 && duplicateLazy.getInt("k") == 2 && NBT.fromBytes(duplicated).getInt("k") == 2, "duplicate key");
+
+        // truncated input is rejected when indexing, not when a value is first read
+        for (int length = 1; length < bytes.length; length += 5) {
+            try {
+                NBT.fromBytesLazily(bytes, 0, length);
+                throw new AssertionError("truncated to " + length + " bytes: no error");
+            } catch (IOException | RuntimeException expected) {
+                // the compound decoder wraps nested failures in RuntimeException
+            }
+        }
+        System.out.println("LazyCompoundTest passed");
+    }
+
+    private static CompoundTag sample() {
+        CompoundTag nested = new CompoundTag();
+        nested.putLong("Time", 1L);
+        nested.putIntArray("Ints", new int[]{1, 2, 3});
+        CompoundTag level = new CompoundTag();
+        level.putString("Name", "world");
+        level.put("Nested", nested);
+        ListTag items = new ListTag();
+        for (int i = 0; i < 3; i++) {
+            CompoundTag item = new CompoundTag();
+            item.putString("id", "minecraft:item_" + i);
+            item.putByte("Count", (byte) 1);
+            items.add(item);
+        }
+        CompoundTag untouched = new CompoundTag();
+        untouched.putDouble("Value", 0.5);
+        CompoundTag tag = new CompoundTag();
+        tag.putInt("DataVersion", 3955);
+        tag.put("Level", level);
+        tag.put("Items", items);
+        tag.putString("Removed", "gone");
+        tag.put("Untouched", untouched);
+        return tag;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package net.momirealms.sparrow.nbt;
+
+import net.momirealms.sparrow.nbt.io.ByteArrayDataInput;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+public final class NBTReaderTest {
+
+    public static void main(String[] args) throws IOException {
+        CompoundTag tag = sample();
+        byte[] bytes = NBT.toBytes(tag, true);
+
+        // rebuilding the tree from events gives back the original, from both kinds of input
+        NBTReader reader = new NBTReader(new ByteArrayDataInput(bytes), true);
+        reader.next();
+        check(tag.equals(rebuild(reader)), "rebuilt from events");
+        check(reader.next() == NBTReader.Event.END_DOCUMENT, "end of document");
+        NBTReader streamReader = new NBTReader(new DataInputStream(new ByteArrayInputStream(bytes)), true);
+        streamReader.next();
+        check(tag.equals(rebuild(streamReader)), "rebuilt from a stream");
+
+        // skipping entries and materializing a subtree leave the reader in step
+        reader = new NBTReader(new ByteArrayDataInput(bytes), true);
+        check(reader.next() == NBTReader.Event.START_COMPOUND, "root");
+        int dataVersion = -1;
+        Tag level = null;
+        while (reader.next() == NBTReader.Event.NAME) {
+            switch (reader.name()) {
+                case "DataVersion" -> {
+                    reader.next();
+                    dataVersion = reader.intValue();
+                }
+                case "Level" -> level = reader.readTag();
+                default -> reader.skip();
+            }
+        }
+        check(dataVersion == 3955 && tag.get("Level").equals(level), "skip and readTag");
+
+        // numeric accessors convert like the tags do
+        reader = new NBTReader(new ByteArrayDataInput(NBT.toBytes(new DoubleTag(-2.5), false)), false);
+        reader.next();
+        check(reader.intValue() == new DoubleTag(-2.5).getAsInt(), "fractional to int");
+
+        // truncated input fails with an IOException at whichever event runs out of bytes
+        for (int length = 1; length < bytes.length; length += 7) {
+            NBTReader truncated = new NBTReader(new ByteArrayDataInput(Arrays.copyOf(bytes, length)), true);
+            try {
+                truncated.next();
+                rebuild(truncated);
+                truncated.next();
+                throw new AssertionError("truncated to " + length + " bytes: no IOException");
+            } catch (IOException expected) {
+                // expected
+            }
+        }
+        System.out.println("NBTReaderTest passed");
+    }
+
+    private static Tag rebuild(NBTReader reader) throws IOException {
+        switch (reader.event()) {
+            case START_COMPOUND -> {
+                CompoundTag compound = new CompoundTag();
+                while (reader.next() == NBTReader.Event.NAME) {
+                    String name = reader.name();
+                    reader.next();
+                    compound.put(name, rebuild(reader));
+                }
+                return compound;
+            }
+            case START_LIST -> {
+                ListTag list = new ListTag();
+                while (reader.next() != NBTReader.Event.END) {
+                    list.add(rebuild(reader));
+                }
+                return list;
+            }
+            default -> {
+                return reader.readTag();
+            }
+        }
+    }
+
+    private static CompoundTag sample() {
+        CompoundTag level = new CompoundTag();
+        level.putString("Name", "world é世");
+        level.putLongArray("Seeds", new long[]{1, -2, Long.MAX_VALUE});
+        ListTag items = new ListTag();
+        for (int i = 0; i < 5; i++) {
+            CompoundTag item = new CompoundTag();
+            item.putString("id", "minecraft:item_" + i);
+            item.putByte("Count", (byte) i);
+            items.add(item);
+        }
+        level.put("Items", items);
+        ListTag position = new ListTag();
+        position.add(new DoubleTag(1.5));
+        position.add(new DoubleTag(-64));
+        level.put("Pos", position);
+        level.put("Empty", new ListTag());
+        CompoundTag tag = new CompoundTag();
+        tag.putInt("DataVersion", 3955);
+        tag.putByteArray("Bytes", new byte[]{1, 2, 3});
+        tag.putIntArray("Ints", new int[]{4, 5});
+        tag.put("Level", level);
+        tag.putShort("Short", (short) -3);
+        tag.putFloat("Float", 0.25f);
+        return tag;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
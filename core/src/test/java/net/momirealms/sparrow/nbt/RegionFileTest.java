@@ -0,0 +1,113 @@
+package net.momirealms.sparrow.nbt;
+
+import net.momirealms.sparrow.nbt.io.Compression;
+import net.momirealms.sparrow.nbt.region.RegionFile;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public final class RegionFileTest {
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("region-test");
+        Path path = directory.resolve("r.0.0.mca");
+        CompoundTag small = chunk(0, 100);
+        CompoundTag grown = chunk(1, 20_000);
+        // random bytes do not compress, so this needs more than the 255 sectors a region entry can address
+        byte[] noise = new byte[1_200_000];
+        new Random(42).nextBytes(noise);
+        CompoundTag oversized = chunk(2, 10);
+        oversized.putByteArray("Noise", noise);
+
+        try (RegionFile region = new RegionFile(path)) {
+            region.write(0, 0, small);
+            region.write(31, 31, small, Compression.GZIP, Compression.DEFAULT_LEVEL);
+            region.write(5, 7, small, Compression.NONE, Compression.DEFAULT_LEVEL);
+            region.write(1, 0, oversized, Compression.NONE, Compression.DEFAULT_LEVEL);
+            region.write(0, 0, grown);
+            check(grown.equals(region.read(0, 0)), "rewritten chunk");
+            check(region.read(2, 2) == null && !region.hasChunk(2, 2), "missing chunk");
+        }
+        check(Files.exists(directory.resolve("c.1.0.mcc")), "oversized chunk stored externally");
+
+        try (RegionFile region = new RegionFile(path, true)) {
+            check(grown.equals(region.read(0, 0)), "reopened grown chunk");
+            check(small.equals(region.read(31, 31)), "reopened gzip chunk");
+            check(small.equals(region.read(5, 7)), "reopened uncompressed chunk");
+            check(oversized.equals(region.read(1, 0)), "reopened oversized chunk");
+            check(region.timestamp(0, 0) > 0, "timestamp");
+        }
+
+        try (RegionFile region = new RegionFile(path)) {
+            region.delete(5, 7);
+            region.delete(1, 0);
+        }
+        try (RegionFile region = new RegionFile(path, true)) {
+            check(!region.hasChunk(5, 7) && region.read(1, 0) == null, "deleted chunks");
+            check(small.equals(region.read(31, 31)), "chunk kept after deletes");
+        }
+        check(!Files.exists(directory.resolve("c.1.0.mcc")), "external file removed with its chunk");
+
+        // a chunk whose stored length runs past its sectors is corrupt, not silently cut short
+        long chunkOffset = sectorOf(path, 31, 31);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(chunkOffset);
+            file.writeInt(Integer.MAX_VALUE);
+        }
+        try (RegionFile region = new RegionFile(path, true)) {
+            expectFailure(region, 31, 31, "oversized chunk length");
+            check(grown.equals(region.read(0, 0)), "intact chunk next to a corrupt one");
+        }
+
+        // cutting the file short drops the chunks that no longer fit instead of failing to open
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(2 * RegionFile.SECTOR_SIZE + 100);
+        }
+        try (RegionFile region = new RegionFile(path, true)) {
+            check(region.read(0, 0) == null, "truncated region");
+        }
+        Files.delete(path);
+        Files.delete(directory);
+        System.out.println("RegionFileTest passed");
+    }
+
+    private static CompoundTag chunk(int seed, int entries) {
+        Random random = new Random(seed);
+        CompoundTag tag = new CompoundTag();
+        tag.putInt("DataVersion", 3955);
+        ListTag sections = new ListTag();
+        for (int i = 0; i < entries; i++) {
+            CompoundTag section = new CompoundTag();
+            section.putByte("Y", (byte) i);
+            section.putLong("Value", random.nextLong());
+            sections.add(section);
+        }
+        tag.put("sections", sections);
+        return tag;
+    }
+
+    private static long sectorOf(Path path, int chunkX, int chunkZ) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "r")) {
+            file.seek(4L * ((chunkX & 31) + (chunkZ & 31) * 32));
+            return (long) (file.readInt() >>> 8) * RegionFile.SECTOR_SIZE;
+        }
+    }
+
+    private static void expectFailure(RegionFile region, int chunkX, int chunkZ, String message) {
+        try {
+            region.read(chunkX, chunkZ);
+        } catch (IOException expected) {
+            return;
+        }
+        throw new AssertionError(message + ": no IOException");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package net.momirealms.sparrow.nbt;
+
+import net.momirealms.sparrow.nbt.visitor.SNBTWriter;
+
+import java.util.Random;
+
+public final class SNBTTest {
+
+    public static void main(String[] args) {
+        CompoundTag tag = sample();
+        String snbt = tag.getAsString();
+        check(tag.equals(TagParser.parseCompound(snbt)), "round trip of " + snbt);
+        StringBuilder unsorted = new StringBuilder();
+        new SNBTWriter(unsorted, false).write(tag);
+        check(tag.equals(TagParser.parseCompound(unsorted.toString())), "round trip without sorted keys");
+
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            Tag generated = randomTag(random, 0);
+            // written through SNBTWriter, since a root StringTag's getAsString() is its raw value
+            StringBuilder builder = new StringBuilder();
+            new SNBTWriter(builder).write(generated);
+            check(generated.equals(TagParser.parseTag(builder.toString())), "round trip of " + builder);
+        }
+
+        // hand-written input the writer never produces
+        check(TagParser.parseTag(" { a : 1b , 'b\\'c' : \"d\\\"e\" , l : [ 1 , 2 , ] , } ").equals(TagParser.parseTag("{a:1b,\"b'c\":'d\"e',l:[1,2]}")), "whitespace, quotes and trailing commas");
+        check(TagParser.parseTag("true").equals(ByteTag.ONE) && TagParser.parseTag("300b").equals(new StringTag("300b")), "booleans and out-of-range numbers");
+        check(TagParser.parseTag("1.5").equals(new DoubleTag(1.5)) && TagParser.parseTag("1.5f").equals(new FloatTag(1.5f)), "decimals");
+
+        String[] invalid = {
+                "", "{", "{a:1", "{a 1}", "[1,2", "\"unterminated", "{a:1}}", "[Q;1]",
+                "[B;1,2]", "[I;1b]", "[L;1]", "[B;300b]", "{:1}", "'\\q'", "[".repeat(600) + "]".repeat(600)
+        };
+        for (String input : invalid) {
+            try {
+                TagParser.parseTag(input);
+                throw new AssertionError("accepted invalid SNBT: " + input);
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+        System.out.println("SNBTTest passed");
+    }
+
+    private static CompoundTag sample() {
+        CompoundTag tag = new CompoundTag();
+        tag.putByte("byte", (byte) -1);
+        tag.putShort("short", Short.MIN_VALUE);
+        tag.putInt("int", Integer.MAX_VALUE);
+        tag.putLong("long", Long.MIN_VALUE);
+        tag.putFloat("float", 3.4028235E38f);
+        tag.putDouble("double", -1.0E-300);
+        tag.putString("quotes", "it's \"quoted\"");
+        tag.putString("escapes", "back\\slash\nnew line\ttab");
+        tag.putString("unicode", "é世🙂");
+        tag.putString("number-like", "123");
+        tag.putString("", "empty key");
+        tag.putString("key with spaces", "value");
+        tag.putByteArray("bytes", new byte[]{-128, 0, 127});
+        tag.putIntArray("ints", new int[]{});
+        tag.putLongArray("longs", new long[]{Long.MAX_VALUE});
+        ListTag mixed = new ListTag();
+        mixed.add(IntTag.valueOf(1));
+        mixed.add(new StringTag("x"));
+        mixed.add(new CompoundTag());
+        tag.put("mixed", mixed);
+        ListTag nested = new ListTag();
+        nested.add(new ListTag());
+        nested.add(tag.copy());
+        tag.put("nested", nested);
+        return tag;
+    }
+
+    private static Tag randomTag(Random random, int depth) {
+        int type = depth > 3 ? random.nextInt(10) : random.nextInt(12);
+        switch (type) {
+            case 0 -> {
+                return ByteTag.valueOf((byte) random.nextInt());
+            }
+            case 1 -> {
+                return ShortTag.valueOf((short) random.nextInt());
+            }
+            case 2 -> {
+                return IntTag.valueOf(random.nextInt());
+            }
+            case 3 -> {
+                return LongTag.valueOf(random.nextLong());
+            }
+            case 4 -> {
+                return new FloatTag(random.nextFloat() * random.nextInt());
+            }
+            case 5 -> {
+                return new DoubleTag(random.nextGaussian() * Math.pow(10, random.nextInt(40) - 20));
+            }
+            case 6 -> {
+                return new StringTag(randomString(random));
+            }
+            case 7 -> {
+                byte[] array = new byte[random.nextInt(5)];
+                random.nextBytes(array);
+                return new ByteArrayTag(array);
+            }
+            case 8 -> {
+                return new IntArrayTag(random.ints(random.nextInt(5)).toArray());
+            }
+            case 9 -> {
+                return new LongArrayTag(random.longs(random.nextInt(5)).toArray());
+            }
+            case 10 -> {
+                ListTag list = new ListTag();
+                for (int i = random.nextInt(4); i > 0; i--) {
+                    list.add(randomTag(random, depth + 1));
+                }
+                return list;
+            }
+            default -> {
+                CompoundTag compound = new CompoundTag();
+                for (int i = random.nextInt(4); i > 0; i--) {
+                    compound.put(randomString(random), randomTag(random, depth + 1));
+                }
+                return compound;
+            }
+        }
+    }
+
+    private static String randomString(Random random) {
+        String alphabet = "abcXYZ019_-.+ '\"\\\n{}[],:;é世";
+        StringBuilder builder = new StringBuilder();
+        for (int i = random.nextInt(8); i > 0; i--) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
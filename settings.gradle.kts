@@ -2,4 +2,5 @@ rootProject.name = "sparrow-nbt"
 include("codec")
 include("core")
 include("adventure")
-include("codec:legacy")
\ No newline at end of file
+include("codec:legacy")
+include("benchmarks")
\ No newline at end of file